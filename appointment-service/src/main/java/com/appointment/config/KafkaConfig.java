@@ -1,37 +1,76 @@
 package com.appointment.config;
 
+import com.appointment.kafka.PartitionedStateStore;
+import com.appointment.model.Patient;
+import com.appointment.service.PatientEligibilityService;
+import com.telemedicine.events.PatientRegisteredEvent;
+import com.telemedicine.events.codec.EventDeserializer;
+import com.telemedicine.events.codec.EventSerializer;
+import com.telemedicine.events.kafka.DeadLetterReplayService;
+import com.telemedicine.events.kafka.RetryTopicDepthMonitor;
+import com.telemedicine.events.saga.SagaHeaders;
+import com.telemedicine.events.saga.SagaMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
 @Slf4j
 public class KafkaConfig {
 
+    /** Suffix of the dead-letter topic that follows the last retry tier. */
+    public static final String DLT_SUFFIX = "-dlt";
+
+    /** Retry tiers are named {@code <topic>-retry-<n>}. */
+    public static final String RETRY_SUFFIX = "-retry-";
+
+    private static final String PATIENT_REGISTERED_TOPIC = "patient.registered";
+    private static final String APPOINTMENT_BOOKED_TOPIC = "appointment.booked";
+
+    /** Topics consumed with retry tiers; each has {@code attempts - 1} tiers and a DLT. */
+    private static final List<String> RETRYABLE_TOPICS = List.of(PATIENT_REGISTERED_TOPIC);
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${app.kafka.event-format:binary}")
+    private String eventFormat;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, EventSerializer.class);
+        configProps.put(EventSerializer.FORMAT_CONFIG, eventFormat);
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
@@ -43,31 +82,110 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    /**
+     * Republishes consumed records byte-for-byte (binary or JSON payloads) to retry tiers and dead-letter topics.
+     */
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    public KafkaTemplate<String, byte[]> retryKafkaTemplate() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps));
+    }
+
+    @Bean
+    public ConsumerFactory<String, byte[]> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // Listeners decode with the event-contracts codec, so retry tiers can republish the original bytes
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 10);
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
+    /**
+     * appointment.booked is keyed by patientId and shares its partition count with patient.registered and
+     * session.started, so one patient's events land on the same partition number in every topic. KafkaAdmin
+     * creates the topic or adds partitions to reach the count; it never removes any.
+     */
+    @Bean
+    public NewTopic appointmentBookedTopic(@Value("${app.kafka.topics.partitions:6}") int partitions,
+            @Value("${app.kafka.topics.replicas:1}") int replicas) {
+        return TopicBuilder.name(APPOINTMENT_BOOKED_TOPIC).partitions(partitions).replicas(replicas).build();
+    }
+
+    /**
+     * Eligibility state for the patient.registered partitions this instance consumes, rebuilt from the topic over
+     * the eligibility window on every rebalance.
+     */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public PartitionedStateStore<Patient> patientStateStore(MeterRegistry meterRegistry,
+            @Value("${app.kafka.state-store.restore-timeout:60s}") Duration restoreTimeout) {
+        EventDeserializer eventDeserializer = new EventDeserializer(PatientRegisteredEvent.class);
+        return new PartitionedStateStore<>("patients", PATIENT_REGISTERED_TOPIC,
+                consumerFactory().getConfigurationProperties(),
+                record -> eligiblePatient(record, eventDeserializer),
+                PatientEligibilityService.ELIGIBILITY_WINDOW, restoreTimeout, meterRegistry);
+    }
+
+    private static Patient eligiblePatient(ConsumerRecord<String, byte[]> record, EventDeserializer eventDeserializer) {
+        PatientRegisteredEvent event = eventDeserializer.deserialize(record.topic(), record.value(),
+                PatientRegisteredEvent.class);
+        Patient patient = new Patient(event.getPatientId(), event.getPhoneNumber(),
+                SagaHeaders.correlationId(record.headers()), SagaHeaders.originTimestamp(record.headers()));
+        // Stands in for the row's created_at, which is written when the listener handles the same record
+        patient.setCreatedAt(event.getRegisteredAt() != null ? event.getRegisteredAt()
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(record.timestamp()), ZoneId.systemDefault()));
+        return patient;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> kafkaListenerContainerFactory(
+            PartitionedStateStore<Patient> patientStateStore) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        // Rebuilds the patient state of newly assigned partitions before their records are delivered
+        factory.getContainerProperties().setConsumerRebalanceListener(patientStateStore);
 
-        // Add error handler for serialization exceptions
-        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler(
+        // No blocking in-place retries; retryable listeners route failures to retry tiers and the DLT
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
                 (consumerRecord, exception) -> {
                     log.error("Error processing record: {}, exception: {}", consumerRecord, exception.getMessage());
-                }));
+                }, new FixedBackOff(0L, 0L)));
 
         return factory;
     }
+
+    @Bean
+    public DeadLetterReplayService deadLetterReplayService(KafkaTemplate<String, byte[]> retryKafkaTemplate) {
+        return new DeadLetterReplayService(consumerFactory().getConfigurationProperties(), retryKafkaTemplate,
+                groupId + "-dlt-replay", DLT_SUFFIX);
+    }
+
+    @Bean
+    public RetryTopicDepthMonitor retryTopicDepthMonitor(KafkaAdmin kafkaAdmin, MeterRegistry meterRegistry,
+            DeadLetterReplayService deadLetterReplayService,
+            @Value("${app.kafka.retry.attempts:4}") int attempts) {
+        // Retry tier consumers join "<group><tier suffix>"; DLT depth is what has not been replayed yet
+        Map<String, String> groupByTopic = new LinkedHashMap<>();
+        for (String topic : RETRYABLE_TOPICS) {
+            for (int tier = 0; tier < attempts - 1; tier++) {
+                groupByTopic.put(topic + RETRY_SUFFIX + tier, groupId + RETRY_SUFFIX + tier);
+            }
+            groupByTopic.put(topic + DLT_SUFFIX, deadLetterReplayService.getReplayGroupId());
+        }
+        return new RetryTopicDepthMonitor(kafkaAdmin, meterRegistry, groupByTopic);
+    }
+
+    @Bean
+    public SagaMetrics sagaMetrics(MeterRegistry meterRegistry) {
+        return new SagaMetrics(meterRegistry);
+    }
 }
@@ -1,26 +0,0 @@
-package com.appointment.event;
-
-import com.fasterxml.jackson.annotation.JsonFormat;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-import java.time.LocalDateTime;
-
-@Data
-@NoArgsConstructor
-@AllArgsConstructor
-public class AppointmentBookedEvent {
-    private Long appointmentId;
-    private Long patientId;
-    private Long doctorId;
-
-    @JsonFormat(pattern = "yyyy-MM-dd HH:mm")
-    private LocalDateTime appointmentDate;
-
-    private String status;
-    private String reason;
-
-    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
-    private LocalDateTime bookedAt;
-}
@@ -1,30 +0,0 @@
-package com.appointment.event.common;
-
-import java.time.LocalDateTime;
-
-import com.fasterxml.jackson.annotation.JsonProperty;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-public class BaseEvent {
-
-    @JsonProperty("eventId")
-    private String eventId;
-
-    @JsonProperty("eventType")
-    private String eventType;
-
-    @JsonProperty("timestamp")
-    private LocalDateTime timestamp;
-
-    @JsonProperty("source")
-    private String source;
-
-    @JsonProperty("version")
-    private String version = "1.0";
-}
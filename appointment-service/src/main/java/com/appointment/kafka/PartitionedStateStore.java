@@ -0,0 +1,248 @@
+package com.appointment.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory view of a patientId-keyed topic, held per partition for the partitions this instance's listener owns.
+ * When a partition is assigned it is rebuilt from the topic, starting {@code restoreWindow} back and stopping at
+ * the listener's position; from there the listener keeps it current through {@link #put}. Revoked partitions are
+ * dropped. A key is only ever held by the partition the default partitioner maps it to, so a miss is not
+ * authoritative and callers fall back to the database.
+ */
+@Slf4j
+public class PartitionedStateStore<V> implements ConsumerAwareRebalanceListener {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+
+    private final String name;
+    private final String topic;
+    private final Map<String, Object> restoreConsumerProperties;
+    private final Function<ConsumerRecord<String, byte[]>, V> decoder;
+    private final Duration restoreWindow;
+    private final Duration restoreTimeout;
+    private final Map<Integer, Map<String, V>> partitions = new ConcurrentHashMap<>();
+    private volatile int partitionCount;
+
+    private final Timer restoreTimer;
+    private final Counter misplacedRecords;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param decoder turns a record into the state kept for its key; null removes the key
+     * @param restoreWindow how far back a restore starts reading, or null to read each partition from the beginning
+     */
+    public PartitionedStateStore(String name, String topic, Map<String, Object> consumerProperties,
+            Function<ConsumerRecord<String, byte[]>, V> decoder, Duration restoreWindow, Duration restoreTimeout,
+            MeterRegistry meterRegistry) {
+        Map<String, Object> props = new HashMap<>(consumerProperties);
+        // Restores assign partitions directly and never commit, so they stay out of the listener's group
+        props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1000);
+        this.restoreConsumerProperties = props;
+        this.name = name;
+        this.topic = topic;
+        this.decoder = decoder;
+        this.restoreWindow = restoreWindow;
+        this.restoreTimeout = restoreTimeout;
+
+        Gauge.builder("kafka.state.store.entries", partitions,
+                        p -> p.values().stream().mapToInt(Map::size).sum())
+                .description("Keys held by the local state store")
+                .tag("store", name)
+                .register(meterRegistry);
+        Gauge.builder("kafka.state.store.partitions", partitions, Map::size)
+                .description("Partitions restored into the local state store")
+                .tag("store", name)
+                .register(meterRegistry);
+        this.restoreTimer = Timer.builder("kafka.state.store.restore")
+                .description("Time to rebuild the partitions assigned in one rebalance")
+                .tag("store", name)
+                .register(meterRegistry);
+        this.misplacedRecords = Counter.builder("kafka.state.store.misplaced")
+                .description("Records skipped on restore because their key maps to another partition")
+                .tag("store", name)
+                .register(meterRegistry);
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+    }
+
+    private Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("kafka.state.store.lookups")
+                .description("Local state store lookups; misses fall back to the database")
+                .tag("store", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    public Optional<V> get(String key) {
+        Map<String, V> partition = partitionCount > 0 ? partitions.get(partitionFor(key)) : null;
+        V value = partition != null ? partition.get(key) : null;
+        (value != null ? hits : misses).increment();
+        return Optional.ofNullable(value);
+    }
+
+    /**
+     * Applies state the listener derived from a record it processed. Keys of partitions this instance does not
+     * own are ignored.
+     */
+    public void put(String key, V value) {
+        Map<String, V> partition = partitionCount > 0 ? partitions.get(partitionFor(key)) : null;
+        if (partition == null) {
+            return;
+        }
+        if (value == null) {
+            partition.remove(key);
+        } else {
+            partition.put(key, value);
+        }
+    }
+
+    /**
+     * Same mapping as the producer's default partitioner for keyed records.
+     */
+    int partitionFor(String key) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> assigned) {
+        // Listener containers built from the same factory also consume retry tiers; only the main topic is stored
+        Map<TopicPartition, Long> restoreTo = new HashMap<>();
+        for (TopicPartition partition : assigned) {
+            if (partition.topic().equals(topic)) {
+                restoreTo.put(partition, consumer.position(partition));
+            }
+        }
+        if (restoreTo.isEmpty()) {
+            return;
+        }
+        partitionCount = consumer.partitionsFor(topic).size();
+        restoreTimer.record(() -> restore(restoreTo));
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> revoked) {
+        drop(revoked);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> lost) {
+        drop(lost);
+    }
+
+    private void drop(Collection<TopicPartition> revoked) {
+        revoked.stream()
+                .filter(partition -> partition.topic().equals(topic))
+                .forEach(partition -> partitions.remove(partition.partition()));
+    }
+
+    /**
+     * Reads each partition up to the listener's position, so every record is applied exactly once: by the
+     * restore below that offset and by the listener from it on. Runs on the consumer thread during the
+     * rebalance; partitions that do not finish within the timeout are left out and served from the database.
+     */
+    private void restore(Map<TopicPartition, Long> restoreTo) {
+        Map<Integer, Map<String, V>> restored = new HashMap<>();
+        restoreTo.keySet().forEach(partition -> restored.put(partition.partition(), new ConcurrentHashMap<>()));
+        Map<TopicPartition, Long> pending = new HashMap<>(restoreTo);
+        long deadline = System.currentTimeMillis() + restoreTimeout.toMillis();
+
+        try (KafkaConsumer<String, byte[]> restoreConsumer = new KafkaConsumer<>(restoreConsumerProperties)) {
+            restoreConsumer.assign(pending.keySet());
+            seekToWindowStart(restoreConsumer, pending);
+
+            while (!pending.isEmpty() && System.currentTimeMillis() < deadline) {
+                pending.entrySet().removeIf(entry -> restoreConsumer.position(entry.getKey()) >= entry.getValue());
+                if (pending.isEmpty()) {
+                    break;
+                }
+                for (ConsumerRecord<String, byte[]> record : restoreConsumer.poll(POLL_TIMEOUT)) {
+                    Long end = restoreTo.get(new TopicPartition(record.topic(), record.partition()));
+                    if (record.offset() < end) {
+                        apply(restored.get(record.partition()), record);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Restoring state store {} from {} failed, lookups fall back to the database: {}",
+                    name, topic, e.getMessage());
+            return;
+        }
+
+        pending.keySet().forEach(partition -> restored.remove(partition.partition()));
+        if (!pending.isEmpty()) {
+            log.warn("State store {} did not restore {} within {}; those partitions are served from the database",
+                    name, pending.keySet(), restoreTimeout);
+        }
+        partitions.putAll(restored);
+        log.info("State store {} restored partitions {} of {}", name, restored.keySet(), topic);
+    }
+
+    private void seekToWindowStart(KafkaConsumer<String, byte[]> restoreConsumer, Map<TopicPartition, Long> pending) {
+        if (restoreWindow == null) {
+            restoreConsumer.seekToBeginning(pending.keySet());
+            return;
+        }
+        long windowStart = System.currentTimeMillis() - restoreWindow.toMillis();
+        Map<TopicPartition, Long> timestamps = new HashMap<>();
+        pending.keySet().forEach(partition -> timestamps.put(partition, windowStart));
+        Map<TopicPartition, OffsetAndTimestamp> offsets = restoreConsumer.offsetsForTimes(timestamps);
+        pending.forEach((partition, end) -> {
+            OffsetAndTimestamp offset = offsets.get(partition);
+            // Nothing in the window: start at the listener's position, leaving nothing to restore
+            restoreConsumer.seek(partition, offset != null ? Math.min(offset.offset(), end) : end);
+        });
+    }
+
+    private void apply(Map<String, V> partition, ConsumerRecord<String, byte[]> record) {
+        if (record.key() == null) {
+            return;
+        }
+        if (partitionFor(record.key()) != record.partition()) {
+            // Written before the topic was keyed by patientId or had its partitions increased
+            misplacedRecords.increment();
+            return;
+        }
+        V value;
+        try {
+            value = decoder.apply(record);
+        } catch (RuntimeException e) {
+            log.debug("Skipping undecodable record {}-{}@{} while restoring {}: {}",
+                    record.topic(), record.partition(), record.offset(), name, e.getMessage());
+            return;
+        }
+        if (value == null) {
+            partition.remove(record.key());
+        } else {
+            partition.put(record.key(), value);
+        }
+    }
+}
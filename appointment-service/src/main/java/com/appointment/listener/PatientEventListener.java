@@ -1,15 +1,22 @@
 package com.appointment.listener;
 
-import com.appointment.event.PatientRegisteredEvent;
 import com.appointment.service.PatientEligibilityService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.telemedicine.events.PatientRegisteredEvent;
+import com.telemedicine.events.codec.EventDeserializer;
+import com.telemedicine.events.saga.SagaMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -17,42 +24,66 @@ import org.springframework.stereotype.Component;
 @Slf4j
 public class PatientEventListener {
 
+    private static final String SAGA_STAGE = "patient.registered";
+
     private final PatientEligibilityService patientEligibilityService;
-    private final ObjectMapper objectMapper;
+    private final SagaMetrics sagaMetrics;
+    private final EventDeserializer eventDeserializer = new EventDeserializer(PatientRegisteredEvent.class);
 
+    /**
+     * Failures are retried through patient.registered-retry-N topics with exponential delays and finally parked on
+     * patient.registered-dlt, so a failing record never blocks the partition. Payloads the event codec cannot read
+     * go straight to the DLT.
+     */
+    @RetryableTopic(
+            attempts = "${app.kafka.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${app.kafka.retry.initial-delay:1000}",
+                    multiplierExpression = "${app.kafka.retry.multiplier:4}",
+                    maxDelayExpression = "${app.kafka.retry.max-delay:60000}"),
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            dltTopicSuffix = "-dlt",
+            exclude = SerializationException.class,
+            traversingCauses = "true",
+            kafkaTemplate = "retryKafkaTemplate",
+            autoCreateTopics = "${app.kafka.retry.auto-create-topics:true}")
     @KafkaListener(topics = "patient.registered", groupId = "appointment-service")
-    public void handlePatientRegistered(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
-            @Header(KafkaHeaders.OFFSET) long offset,
-            Acknowledgment acknowledgment) {
+    public void handlePatientRegistered(ConsumerRecord<String, byte[]> record, Acknowledgment acknowledgment) {
 
-        try {
-            log.info("Received patient.registered event from topic: {}, partition: {}, offset: {}",
-                    topic, partition, offset);
-            log.debug("Raw event payload: {}", message);
+        log.info("Received patient.registered event from topic: {}, partition: {}, offset: {}",
+                record.topic(), record.partition(), record.offset());
+        log.debug("Raw event payload: {}", EventDeserializer.describe(record.value()));
+        SagaMetrics.Hop hop = sagaMetrics.received(SAGA_STAGE, record);
 
-            // Manual deserialization with error handling
-            PatientRegisteredEvent event = objectMapper.readValue(message, PatientRegisteredEvent.class);
+        PatientRegisteredEvent event;
+        try {
+            // Binary or JSON straight from the record bytes; a decode failure is not retryable and goes to the DLT
+            event = eventDeserializer.deserialize(record.topic(), record.value(), PatientRegisteredEvent.class);
 
             log.info("Successfully deserialized event for patient ID: {}", event.getPatientId());
 
-            // Add patient to database for eligibility tracking
-            patientEligibilityService.addPatient(event.getPatientId(), event.getPhoneNumber());
+            // Add patient to database for eligibility tracking; the saga origin rides along for appointment.booked
+            patientEligibilityService.addPatient(event.getPatientId(), event.getPhoneNumber(),
+                    hop.getCorrelationId(), hop.getOriginEpochMillis());
+        } catch (RuntimeException e) {
+            hop.failed();
+            throw e;
+        }
+        hop.completed();
 
-            log.info("Patient {} is now eligible for booking appointments for 3 days", event.getPatientId());
+        log.info("Patient {} is now eligible for booking appointments for 3 days", event.getPatientId());
 
-            // Acknowledge the message
-            acknowledgment.acknowledge();
+        // Acknowledge the message; exceptions hand the record to the next retry tier
+        acknowledgment.acknowledge();
+    }
 
-        } catch (Exception e) {
-            log.error("Error processing patient.registered event: {}", e.getMessage(), e);
-            log.error("Raw message that failed: {}", message);
-            // In a production environment, you might want to send this to a dead letter
-            // queue
-            // For now, we'll still acknowledge to prevent infinite retries
-            acknowledgment.acknowledge();
-        }
+    @DltHandler
+    public void handleDeadLetter(@Payload byte[] message,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) String error,
+            Acknowledgment acknowledgment) {
+        // Records stay on the DLT and can be re-driven through the dead-letter replay endpoint
+        log.error("patient.registered record exhausted retries and was parked on {}: {}", topic, error);
+        log.error("Raw message that failed: {}", EventDeserializer.describe(message));
+        acknowledgment.acknowledge();
     }
 }
@@ -22,6 +22,14 @@ public class Patient {
     @Column(name = "mobile_number")
     private String mobileNumber;
 
+    /** Saga correlation ID from the patient.registered event, copied onto the patient's appointment.booked events. */
+    @Column(name = "correlation_id")
+    private String correlationId;
+
+    /** When the patient registered, in epoch milliseconds; the origin of the saga's end-to-end lag. */
+    @Column(name = "origin_epoch_millis")
+    private Long originEpochMillis;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -30,4 +38,10 @@ public class Patient {
         this.patientId = patientId;
         this.mobileNumber = mobileNumber;
     }
+
+    public Patient(Long patientId, String mobileNumber, String correlationId, Long originEpochMillis) {
+        this(patientId, mobileNumber);
+        this.correlationId = correlationId;
+        this.originEpochMillis = originEpochMillis;
+    }
 }
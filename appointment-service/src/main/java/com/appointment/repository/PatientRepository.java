@@ -8,6 +8,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
@@ -15,6 +16,9 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
     @Query("SELECT p FROM Patient p WHERE p.createdAt >= :threeDaysAgo")
     List<Patient> findEligiblePatients(@Param("threeDaysAgo") LocalDateTime threeDaysAgo);
 
+    @Query("SELECT p FROM Patient p WHERE p.patientId = :patientId AND p.createdAt >= :threeDaysAgo")
+    Optional<Patient> findEligiblePatient(@Param("patientId") Long patientId, @Param("threeDaysAgo") LocalDateTime threeDaysAgo);
+
     @Query("SELECT CASE WHEN COUNT(p) > 0 THEN true ELSE false END FROM Patient p WHERE p.patientId = :patientId AND p.createdAt >= :threeDaysAgo")
     boolean isPatientEligible(@Param("patientId") Long patientId, @Param("threeDaysAgo") LocalDateTime threeDaysAgo);
 }
@@ -2,17 +2,22 @@ package com.appointment.service;
 
 import com.appointment.dto.AppointmentResponse;
 import com.appointment.dto.CreateAppointmentRequest;
-import com.appointment.event.AppointmentBookedEvent;
 import com.appointment.model.Appointment;
+import com.appointment.model.Patient;
 import com.appointment.repository.AppointmentRepository;
+import com.telemedicine.events.AppointmentBookedEvent;
+import com.telemedicine.events.saga.SagaHeaders;
+import com.telemedicine.events.saga.SagaMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -22,19 +27,27 @@ public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final PatientEligibilityService patientEligibilityService;
+    private final SagaMetrics sagaMetrics;
 
     private static final String APPOINTMENT_BOOKED_TOPIC = "appointment.booked";
+    private static final String BOOKING_STAGE = "appointment.booking";
 
     public AppointmentResponse createAppointment(CreateAppointmentRequest request) {
         log.info("Creating appointment for patient {} with doctor {} on {}",
                 request.getPatientId(), request.getDoctorId(), request.getAppointmentDate());
 
         // Check if patient is eligible for booking (within 3 days of registration)
-        if (!patientEligibilityService.isPatientEligible(request.getPatientId())) {
+        Patient patient = patientEligibilityService.findEligiblePatient(request.getPatientId()).orElse(null);
+        if (patient == null) {
             log.warn("Patient {} is not eligible for booking appointments", request.getPatientId());
             return null; // Simple error handling
         }
 
+        // Patients registered before correlation was introduced start their saga here
+        SagaMetrics.Hop hop = patient.getCorrelationId() != null
+                ? sagaMetrics.start(BOOKING_STAGE, patient.getCorrelationId(), patient.getOriginEpochMillis())
+                : sagaMetrics.start(BOOKING_STAGE, UUID.randomUUID().toString(), System.currentTimeMillis());
+
         // Create appointment
         Appointment appointment = new Appointment();
         appointment.setPatientId(request.getPatientId());
@@ -47,7 +60,7 @@ public class AppointmentService {
         Appointment savedAppointment = appointmentRepository.save(appointment);
 
         // Publish appointment booked event
-        publishAppointmentBookedEvent(savedAppointment);
+        publishAppointmentBookedEvent(savedAppointment, hop);
 
         log.info("Appointment created successfully with ID: {}", savedAppointment.getId());
         return mapToResponse(savedAppointment);
@@ -89,9 +102,13 @@ public class AppointmentService {
         return null;
     }
 
-    private void publishAppointmentBookedEvent(Appointment appointment) {
+    private void publishAppointmentBookedEvent(Appointment appointment, SagaMetrics.Hop hop) {
         try {
             AppointmentBookedEvent event = new AppointmentBookedEvent();
+            event.setEventId(UUID.randomUUID().toString());
+            event.setEventType(AppointmentBookedEvent.EVENT_TYPE);
+            event.setTimestamp(LocalDateTime.now());
+            event.setSource("appointment-service");
             event.setAppointmentId(appointment.getId());
             event.setPatientId(appointment.getPatientId());
             event.setDoctorId(appointment.getDoctorId());
@@ -100,9 +117,16 @@ public class AppointmentService {
             event.setReason(appointment.getReason());
             event.setBookedAt(LocalDateTime.now());
 
-            kafkaTemplate.send(APPOINTMENT_BOOKED_TOPIC, event.getAppointmentId().toString(), event);
-            log.info("Published appointment booked event for appointment: {}", appointment.getId());
+            // Keyed by patientId like patient.registered and session.started, so a patient's events share a partition
+            ProducerRecord<String, Object> record = new ProducerRecord<>(APPOINTMENT_BOOKED_TOPIC,
+                    event.getPatientId().toString(), event);
+            SagaHeaders.write(record.headers(), hop.getCorrelationId(), hop.getOriginEpochMillis());
+            kafkaTemplate.send(record);
+            hop.completed();
+            log.info("Published appointment booked event for appointment: {} (correlation {})",
+                    appointment.getId(), hop.getCorrelationId());
         } catch (Exception e) {
+            hop.failed();
             log.error("Failed to publish appointment booked event: {}", e.getMessage());
         }
     }
@@ -1,41 +1,73 @@
 package com.appointment.service;
 
+import com.appointment.kafka.PartitionedStateStore;
 import com.appointment.model.Patient;
 import com.appointment.repository.PatientRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PatientEligibilityService {
 
+    /** Patients can book appointments for this long after registering. */
+    public static final Duration ELIGIBILITY_WINDOW = Duration.ofDays(3);
+
     private final PatientRepository patientRepository;
+    private final PartitionedStateStore<Patient> patientStateStore;
 
     public boolean isPatientEligible(Long patientId) {
-        LocalDateTime threeDaysAgo = LocalDateTime.now().minusDays(3);
+        LocalDateTime threeDaysAgo = LocalDateTime.now().minus(ELIGIBILITY_WINDOW);
         boolean isEligible = patientRepository.isPatientEligible(patientId, threeDaysAgo);
         log.debug("Patient {} eligibility check: {}", patientId, isEligible);
         return isEligible;
     }
 
-    public void addPatient(Long patientId, String mobileNumber) {
+    /**
+     * @return the patient when they registered within the last three days. Patients on a patient.registered
+     * partition this instance consumes are answered from memory; the rest are looked up in the database.
+     */
+    public Optional<Patient> findEligiblePatient(Long patientId) {
+        LocalDateTime threeDaysAgo = LocalDateTime.now().minus(ELIGIBILITY_WINDOW);
+        Optional<Patient> local = patientStateStore.get(patientId.toString())
+                .filter(patient -> patient.getCreatedAt() != null);
+        if (local.isPresent()) {
+            log.debug("Patient {} eligibility check (local): {}", patientId,
+                    !local.get().getCreatedAt().isBefore(threeDaysAgo));
+            return local.filter(patient -> !patient.getCreatedAt().isBefore(threeDaysAgo));
+        }
+
+        Optional<Patient> patient = patientRepository.findEligiblePatient(patientId, threeDaysAgo);
+        log.debug("Patient {} eligibility check: {}", patientId, patient.isPresent());
+        return patient;
+    }
+
+    /**
+     * Called by the patient.registered listener, which owns the patient's partition, so the stored row also
+     * becomes the local state for later eligibility checks.
+     */
+    public void addPatient(Long patientId, String mobileNumber, String correlationId, Long originEpochMillis) {
+        String key = patientId.toString();
         Patient existingPatient = patientRepository.findById(patientId).orElse(null);
         if (existingPatient == null) {
-            Patient patient = new Patient(patientId, mobileNumber);
-            patientRepository.save(patient);
+            Patient patient = new Patient(patientId, mobileNumber, correlationId, originEpochMillis);
+            patientStateStore.put(key, patientRepository.save(patient));
             log.info("Patient {} added with mobile: {}", patientId, mobileNumber);
         } else {
+            patientStateStore.put(key, existingPatient);
             log.info("Patient {} already exists", patientId);
         }
     }
 
     public List<Patient> getAllEligiblePatients() {
-        LocalDateTime threeDaysAgo = LocalDateTime.now().minusDays(3);
+        LocalDateTime threeDaysAgo = LocalDateTime.now().minus(ELIGIBILITY_WINDOW);
         return patientRepository.findEligiblePatients(threeDaysAgo);
     }
 }
@@ -0,0 +1,3 @@
+-- Saga correlation carried from patient.registered so appointment.booked can report end-to-end lag
+ALTER TABLE appointment.patients ADD COLUMN IF NOT EXISTS correlation_id VARCHAR(64);
+ALTER TABLE appointment.patients ADD COLUMN IF NOT EXISTS origin_epoch_millis BIGINT;
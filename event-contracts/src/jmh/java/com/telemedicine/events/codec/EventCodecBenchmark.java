@@ -0,0 +1,104 @@
+package com.telemedicine.events.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.telemedicine.events.AppointmentBookedEvent;
+import com.telemedicine.events.PatientRegisteredEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary codec against the JSON path the listeners used before it: serialize to JSON bytes, then on the consumer
+ * side decode the bytes to a String and parse that with an ObjectMapper. Encoded sizes are printed at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventCodecBenchmark {
+
+    private static final String TOPIC = "appointment.booked";
+
+    private final EventSerializer binarySerializer = new EventSerializer(EventFormat.BINARY);
+    private final EventDeserializer deserializer = new EventDeserializer(AppointmentBookedEvent.class);
+    private final ObjectMapper objectMapper = EventJson.MAPPER;
+
+    private AppointmentBookedEvent appointmentBooked;
+    private PatientRegisteredEvent patientRegistered;
+    private byte[] appointmentBinary;
+    private byte[] appointmentJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        LocalDateTime now = LocalDateTime.of(2026, 10, 19, 9, 30, 15);
+
+        appointmentBooked = new AppointmentBookedEvent(4242L, 1017L, 88L, now.plusDays(2), null, "CONSULTATION",
+                "SCHEDULED", "Follow-up on blood test results", now);
+        appointmentBooked.setEventId(UUID.randomUUID().toString());
+        appointmentBooked.setEventType(AppointmentBookedEvent.EVENT_TYPE);
+        appointmentBooked.setTimestamp(now);
+        appointmentBooked.setSource("appointment-service");
+
+        patientRegistered = PatientRegisteredEvent.builder()
+                .patientId(1017L)
+                .firstName("Asha")
+                .lastName("Verma")
+                .email("asha.verma@example.com")
+                .phoneNumber("+91-9876543210")
+                .dateOfBirth(LocalDate.of(1988, 4, 12))
+                .gender("FEMALE")
+                .address("12 Residency Road, Bengaluru")
+                .registeredAt(now)
+                .build();
+        patientRegistered.setEventId(UUID.randomUUID().toString());
+        patientRegistered.setEventType(PatientRegisteredEvent.EVENT_TYPE);
+        patientRegistered.setTimestamp(now);
+        patientRegistered.setSource("patient-service");
+
+        appointmentBinary = binarySerializer.serialize(TOPIC, appointmentBooked);
+        appointmentJson = objectMapper.writeValueAsBytes(appointmentBooked);
+        byte[] patientBinary = binarySerializer.serialize("patient.registered", patientRegistered);
+        byte[] patientJson = objectMapper.writeValueAsBytes(patientRegistered);
+
+        System.out.printf("%nAppointmentBookedEvent: binary %d bytes, JSON %d bytes%n",
+                appointmentBinary.length, appointmentJson.length);
+        System.out.printf("PatientRegisteredEvent: binary %d bytes, JSON %d bytes%n",
+                patientBinary.length, patientJson.length);
+    }
+
+    @Benchmark
+    public byte[] serializeBinary() {
+        return binarySerializer.serialize(TOPIC, appointmentBooked);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws Exception {
+        return objectMapper.writeValueAsBytes(appointmentBooked);
+    }
+
+    @Benchmark
+    public Object deserializeBinary() {
+        return deserializer.deserialize(TOPIC, appointmentBinary);
+    }
+
+    @Benchmark
+    public Object deserializeJsonFallback() {
+        return deserializer.deserialize(TOPIC, appointmentJson);
+    }
+
+    @Benchmark
+    public Object deserializeJsonViaString() throws Exception {
+        // The previous listener path: StringDeserializer, then readValue on the String
+        String message = new String(appointmentJson, StandardCharsets.UTF_8);
+        return objectMapper.readValue(message, AppointmentBookedEvent.class);
+    }
+}
@@ -1,7 +1,7 @@
-package com.session.event;
+package com.telemedicine.events;
 
-import com.session.event.common.BaseEvent;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -9,12 +9,19 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+/**
+ * Published by appointment-service on {@code appointment.booked}. The JSON date patterns are the ones this event has
+ * always used on the wire.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class AppointmentBookedEvent extends BaseEvent {
 
+    public static final String EVENT_TYPE = "APPOINTMENT_BOOKED";
+
     private Long appointmentId;
     private Long patientId;
     private Long doctorId;
@@ -27,6 +34,7 @@ public class AppointmentBookedEvent extends BaseEvent {
 
     private String appointmentType;
     private String status;
+    private String reason;
 
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime bookedAt;
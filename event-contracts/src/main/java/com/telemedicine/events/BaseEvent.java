@@ -1,6 +1,5 @@
-package com.session.event.common;
+package com.telemedicine.events;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,7 +14,7 @@ public abstract class BaseEvent {
     private String eventId;
     private String eventType;
 
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    // ISO-8601; parsing accepts the second- and fraction-precision forms older producers emitted
     private LocalDateTime timestamp;
 
     private String source;
@@ -1,48 +1,35 @@
-package com.patient.event;
-
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.patient.event.common.BaseEvent;
+package com.telemedicine.events;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Published by patient-service on {@code patient.registered}.
+ */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @EqualsAndHashCode(callSuper = true)
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class PatientRegisteredEvent extends BaseEvent {
 
-    @JsonProperty("patientId")
-    private Long patientId;
+    public static final String EVENT_TYPE = "PATIENT_REGISTERED";
 
-    @JsonProperty("firstName")
+    private Long patientId;
     private String firstName;
-
-    @JsonProperty("lastName")
     private String lastName;
-
-    @JsonProperty("email")
     private String email;
-
-    @JsonProperty("phoneNumber")
     private String phoneNumber;
-
-    @JsonProperty("dateOfBirth")
     private LocalDate dateOfBirth;
-
-    @JsonProperty("gender")
     private String gender;
-
-    @JsonProperty("address")
     private String address;
-
-    @JsonProperty("registeredAt")
     private LocalDateTime registeredAt;
 }
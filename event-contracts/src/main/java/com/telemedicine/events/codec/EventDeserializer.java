@@ -0,0 +1,95 @@
+package com.telemedicine.events.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Reads either wire format. Binary payloads name their own contract; JSON payloads carry no type, so they are read
+ * as the configured default type ({@code event.codec.json.default-type}). Unreadable input throws
+ * {@link SerializationException}, which the services treat as not retryable.
+ */
+public class EventDeserializer implements Deserializer<Object> {
+
+    public static final String JSON_DEFAULT_TYPE_CONFIG = "event.codec.json.default-type";
+
+    private Class<?> jsonType;
+
+    public EventDeserializer() {
+    }
+
+    public EventDeserializer(Class<?> jsonType) {
+        this.jsonType = jsonType;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object configured = configs.get(JSON_DEFAULT_TYPE_CONFIG);
+        if (configured instanceof Class<?> type) {
+            jsonType = type;
+        } else if (configured != null) {
+            try {
+                jsonType = Class.forName(configured.toString());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("Unknown " + JSON_DEFAULT_TYPE_CONFIG + ": " + configured, e);
+            }
+        }
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (EventFormat.of(data) == EventFormat.BINARY) {
+            return readBinary(ByteBuffer.wrap(data));
+        }
+        if (jsonType == null) {
+            throw new SerializationException("JSON payload on " + topic + " but no " + JSON_DEFAULT_TYPE_CONFIG);
+        }
+        try {
+            return EventJson.MAPPER.readValue(data, jsonType);
+        } catch (IOException e) {
+            throw new SerializationException("Could not read JSON " + jsonType.getSimpleName() + " from " + topic, e);
+        }
+    }
+
+    /**
+     * Decodes a payload that must be of {@code type}, whichever format it arrived in.
+     */
+    public <T> T deserialize(String topic, byte[] data, Class<T> type) {
+        Object event = deserialize(topic, data);
+        if (event != null && !type.isInstance(event)) {
+            throw new SerializationException("Expected " + type.getSimpleName() + " on " + topic + " but got "
+                    + event.getClass().getSimpleName());
+        }
+        return type.cast(event);
+    }
+
+    /**
+     * Log-friendly rendering of a raw payload: JSON as text, binary as its size.
+     */
+    public static String describe(byte[] data) {
+        if (data == null) {
+            return "null";
+        }
+        return EventFormat.of(data) == EventFormat.BINARY
+                ? "binary event (" + data.length + " bytes)"
+                : new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static Object readBinary(ByteBuffer buffer) {
+        BinaryReader in = new BinaryReader(buffer);
+        in.readByte();
+        int typeId = in.readVarInt();
+        EventSchema<?> schema = EventSchemas.forTypeId(typeId);
+        if (schema == null) {
+            throw new SerializationException("Unknown event type id " + typeId);
+        }
+        return schema.read(in, in.readVarInt());
+    }
+}
@@ -0,0 +1,19 @@
+package com.telemedicine.events.codec;
+
+import java.util.Locale;
+
+public enum EventFormat {
+    BINARY,
+    JSON;
+
+    /** First byte of every binary payload; JSON payloads start with '{' or whitespace. */
+    public static final int MAGIC = 0xE7;
+
+    public static EventFormat parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public static EventFormat of(byte[] payload) {
+        return payload.length > 0 && (payload[0] & 0xFF) == MAGIC ? BINARY : JSON;
+    }
+}
@@ -0,0 +1,147 @@
+package com.telemedicine.events.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ordered binary layout of one event type. Fields are only ever appended: each remembers the schema version that
+ * introduced it, so a payload of any version up to {@link #getVersion()} can be read.
+ */
+public final class EventSchema<T> {
+
+    private static final int MAX_FIELDS = 63;
+
+    private final int typeId;
+    private final Class<T> type;
+    private final Supplier<T> factory;
+    private final List<Field<T, ?>> fields;
+    private final int version;
+
+    private EventSchema(int typeId, Class<T> type, Supplier<T> factory, List<Field<T, ?>> fields) {
+        this.typeId = typeId;
+        this.type = type;
+        this.factory = factory;
+        this.fields = List.copyOf(fields);
+        this.version = fields.stream().mapToInt(field -> field.sinceVersion).max().orElse(1);
+    }
+
+    public static <T> Builder<T> builder(int typeId, Class<T> type, Supplier<T> factory) {
+        return new Builder<>(typeId, type, factory);
+    }
+
+    public int getTypeId() {
+        return typeId;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void write(T event, BinaryWriter out) {
+        long presence = 0;
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).getter.apply(event) != null) {
+                presence |= 1L << i;
+            }
+        }
+        out.writeVarLong(presence);
+        for (int i = 0; i < fields.size(); i++) {
+            if ((presence & (1L << i)) != 0) {
+                fields.get(i).write(event, out);
+            }
+        }
+    }
+
+    public T read(BinaryReader in, int payloadVersion) {
+        if (payloadVersion < 1 || payloadVersion > version) {
+            throw new SerializationException(type.getSimpleName() + " schema version " + payloadVersion
+                    + " is not readable; this build understands up to " + version);
+        }
+        long presence = in.readVarLong();
+        T event = factory.get();
+        for (int i = 0; i < fields.size(); i++) {
+            Field<T, ?> field = fields.get(i);
+            if (field.sinceVersion > payloadVersion) {
+                break;
+            }
+            if ((presence & (1L << i)) != 0) {
+                field.read(event, in);
+            } else {
+                // Written as null, so a default from the contract's constructor must not take its place
+                field.clear(event);
+            }
+        }
+        return event;
+    }
+
+    public static final class Builder<T> {
+
+        private final int typeId;
+        private final Class<T> type;
+        private final Supplier<T> factory;
+        private final List<Field<T, ?>> fields = new ArrayList<>();
+
+        private Builder(int typeId, Class<T> type, Supplier<T> factory) {
+            this.typeId = typeId;
+            this.type = type;
+            this.factory = factory;
+        }
+
+        public <V> Builder<T> field(FieldType<V> fieldType, Function<T, V> getter, BiConsumer<T, V> setter) {
+            return field(1, fieldType, getter, setter);
+        }
+
+        public <V> Builder<T> field(int sinceVersion, FieldType<V> fieldType, Function<T, V> getter,
+                BiConsumer<T, V> setter) {
+            int previous = fields.isEmpty() ? 1 : fields.get(fields.size() - 1).sinceVersion;
+            if (sinceVersion < previous) {
+                throw new IllegalArgumentException("Fields must be appended in version order");
+            }
+            if (fields.size() == MAX_FIELDS) {
+                throw new IllegalArgumentException("A schema holds at most " + MAX_FIELDS + " fields");
+            }
+            fields.add(new Field<>(sinceVersion, fieldType, getter, setter));
+            return this;
+        }
+
+        public EventSchema<T> build() {
+            return new EventSchema<>(typeId, type, factory, fields);
+        }
+    }
+
+    private static final class Field<T, V> {
+
+        private final int sinceVersion;
+        private final FieldType<V> fieldType;
+        private final Function<T, V> getter;
+        private final BiConsumer<T, V> setter;
+
+        Field(int sinceVersion, FieldType<V> fieldType, Function<T, V> getter, BiConsumer<T, V> setter) {
+            this.sinceVersion = sinceVersion;
+            this.fieldType = fieldType;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        void write(T event, BinaryWriter out) {
+            fieldType.write(out, getter.apply(event));
+        }
+
+        void read(T event, BinaryReader in) {
+            setter.accept(event, fieldType.read(in));
+        }
+
+        void clear(T event) {
+            setter.accept(event, null);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.telemedicine.events.codec;
+
+import com.telemedicine.events.AppointmentBookedEvent;
+import com.telemedicine.events.BaseEvent;
+import com.telemedicine.events.PatientRegisteredEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Binary schemas of the shared contracts. Type ids are part of the wire format and must never be reused; a new
+ * field is appended with {@code field(version, ...)} using the next schema version.
+ */
+public final class EventSchemas {
+
+    public static final EventSchema<PatientRegisteredEvent> PATIENT_REGISTERED = withBaseFields(
+            EventSchema.builder(1, PatientRegisteredEvent.class, PatientRegisteredEvent::new))
+            .field(FieldType.LONG, PatientRegisteredEvent::getPatientId, PatientRegisteredEvent::setPatientId)
+            .field(FieldType.STRING, PatientRegisteredEvent::getFirstName, PatientRegisteredEvent::setFirstName)
+            .field(FieldType.STRING, PatientRegisteredEvent::getLastName, PatientRegisteredEvent::setLastName)
+            .field(FieldType.STRING, PatientRegisteredEvent::getEmail, PatientRegisteredEvent::setEmail)
+            .field(FieldType.STRING, PatientRegisteredEvent::getPhoneNumber, PatientRegisteredEvent::setPhoneNumber)
+            .field(FieldType.DATE, PatientRegisteredEvent::getDateOfBirth, PatientRegisteredEvent::setDateOfBirth)
+            .field(FieldType.STRING, PatientRegisteredEvent::getGender, PatientRegisteredEvent::setGender)
+            .field(FieldType.STRING, PatientRegisteredEvent::getAddress, PatientRegisteredEvent::setAddress)
+            .field(FieldType.DATE_TIME, PatientRegisteredEvent::getRegisteredAt, PatientRegisteredEvent::setRegisteredAt)
+            .build();
+
+    public static final EventSchema<AppointmentBookedEvent> APPOINTMENT_BOOKED = withBaseFields(
+            EventSchema.builder(2, AppointmentBookedEvent.class, AppointmentBookedEvent::new))
+            .field(FieldType.LONG, AppointmentBookedEvent::getAppointmentId, AppointmentBookedEvent::setAppointmentId)
+            .field(FieldType.LONG, AppointmentBookedEvent::getPatientId, AppointmentBookedEvent::setPatientId)
+            .field(FieldType.LONG, AppointmentBookedEvent::getDoctorId, AppointmentBookedEvent::setDoctorId)
+            .field(FieldType.DATE_TIME, AppointmentBookedEvent::getAppointmentDate, AppointmentBookedEvent::setAppointmentDate)
+            .field(FieldType.DATE_TIME, AppointmentBookedEvent::getAppointmentTime, AppointmentBookedEvent::setAppointmentTime)
+            .field(FieldType.STRING, AppointmentBookedEvent::getAppointmentType, AppointmentBookedEvent::setAppointmentType)
+            .field(FieldType.STRING, AppointmentBookedEvent::getStatus, AppointmentBookedEvent::setStatus)
+            .field(FieldType.STRING, AppointmentBookedEvent::getReason, AppointmentBookedEvent::setReason)
+            .field(FieldType.DATE_TIME, AppointmentBookedEvent::getBookedAt, AppointmentBookedEvent::setBookedAt)
+            .build();
+
+    private static final List<EventSchema<?>> ALL = List.of(PATIENT_REGISTERED, APPOINTMENT_BOOKED);
+
+    private static final Map<Integer, EventSchema<?>> BY_TYPE_ID = ALL.stream()
+            .collect(Collectors.toUnmodifiableMap(EventSchema::getTypeId, Function.identity()));
+
+    private static final Map<Class<?>, EventSchema<?>> BY_CLASS = ALL.stream()
+            .collect(Collectors.toUnmodifiableMap(EventSchema::getType, Function.identity()));
+
+    private EventSchemas() {
+    }
+
+    /**
+     * @return the schema registered under the wire type id, or null
+     */
+    public static EventSchema<?> forTypeId(int typeId) {
+        return BY_TYPE_ID.get(typeId);
+    }
+
+    /**
+     * @return the schema of exactly this class, or null when it has no binary form
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EventSchema<T> forClass(Class<T> type) {
+        return (EventSchema<T>) BY_CLASS.get(type);
+    }
+
+    private static <T extends BaseEvent> EventSchema.Builder<T> withBaseFields(EventSchema.Builder<T> builder) {
+        return builder
+                .field(FieldType.STRING, BaseEvent::getEventId, BaseEvent::setEventId)
+                .field(FieldType.STRING, BaseEvent::getEventType, BaseEvent::setEventType)
+                .field(FieldType.DATE_TIME, BaseEvent::getTimestamp, BaseEvent::setTimestamp)
+                .field(FieldType.STRING, BaseEvent::getSource, BaseEvent::setSource)
+                .field(FieldType.STRING, BaseEvent::getVersion, BaseEvent::setVersion);
+    }
+}
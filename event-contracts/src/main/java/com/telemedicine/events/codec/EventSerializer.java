@@ -0,0 +1,65 @@
+package com.telemedicine.events.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.util.Map;
+
+/**
+ * Writes the shared contracts in their binary form and anything else as JSON. With
+ * {@code event.codec.format=json} everything is written as JSON, which keeps producers compatible with consumers
+ * that predate the codec.
+ */
+public class EventSerializer implements Serializer<Object> {
+
+    public static final String FORMAT_CONFIG = "event.codec.format";
+
+    private static final ThreadLocal<BinaryWriter> WRITER = ThreadLocal.withInitial(() -> new BinaryWriter(512));
+
+    private EventFormat format;
+
+    public EventSerializer() {
+        this(EventFormat.BINARY);
+    }
+
+    public EventSerializer(EventFormat format) {
+        this.format = format;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        Object configured = configs.get(FORMAT_CONFIG);
+        if (configured != null) {
+            format = EventFormat.parse(configured.toString());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        if (format == EventFormat.BINARY) {
+            EventSchema<?> schema = EventSchemas.forClass(data.getClass());
+            if (schema != null) {
+                return writeBinary(schema, data);
+            }
+        }
+        try {
+            return EventJson.MAPPER.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Could not write " + data.getClass().getSimpleName() + " as JSON", e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> byte[] writeBinary(EventSchema<T> schema, Object data) {
+        BinaryWriter out = WRITER.get().reset();
+        out.writeByte(EventFormat.MAGIC);
+        out.writeVarLong(schema.getTypeId());
+        out.writeVarLong(schema.getVersion());
+        schema.write((T) data, out);
+        return out.toByteArray();
+    }
+}
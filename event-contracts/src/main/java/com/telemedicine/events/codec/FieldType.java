@@ -0,0 +1,35 @@
+package com.telemedicine.events.codec;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Binary encoding of one field value. Values are never null here; nulls are recorded in the presence bitmap.
+ */
+public interface FieldType<V> {
+
+    FieldType<String> STRING = of(BinaryWriter::writeString, BinaryReader::readString);
+    FieldType<Long> LONG = of(BinaryWriter::writeZigZagLong, BinaryReader::readZigZagLong);
+    FieldType<LocalDate> DATE = of(BinaryWriter::writeDate, BinaryReader::readDate);
+    FieldType<LocalDateTime> DATE_TIME = of(BinaryWriter::writeDateTime, BinaryReader::readDateTime);
+
+    void write(BinaryWriter out, V value);
+
+    V read(BinaryReader in);
+
+    static <V> FieldType<V> of(BiConsumer<BinaryWriter, V> writer, Function<BinaryReader, V> reader) {
+        return new FieldType<>() {
+            @Override
+            public void write(BinaryWriter out, V value) {
+                writer.accept(out, value);
+            }
+
+            @Override
+            public V read(BinaryReader in) {
+                return reader.apply(in);
+            }
+        };
+    }
+}
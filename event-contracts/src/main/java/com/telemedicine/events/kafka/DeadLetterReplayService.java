@@ -0,0 +1,125 @@
+package com.telemedicine.events.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-drives dead-lettered records onto their original topic in batches. A dedicated consumer group tracks how far
+ * each DLT has been replayed, so repeated calls continue where the previous one stopped and offsets are only
+ * committed once the republished records were acknowledged by the broker.
+ */
+@Slf4j
+public class DeadLetterReplayService {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final long ASSIGNMENT_TIMEOUT_MILLIS = 10_000;
+
+    private final ConsumerFactory<String, byte[]> replayConsumerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final String dltSuffix;
+    private final String replayGroupId;
+
+    public DeadLetterReplayService(Map<String, Object> consumerProperties, KafkaTemplate<String, byte[]> kafkaTemplate,
+            String replayGroupId, String dltSuffix) {
+        Map<String, Object> props = new HashMap<>(consumerProperties);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, replayGroupId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        this.replayConsumerFactory = new DefaultKafkaConsumerFactory<>(props);
+        this.kafkaTemplate = kafkaTemplate;
+        this.replayGroupId = replayGroupId;
+        this.dltSuffix = dltSuffix;
+    }
+
+    public String getReplayGroupId() {
+        return replayGroupId;
+    }
+
+    public boolean isDeadLetterTopic(String topic) {
+        return topic.endsWith(dltSuffix) && topic.length() > dltSuffix.length();
+    }
+
+    /**
+     * @return the number of records republished, at most {@code maxRecords}
+     */
+    public synchronized int replay(String dltTopic, int maxRecords) throws Exception {
+        if (!isDeadLetterTopic(dltTopic)) {
+            throw new IllegalArgumentException("Not a dead-letter topic: " + dltTopic);
+        }
+
+        Properties overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(Math.min(maxRecords, 500)));
+
+        int replayed = 0;
+        try (Consumer<String, byte[]> consumer = replayConsumerFactory.createConsumer(replayGroupId, null, null,
+                overrides)) {
+            consumer.subscribe(List.of(dltTopic));
+            long assignmentDeadline = System.currentTimeMillis() + ASSIGNMENT_TIMEOUT_MILLIS;
+
+            while (replayed < maxRecords) {
+                ConsumerRecords<String, byte[]> records = consumer.poll(POLL_TIMEOUT);
+                if (records.isEmpty()) {
+                    if (!consumer.assignment().isEmpty() || System.currentTimeMillis() > assignmentDeadline) {
+                        break;
+                    }
+                    continue;
+                }
+
+                List<CompletableFuture<?>> sends = new ArrayList<>();
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                for (ConsumerRecord<String, byte[]> record : records) {
+                    if (replayed == maxRecords) {
+                        break;
+                    }
+                    sends.add(kafkaTemplate.send(toOriginal(record)));
+                    offsets.put(new TopicPartition(record.topic(), record.partition()),
+                            new OffsetAndMetadata(record.offset() + 1));
+                    replayed++;
+                }
+
+                CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+                consumer.commitSync(offsets);
+            }
+        }
+
+        log.info("Replayed {} records from {}", replayed, dltTopic);
+        return replayed;
+    }
+
+    private ProducerRecord<String, byte[]> toOriginal(ConsumerRecord<String, byte[]> record) {
+        // The DLT name, not the original-topic header, gives the main topic: the header names the last retry tier
+        String topic = record.topic().substring(0, record.topic().length() - dltSuffix.length());
+
+        ProducerRecord<String, byte[]> replay = new ProducerRecord<>(topic, record.key(), record.value());
+        for (Header header : record.headers()) {
+            // Drop dead-letter and retry bookkeeping so the record starts its retry budget afresh
+            if (!header.key().startsWith("kafka_dlt-") && !header.key().startsWith("retry_topic-")) {
+                replay.headers().add(header);
+            }
+        }
+        return replay;
+    }
+}
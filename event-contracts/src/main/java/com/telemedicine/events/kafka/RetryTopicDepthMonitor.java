@@ -0,0 +1,103 @@
+package com.telemedicine.events.kafka;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes {@code kafka.retry.depth} (records not yet consumed) for each retry tier and the dead-letter topic.
+ * Depth is the consumer-group lag: end offset minus the offset committed by the group that reads the tier.
+ */
+@Slf4j
+public class RetryTopicDepthMonitor implements DisposableBean {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final AdminClient adminClient;
+    private final Map<String, String> groupByTopic;
+    private final Map<String, AtomicLong> depths = new ConcurrentHashMap<>();
+
+    /**
+     * @param groupByTopic tier topic mapped to the consumer group whose lag is reported for it
+     */
+    public RetryTopicDepthMonitor(KafkaAdmin kafkaAdmin, MeterRegistry meterRegistry, Map<String, String> groupByTopic) {
+        this.adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+        this.groupByTopic = groupByTopic;
+        groupByTopic.keySet().forEach(topic -> {
+            AtomicLong depth = depths.computeIfAbsent(topic, t -> new AtomicLong());
+            Gauge.builder("kafka.retry.depth", depth, AtomicLong::get)
+                    .description("Records waiting on a retry tier or dead-letter topic")
+                    .tag("topic", topic)
+                    .register(meterRegistry);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.kafka.retry.depth-refresh-interval:30000}")
+    public void refresh() {
+        groupByTopic.forEach((topic, group) -> {
+            try {
+                depths.get(topic).set(lag(topic, group));
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof UnknownTopicOrPartitionException) {
+                    depths.get(topic).set(0);
+                } else {
+                    log.warn("Could not measure depth of {}: {}", topic, e.getMessage());
+                }
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                log.warn("Could not measure depth of {}: {}", topic, e.getMessage());
+            }
+        });
+    }
+
+    private long lag(String topic, String group) throws Exception {
+        TopicDescription description = adminClient.describeTopics(List.of(topic)).allTopicNames()
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS).get(topic);
+        List<TopicPartition> partitions = description.partitions().stream()
+                .map(p -> new TopicPartition(topic, p.partition()))
+                .collect(Collectors.toList());
+
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = adminClient
+                .listOffsets(partitions.stream().collect(Collectors.toMap(Function.identity(), p -> OffsetSpec.latest())))
+                .all().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> starts = adminClient
+                .listOffsets(partitions.stream().collect(Collectors.toMap(Function.identity(), p -> OffsetSpec.earliest())))
+                .all().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        Map<TopicPartition, OffsetAndMetadata> committed = adminClient.listConsumerGroupOffsets(group)
+                .partitionsToOffsetAndMetadata().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        long lag = 0;
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata position = committed.get(partition);
+            long consumed = position != null ? position.offset() : starts.get(partition).offset();
+            lag += Math.max(0, ends.get(partition).offset() - consumed);
+        }
+        return lag;
+    }
+
+    @Override
+    public void destroy() {
+        adminClient.close();
+    }
+}
@@ -0,0 +1,46 @@
+package com.telemedicine.events.saga;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kafka headers that follow one patient through patient.registered -> appointment.booked -> session creation.
+ * The correlation ID is the eventId of the patient.registered event that started the saga and the origin
+ * timestamp is when the patient registered, in epoch milliseconds. Both travel as UTF-8 strings.
+ */
+public final class SagaHeaders {
+
+    public static final String CORRELATION_ID = "saga-correlation-id";
+    public static final String ORIGIN_TIMESTAMP = "saga-origin-timestamp";
+
+    private SagaHeaders() {
+    }
+
+    public static void write(Headers headers, String correlationId, long originEpochMillis) {
+        headers.remove(CORRELATION_ID).add(CORRELATION_ID, correlationId.getBytes(StandardCharsets.UTF_8));
+        headers.remove(ORIGIN_TIMESTAMP)
+                .add(ORIGIN_TIMESTAMP, Long.toString(originEpochMillis).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String correlationId(Headers headers) {
+        Header header = headers.lastHeader(CORRELATION_ID);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * @return the origin timestamp, or null when the header is missing or malformed
+     */
+    public static Long originTimestamp(Headers headers) {
+        Header header = headers.lastHeader(ORIGIN_TIMESTAMP);
+        if (header == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(new String(header.value(), StandardCharsets.UTF_8));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.telemedicine.events.saga;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.record.TimestampType;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-stage saga timings, all histograms tagged by {@code stage}:
+ * <ul>
+ *   <li>{@code saga.hop.queue} - from the record's producer timestamp until it reached the listener</li>
+ *   <li>{@code saga.hop.processing} - handling time of the stage, tagged with {@code outcome}</li>
+ *   <li>{@code saga.lag} - from the saga's origin timestamp until the stage completed</li>
+ * </ul>
+ * Services register one instance as a bean against their {@link MeterRegistry}.
+ */
+@RequiredArgsConstructor
+public class SagaMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Records how long the record waited in Kafka and starts timing its processing.
+     */
+    public Hop received(String stage, ConsumerRecord<?, ?> record) {
+        if (record.timestampType() != TimestampType.NO_TIMESTAMP_TYPE && record.timestamp() > 0) {
+            long queued = Math.max(0, System.currentTimeMillis() - record.timestamp());
+            timer("saga.hop.queue", "Time a saga event waited in Kafka before its listener received it", stage)
+                    .record(queued, TimeUnit.MILLISECONDS);
+        }
+        return start(stage, SagaHeaders.correlationId(record.headers()),
+                SagaHeaders.originTimestamp(record.headers()));
+    }
+
+    public Hop start(String stage, String correlationId, Long originEpochMillis) {
+        return new Hop(stage, correlationId, originEpochMillis, System.nanoTime());
+    }
+
+    private Timer timer(String name, String description, String stage, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("stage", stage)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public class Hop {
+
+        private final String stage;
+        private final String correlationId;
+        private final Long originEpochMillis;
+        private final long startedNanos;
+
+        private Hop(String stage, String correlationId, Long originEpochMillis, long startedNanos) {
+            this.stage = stage;
+            this.correlationId = correlationId;
+            this.originEpochMillis = originEpochMillis;
+            this.startedNanos = startedNanos;
+        }
+
+        public String getCorrelationId() {
+            return correlationId;
+        }
+
+        public Long getOriginEpochMillis() {
+            return originEpochMillis;
+        }
+
+        public void completed() {
+            processed("success");
+            if (originEpochMillis != null) {
+                timer("saga.lag", "Time from the start of the saga until this stage completed", stage)
+                        .record(Math.max(0, System.currentTimeMillis() - originEpochMillis), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        public void failed() {
+            processed("error");
+        }
+
+        private void processed(String outcome) {
+            timer("saga.hop.processing", "Time spent handling a saga stage", stage, "outcome", outcome)
+                    .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.telemedicine.events.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements each request executes. The count feeds {@code jdbc.request.statements}, a warning
+ * is logged when one statement shape repeats often enough to look like N+1 loading and, when enabled, the count
+ * is returned in the {@value #HEADER} header.
+ */
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Query-Count";
+
+    private final DistributionSummary statementsPerRequest;
+    private final boolean exposeHeader;
+    private final int repeatWarnThreshold;
+
+    public QueryCountFilter(MeterRegistry meterRegistry, boolean exposeHeader, int repeatWarnThreshold) {
+        this.statementsPerRequest = DistributionSummary.builder("jdbc.request.statements")
+                .description("SQL statements executed per HTTP request")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.exposeHeader = exposeHeader;
+        this.repeatWarnThreshold = repeatWarnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestQueryStats stats = RequestQueryStats.begin();
+        QueryCountResponse wrapped = exposeHeader ? new QueryCountResponse(response, stats) : null;
+        try {
+            chain.doFilter(request, wrapped != null ? wrapped : response);
+        } finally {
+            RequestQueryStats.end();
+            if (wrapped != null) {
+                wrapped.writeHeader();
+            }
+            statementsPerRequest.record(stats.getStatements());
+
+            Map.Entry<String, Integer> repeated = stats.mostRepeated();
+            if (repeated != null && repeated.getValue() >= repeatWarnThreshold) {
+                log.warn("{} {} ran the same statement {} times (possible N+1): {}", request.getMethod(),
+                        request.getRequestURI(), repeated.getValue(), repeated.getKey());
+            }
+        }
+    }
+
+    /**
+     * Sets the header just before the body starts, because headers cannot change once the response is committed.
+     */
+    private static class QueryCountResponse extends HttpServletResponseWrapper {
+
+        private final RequestQueryStats stats;
+        private boolean headerWritten;
+
+        QueryCountResponse(HttpServletResponse response, RequestQueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void writeHeader() {
+            if (!headerWritten && !isCommitted()) {
+                setHeader(HEADER, String.valueOf(stats.getStatements()));
+            }
+            headerWritten = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeader();
+            super.flushBuffer();
+        }
+    }
+}
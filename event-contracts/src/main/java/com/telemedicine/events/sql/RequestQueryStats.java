@@ -0,0 +1,54 @@
+package com.telemedicine.events.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statements executed by the current request thread. Opened by {@link QueryCountFilter}; statements run outside
+ * a request (Kafka listeners, startup) are not tracked.
+ */
+public final class RequestQueryStats {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> countsByStatement = new HashMap<>();
+    private int statements;
+
+    private RequestQueryStats() {
+    }
+
+    static RequestQueryStats begin() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the stats of the request running on this thread, or null when none is being tracked
+     */
+    static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    void record(String normalizedSql) {
+        statements++;
+        countsByStatement.merge(normalizedSql, 1, Integer::sum);
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * @return the statement shape executed most often in this request, or null when none ran
+     */
+    public Map.Entry<String, Integer> mostRepeated() {
+        return countsByStatement.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElse(null);
+    }
+}
@@ -0,0 +1,75 @@
+package com.telemedicine.events.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every JDBC execution as {@code jdbc.statement.latency{operation,status}}, counts it against the current
+ * request and logs statements at or over the slow threshold with their normalized SQL and bind count. SQL is only
+ * normalized when a request is being tracked or the statement is slow; otherwise a statement costs a cached timer
+ * lookup.
+ */
+@Slf4j
+public class SqlStatementListener implements QueryExecutionListener {
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdMillis;
+    private final Map<String, Timer> successTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> errorTimers = new ConcurrentHashMap<>();
+
+    public SqlStatementListener(MeterRegistry meterRegistry, Duration slowThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdMillis = slowThreshold.toMillis();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMillis = execInfo.getElapsedTime();
+        boolean slow = elapsedMillis >= slowThresholdMillis;
+        RequestQueryStats stats = RequestQueryStats.current();
+        String status = execInfo.isSuccess() ? "success" : "error";
+        Map<String, Timer> timers = execInfo.isSuccess() ? successTimers : errorTimers;
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = queryInfo.getQuery();
+            timers.computeIfAbsent(SqlNormalizer.operation(sql), operation -> timer(operation, status))
+                    .record(elapsedMillis, TimeUnit.MILLISECONDS);
+            if (stats == null && !slow) {
+                continue;
+            }
+
+            String normalized = SqlNormalizer.normalize(sql);
+            if (stats != null) {
+                stats.record(normalized);
+            }
+            if (slow) {
+                List<?> firstBinding = queryInfo.getParametersList().isEmpty()
+                        ? List.of() : queryInfo.getParametersList().get(0);
+                log.warn("Slow SQL ({} ms, {} binds, batch {}): {}", elapsedMillis, firstBinding.size(),
+                        execInfo.isBatch() ? execInfo.getBatchSize() : 1, normalized);
+            }
+        }
+    }
+
+    private Timer timer(String operation, String status) {
+        return Timer.builder("jdbc.statement.latency")
+                .description("JDBC statement execution time")
+                .tag("operation", operation)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,224 @@
+package com.telemedicine.events.codec;
+
+import com.telemedicine.events.AppointmentBookedEvent;
+import com.telemedicine.events.PatientRegisteredEvent;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventCodecTest {
+
+    private static final String TOPIC = "appointment.booked";
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 9, 30, 15, 123_456_789);
+
+    private final EventSerializer serializer = new EventSerializer(EventFormat.BINARY);
+    private final EventDeserializer deserializer = new EventDeserializer(AppointmentBookedEvent.class);
+
+    @Test
+    void appointmentBookedRoundTripsInBinary() {
+        AppointmentBookedEvent event = appointmentBooked();
+
+        byte[] payload = serializer.serialize(TOPIC, event);
+
+        assertThat(EventFormat.of(payload)).isEqualTo(EventFormat.BINARY);
+        assertThat(deserializer.deserialize(TOPIC, payload, AppointmentBookedEvent.class)).isEqualTo(event);
+    }
+
+    @Test
+    void patientRegisteredRoundTripsInBinary() {
+        PatientRegisteredEvent event = patientRegistered();
+
+        byte[] payload = serializer.serialize("patient.registered", event);
+
+        assertThat(EventFormat.of(payload)).isEqualTo(EventFormat.BINARY);
+        assertThat(deserializer.deserialize("patient.registered", payload)).isEqualTo(event);
+    }
+
+    @Test
+    void nullFieldsStayNull() {
+        AppointmentBookedEvent appointment = new AppointmentBookedEvent();
+        appointment.setVersion(null);
+        appointment.setAppointmentId(7L);
+        PatientRegisteredEvent patient = new PatientRegisteredEvent();
+        patient.setVersion(null);
+
+        AppointmentBookedEvent readAppointment = deserializer.deserialize(TOPIC,
+                serializer.serialize(TOPIC, appointment), AppointmentBookedEvent.class);
+        PatientRegisteredEvent readPatient = deserializer.deserialize("patient.registered",
+                serializer.serialize("patient.registered", patient), PatientRegisteredEvent.class);
+
+        assertThat(readAppointment).isEqualTo(appointment);
+        assertThat(readAppointment.getPatientId()).isNull();
+        assertThat(readAppointment.getVersion()).isNull();
+        assertThat(readPatient).isEqualTo(patient);
+    }
+
+    @Test
+    void negativeAndPreEpochValuesRoundTrip() {
+        PatientRegisteredEvent event = patientRegistered();
+        event.setPatientId(-42L);
+        event.setDateOfBirth(LocalDate.of(1931, 2, 3));
+        event.setRegisteredAt(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1));
+
+        byte[] payload = serializer.serialize("patient.registered", event);
+
+        assertThat(deserializer.deserialize("patient.registered", payload)).isEqualTo(event);
+    }
+
+    @Test
+    void payloadFromNewerSchemaIsRejected() {
+        byte[] payload = serializer.serialize(TOPIC, appointmentBooked());
+        // magic, type id, then the single-byte schema version
+        payload[2] = (byte) (EventSchemas.APPOINTMENT_BOOKED.getVersion() + 1);
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, payload))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("schema version");
+    }
+
+    @Test
+    void truncatedPayloadRaisesSerializationException() {
+        byte[] payload = serializer.serialize(TOPIC, appointmentBooked());
+
+        for (int length = 1; length < payload.length; length++) {
+            byte[] truncated = Arrays.copyOf(payload, length);
+            assertThatThrownBy(() -> deserializer.deserialize(TOPIC, truncated))
+                    .as("payload cut to %d of %d bytes", length, payload.length)
+                    .isInstanceOf(SerializationException.class);
+        }
+    }
+
+    @Test
+    void unknownTypeIdRaisesSerializationException() {
+        byte[] payload = {(byte) EventFormat.MAGIC, 99, 1, 0};
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, payload))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("99");
+    }
+
+    @Test
+    void malformedVarintRaisesSerializationException() {
+        byte[] payload = new byte[12];
+        Arrays.fill(payload, (byte) 0xFF);
+        payload[0] = (byte) EventFormat.MAGIC;
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, payload))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void oversizedStringLengthRaisesSerializationException() {
+        byte[] payload = {(byte) EventFormat.MAGIC, 2, 1, 1, 0x7F, 'a'};
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, payload))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("exceeds");
+    }
+
+    @Test
+    void unexpectedContractIsRejected() {
+        byte[] payload = serializer.serialize("patient.registered", patientRegistered());
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, payload, AppointmentBookedEvent.class))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("PatientRegisteredEvent");
+    }
+
+    @Test
+    void jsonFormatIsReadAsConfiguredDefaultType() {
+        EventSerializer jsonSerializer = new EventSerializer();
+        jsonSerializer.configure(Map.of(EventSerializer.FORMAT_CONFIG, "json"), false);
+        EventDeserializer jsonDeserializer = new EventDeserializer();
+        jsonDeserializer.configure(Map.of(EventDeserializer.JSON_DEFAULT_TYPE_CONFIG,
+                AppointmentBookedEvent.class.getName()), false);
+        // The JSON date patterns drop sub-second precision, and appointmentDate also drops seconds
+        AppointmentBookedEvent event = appointmentBooked();
+        event.setAppointmentDate(event.getAppointmentDate().withSecond(0).withNano(0));
+        event.setAppointmentTime(event.getAppointmentTime().withNano(0));
+        event.setBookedAt(event.getBookedAt().withNano(0));
+
+        byte[] payload = jsonSerializer.serialize(TOPIC, event);
+
+        assertThat(EventFormat.of(payload)).isEqualTo(EventFormat.JSON);
+        assertThat(jsonDeserializer.deserialize(TOPIC, payload)).isEqualTo(event);
+    }
+
+    @Test
+    void legacyJsonWithUnknownPropertiesIsRead() {
+        byte[] payload = ("{\"appointmentId\":5,\"patientId\":6,\"appointmentDate\":\"2026-10-21 09:30\","
+                + "\"addedLater\":true}").getBytes(StandardCharsets.UTF_8);
+
+        AppointmentBookedEvent event = deserializer.deserialize(TOPIC, payload, AppointmentBookedEvent.class);
+
+        assertThat(event.getAppointmentId()).isEqualTo(5L);
+        assertThat(event.getAppointmentDate()).isEqualTo(LocalDateTime.of(2026, 10, 21, 9, 30));
+    }
+
+    @Test
+    void unregisteredTypesAreWrittenAsJson() {
+        byte[] payload = serializer.serialize(TOPIC, Map.of("patientId", 6));
+
+        assertThat(EventFormat.of(payload)).isEqualTo(EventFormat.JSON);
+        assertThat(new String(payload, StandardCharsets.UTF_8)).isEqualTo("{\"patientId\":6}");
+    }
+
+    @Test
+    void jsonWithoutDefaultTypeRaisesSerializationException() {
+        byte[] payload = "{\"patientId\":6}".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> new EventDeserializer().deserialize(TOPIC, payload))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void malformedJsonRaisesSerializationException() {
+        byte[] payload = "{\"patientId\":".getBytes(StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, payload))
+                .isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void nullPayloadIsNull() {
+        assertThat(serializer.serialize(TOPIC, null)).isNull();
+        assertThat(deserializer.deserialize(TOPIC, null)).isNull();
+    }
+
+    private static AppointmentBookedEvent appointmentBooked() {
+        AppointmentBookedEvent event = new AppointmentBookedEvent(4242L, 1017L, 88L, NOW.plusDays(2), NOW.plusDays(2),
+                "CONSULTATION", "SCHEDULED", "Follow-up on blood test results – fasting", NOW);
+        event.setEventId("7f9c2d1e-0b4a-4f43-9d61-2f0c8a1b3e55");
+        event.setEventType(AppointmentBookedEvent.EVENT_TYPE);
+        event.setTimestamp(NOW);
+        event.setSource("appointment-service");
+        return event;
+    }
+
+    private static PatientRegisteredEvent patientRegistered() {
+        PatientRegisteredEvent event = PatientRegisteredEvent.builder()
+                .patientId(1017L)
+                .firstName("Asha")
+                .lastName("Verma")
+                .email("asha.verma@example.com")
+                .phoneNumber("+91-9876543210")
+                .dateOfBirth(LocalDate.of(1988, 4, 12))
+                .gender("FEMALE")
+                .address("12 Residency Road, Bengaluru")
+                .registeredAt(NOW)
+                .build();
+        event.setEventId("0d5e8f7a-3c2b-4e1d-a9f8-6b7c5d4e3f21");
+        event.setEventType(PatientRegisteredEvent.EVENT_TYPE);
+        event.setTimestamp(NOW);
+        event.setSource("patient-service");
+        return event;
+    }
+}
@@ -0,0 +1,119 @@
+package com.telemedicine.events.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EventSchemaTest {
+
+    private static final EventSchema<Sample> V1 = EventSchema.builder(100, Sample.class, Sample::new)
+            .field(FieldType.LONG, Sample::getId, Sample::setId)
+            .field(FieldType.STRING, Sample::getName, Sample::setName)
+            .build();
+
+    private static final EventSchema<Sample> V2 = EventSchema.builder(100, Sample.class, Sample::new)
+            .field(FieldType.LONG, Sample::getId, Sample::setId)
+            .field(FieldType.STRING, Sample::getName, Sample::setName)
+            .field(2, FieldType.STRING, Sample::getNote, Sample::setNote)
+            .build();
+
+    @Test
+    void versionIsTheNewestField() {
+        assertThat(V1.getVersion()).isEqualTo(1);
+        assertThat(V2.getVersion()).isEqualTo(2);
+    }
+
+    @Test
+    void newerSchemaReadsOlderPayload() {
+        Sample sample = new Sample(1L, "first", null);
+
+        Sample read = V2.read(reader(write(V1, sample)), V1.getVersion());
+
+        assertThat(read.getId()).isEqualTo(1L);
+        assertThat(read.getName()).isEqualTo("first");
+        assertThat(read.getNote()).isNull();
+    }
+
+    @Test
+    void newerSchemaRoundTripsAppendedField() {
+        Sample sample = new Sample(2L, null, "added in v2");
+
+        Sample read = V2.read(reader(write(V2, sample)), V2.getVersion());
+
+        assertThat(read.getId()).isEqualTo(2L);
+        assertThat(read.getName()).isNull();
+        assertThat(read.getNote()).isEqualTo("added in v2");
+    }
+
+    @Test
+    void olderSchemaRejectsNewerPayload() {
+        byte[] payload = write(V2, new Sample(3L, "third", "note"));
+
+        assertThatThrownBy(() -> V1.read(reader(payload), V2.getVersion()))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version 2");
+    }
+
+    @Test
+    void fieldsMustBeAppendedInVersionOrder() {
+        EventSchema.Builder<Sample> builder = EventSchema.builder(101, Sample.class, Sample::new)
+                .field(2, FieldType.LONG, Sample::getId, Sample::setId);
+
+        assertThatThrownBy(() -> builder.field(1, FieldType.STRING, Sample::getName, Sample::setName))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] write(EventSchema<Sample> schema, Sample sample) {
+        BinaryWriter out = new BinaryWriter(64);
+        schema.write(sample, out);
+        return out.toByteArray();
+    }
+
+    private static BinaryReader reader(byte[] payload) {
+        return new BinaryReader(ByteBuffer.wrap(payload));
+    }
+
+    static class Sample {
+
+        private Long id;
+        private String name;
+        private String note;
+
+        Sample() {
+        }
+
+        Sample(Long id, String name, String note) {
+            this.id = id;
+            this.name = name;
+            this.note = note;
+        }
+
+        Long getId() {
+            return id;
+        }
+
+        void setId(Long id) {
+            this.id = id;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        void setName(String name) {
+            this.name = name;
+        }
+
+        String getNote() {
+            return note;
+        }
+
+        void setNote(String note) {
+            this.note = note;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.telemedicine.events.sql;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatementListenerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SqlStatementListener listener = new SqlStatementListener(meterRegistry, Duration.ofMillis(200));
+
+    @AfterEach
+    void tearDown() {
+        RequestQueryStats.end();
+    }
+
+    @Test
+    void statementsOutsideARequestAreOnlyTimed() {
+        execute(5, true, "select * from patient where id = 1");
+        execute(7, true, "SELECT * FROM patient WHERE id = 2");
+        execute(3, false, "update patient set name = 'x'");
+
+        assertThat(meterRegistry.get("jdbc.statement.latency").timers()).hasSize(2);
+        Timer selects = meterRegistry.get("jdbc.statement.latency")
+                .tags("operation", "select", "status", "success").timer();
+        assertThat(selects.count()).isEqualTo(2);
+        assertThat(meterRegistry.get("jdbc.statement.latency")
+                .tags("operation", "update", "status", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void requestCountsStatementsByShape() {
+        RequestQueryStats stats = RequestQueryStats.begin();
+
+        execute(1, true, "select * from appointment where patient_id = 1");
+        execute(1, true, "select * from appointment where patient_id = 2");
+        execute(1, true, "select * from patient where id in (?, ?, ?)");
+
+        assertThat(stats.getStatements()).isEqualTo(3);
+        assertThat(stats.mostRepeated().getKey()).isEqualTo("select * from appointment where patient_id = ?");
+        assertThat(stats.mostRepeated().getValue()).isEqualTo(2);
+    }
+
+    @Test
+    void normalizerCollapsesLiteralsAndInLists() {
+        assertThat(SqlNormalizer.normalize("select  *\n from t where a = 'it''s' and b = -4.5 and c in (?, ?)"))
+                .isEqualTo("select * from t where a = ? and b = ? and c in (?...)");
+        assertThat(SqlNormalizer.operation("  INSERT into t values (?)")).isEqualTo("insert");
+        assertThat(SqlNormalizer.operation("(select 1)")).isEqualTo("other");
+    }
+
+    private void execute(long elapsedMillis, boolean success, String sql) {
+        ExecutionInfo execInfo = new ExecutionInfo();
+        execInfo.setElapsedTime(elapsedMillis);
+        execInfo.setSuccess(success);
+        listener.afterQuery(execInfo, List.of(new QueryInfo(sql)));
+    }
+}
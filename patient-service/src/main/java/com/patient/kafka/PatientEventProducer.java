@@ -2,11 +2,13 @@ package com.patient.kafka;
 
 import java.util.concurrent.CompletableFuture;
 
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import com.patient.event.PatientRegisteredEvent;
+import com.telemedicine.events.PatientRegisteredEvent;
+import com.telemedicine.events.saga.SagaHeaders;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,11 +22,16 @@ public class PatientEventProducer {
     
     private static final String PATIENT_REGISTERED_TOPIC = "patient.registered";
 
-    public void publishPatientRegisteredEvent(PatientRegisteredEvent event) {
+    public void publishPatientRegisteredEvent(PatientRegisteredEvent event, long originEpochMillis) {
         log.info("Publishing patient registered event for patient ID: {}", event.getPatientId());
         
-        CompletableFuture<SendResult<String, Object>> future = 
-                kafkaTemplate.send(PATIENT_REGISTERED_TOPIC, event.getPatientId().toString(), event);
+        // The registration starts the saga; downstream services copy these headers onto the events they emit
+        // patientId is the key of every saga topic, so the patient's later events share this partition number
+        ProducerRecord<String, Object> record = new ProducerRecord<>(PATIENT_REGISTERED_TOPIC,
+                event.getPatientId().toString(), event);
+        SagaHeaders.write(record.headers(), event.getEventId(), originEpochMillis);
+
+        CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(record);
         
         future.whenComplete((result, exception) -> {
             if (exception == null) {
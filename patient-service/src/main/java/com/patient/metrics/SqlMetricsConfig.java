@@ -0,0 +1,61 @@
+package com.patient.metrics;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.telemedicine.events.sql.QueryCountFilter;
+import com.telemedicine.events.sql.SqlStatementListener;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the pooled DataSource in a datasource-proxy so every statement is timed and counted, and registers the
+ * per-request query counter. Hikari still sits underneath, so Spring Boot's {@code hikaricp.*} pool metrics bind
+ * through the proxy unchanged.
+ */
+@Configuration
+public class SqlMetricsConfig {
+
+    @Bean
+    public SqlStatementListener sqlStatementListener(MeterRegistry meterRegistry,
+            @Value("${app.sql-metrics.slow-statement-threshold:200ms}") Duration slowThreshold) {
+        return new SqlStatementListener(meterRegistry, slowThreshold);
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlMetricsDataSourceProxy(ObjectProvider<SqlStatementListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(MeterRegistry meterRegistry,
+            @Value("${app.sql-metrics.query-count-header:false}") boolean exposeHeader,
+            @Value("${app.sql-metrics.repeat-warn-threshold:10}") int repeatWarnThreshold) {
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(
+                new QueryCountFilter(meterRegistry, exposeHeader, repeatWarnThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
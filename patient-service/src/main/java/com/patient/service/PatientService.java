@@ -1,6 +1,9 @@
 package com.patient.service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -8,12 +11,12 @@ import org.springframework.transaction.annotation.Transactional;
 import com.patient.dto.PatientRegistrationDto;
 import com.patient.dto.PatientResponseDto;
 import com.patient.entity.Patient;
-import com.patient.event.PatientRegisteredEvent;
 import com.patient.exception.PatientAlreadyExistsException;
 import com.patient.exception.PatientNotFoundException;
 import com.patient.kafka.PatientEventProducer;
 import com.patient.mapper.PatientMapper;
 import com.patient.repository.PatientRepository;
+import com.telemedicine.events.PatientRegisteredEvent;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -49,6 +52,9 @@ public class PatientService {
         log.info("Patient registered successfully with ID: {}", savedPatient.getId());
 
         // Publish event
+        long registeredAtMillis = System.currentTimeMillis();
+        LocalDateTime registeredAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(registeredAtMillis),
+                ZoneId.systemDefault());
         PatientRegisteredEvent event = PatientRegisteredEvent.builder()
                 .patientId(savedPatient.getId())
                 .firstName(savedPatient.getFirstName())
@@ -58,10 +64,14 @@ public class PatientService {
                 .dateOfBirth(savedPatient.getDateOfBirth())
                 .gender(savedPatient.getGender().toString())
                 .address(savedPatient.getAddress())
-                .registeredAt(LocalDateTime.now())
+                .registeredAt(registeredAt)
                 .build();
+        event.setEventId(UUID.randomUUID().toString());
+        event.setEventType(PatientRegisteredEvent.EVENT_TYPE);
+        event.setTimestamp(registeredAt);
+        event.setSource("patient-service");
 
-        patientEventProducer.publishPatientRegisteredEvent(event);
+        patientEventProducer.publishPatientRegisteredEvent(event, registeredAtMillis);
 
         return patientMapper.toResponseDto(savedPatient);
     }
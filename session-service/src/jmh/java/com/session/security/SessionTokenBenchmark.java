@@ -0,0 +1,61 @@
+package com.session.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput for join tokens, including verification against a rotated-out key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SessionTokenBenchmark {
+
+    private SessionTokenService tokenService;
+    private SessionJoinClaims claims;
+    private String activeKeyToken;
+    private String previousKeyToken;
+
+    @Setup
+    public void setUp() {
+        String previousKey = Base64.getEncoder().encodeToString(new byte[32]);
+        String activeKey = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+
+        SessionTokenService previous = new SessionTokenService("k1:" + previousKey, "k1",
+                Duration.ofMinutes(15), Duration.ofHours(4));
+        tokenService = new SessionTokenService("k1:" + previousKey + ",k2:" + activeKey, "k2",
+                Duration.ofMinutes(15), Duration.ofHours(4));
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        String sessionId = "652f1c2ab4e5a93c1d7e8f90";
+        claims = new SessionJoinClaims(sessionId, SessionRole.PATIENT, now.minusSeconds(60), now.plus(Duration.ofHours(1)), "k2");
+        activeKeyToken = tokenService.sign(claims);
+        previousKeyToken = previous.issue(sessionId, SessionRole.DOCTOR, now.minusSeconds(60), now.plus(Duration.ofHours(1)));
+    }
+
+    @Benchmark
+    public String sign() {
+        return tokenService.sign(claims);
+    }
+
+    @Benchmark
+    public SessionJoinClaims verify() {
+        return tokenService.verify(activeKeyToken);
+    }
+
+    @Benchmark
+    public SessionJoinClaims verifyPreviousKey() {
+        return tokenService.verify(previousKeyToken);
+    }
+}
@@ -0,0 +1,37 @@
+package com.session.actuator;
+
+import com.session.entity.UploadUsage;
+import com.session.service.UploadQuotaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/uploadquotas}: the configured limits and the scopes using the most bytes;
+ * {@code /actuator/uploadquotas/{scope}} for one scope, e.g. {@code session:<sessionId>}.
+ */
+@Component
+@Endpoint(id = "uploadquotas")
+@RequiredArgsConstructor
+public class UploadQuotaEndpoint {
+
+    private static final int TOP_SCOPES = 20;
+
+    private final UploadQuotaService uploadQuotaService;
+
+    @ReadOperation
+    public Map<String, Object> usage() {
+        List<UploadUsage> top = uploadQuotaService.getTopUsage(TOP_SCOPES);
+        return Map.of("limits", uploadQuotaService.getLimits(), "top", top);
+    }
+
+    @ReadOperation
+    public UploadUsage scope(@Selector String scope) {
+        return uploadQuotaService.getUsage(scope);
+    }
+}
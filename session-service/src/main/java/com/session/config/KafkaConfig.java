@@ -1,34 +1,60 @@
 package com.session.config;
 
-import com.session.event.AppointmentBookedEvent;
+import com.session.kafka.KeyOrderedExecutor;
+import com.session.listener.AppointmentParallelEventListener;
+import com.telemedicine.events.kafka.DeadLetterReplayService;
+import com.telemedicine.events.kafka.RetryTopicDepthMonitor;
+import com.telemedicine.events.saga.SagaMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
-import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
-import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @EnableKafka
 @Configuration
 public class KafkaConfig {
 
+    /** Suffix of the dead-letter topic that follows the last retry tier. */
+    public static final String DLT_SUFFIX = "-dlt";
+
+    /** Retry tiers are named {@code <topic>-retry-<n>}. */
+    public static final String RETRY_SUFFIX = "-retry-";
+
+    /** Topics consumed with retry tiers; each has {@code attempts - 1} tiers and a DLT. */
+    private static final List<String> RETRYABLE_TOPICS = List.of("appointment.booked");
+
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${app.kafka.appointment-listener.batch-size:500}")
+    private int batchSize;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
@@ -44,70 +70,150 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory());
     }
 
+    /**
+     * session.started is keyed by patientId and shares its partition count with patient.registered and
+     * appointment.booked, so one patient's events land on the same partition number in every topic. KafkaAdmin
+     * creates the topic or adds partitions to reach the count; it never removes any.
+     */
     @Bean
-    public ConsumerFactory<String, Object> consumerFactory() {
-        Map<String, Object> props = new HashMap<>();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
-        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+    public NewTopic sessionStartedTopic(@Value("${app.kafka.topics.partitions:6}") int partitions,
+            @Value("${app.kafka.topics.replicas:1}") int replicas) {
+        return TopicBuilder.name("session.started").partitions(partitions).replicas(replicas).build();
+    }
 
-        // Use StringDeserializer for value to avoid type issues
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+    /**
+     * Republishes consumed records byte-for-byte (binary or JSON payloads) to retry tiers and dead-letter topics.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> retryKafkaTemplate() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(configProps));
+    }
 
-        return new DefaultKafkaConsumerFactory<>(props);
+    /**
+     * Parks records that failed in batch or parallel mode on {@code <topic>-dlt}, where the replay endpoint can
+     * re-drive them.
+     */
+    @Bean
+    public DeadLetterPublishingRecoverer deadLetterPublishingRecoverer(KafkaTemplate<String, byte[]> retryKafkaTemplate) {
+        return new DeadLetterPublishingRecoverer(retryKafkaTemplate,
+                (record, e) -> new TopicPartition(record.topic() + DLT_SUFFIX, -1));
     }
 
     @Bean
-    public ConsumerFactory<String, AppointmentBookedEvent> appointmentEventConsumerFactory() {
+    public ConsumerFactory<String, byte[]> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
 
-        // Key deserializer
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.KEY_DESERIALIZER_CLASS, StringDeserializer.class);
-
-        // Value deserializer with proper configuration
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
-        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
-
-        // JsonDeserializer specific configuration
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "*");
-        props.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
-        props.put(JsonDeserializer.VALUE_DEFAULT_TYPE, AppointmentBookedEvent.class.getName());
+        // Listeners decode with the event-contracts codec, so retry tiers can republish the original bytes
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
 
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
 
         // Enable manual acknowledgment
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
 
-        // Error handling
-        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+        factory.setCommonErrorHandler(noInPlaceRetries());
 
         return factory;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, AppointmentBookedEvent> appointmentEventKafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, AppointmentBookedEvent> factory = new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(appointmentEventConsumerFactory());
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> batchKafkaListenerContainerFactory() {
+        Map<String, Object> props = new HashMap<>(consumerFactory().getConfigurationProperties());
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
 
-        // Enable manual acknowledgment
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        factory.setBatchListener(true);
 
-        // Error handling
-        factory.setCommonErrorHandler(new org.springframework.kafka.listener.DefaultErrorHandler());
+        // One commit per poll, issued when the listener acknowledges the batch
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+
+        factory.setCommonErrorHandler(noInPlaceRetries());
+
+        return factory;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.appointment-listener.mode", havingValue = "parallel")
+    public KeyOrderedExecutor appointmentLaneExecutor(
+            @Value("${app.kafka.appointment-listener.lanes:8}") int lanes,
+            @Value("${app.kafka.appointment-listener.max-in-flight:1000}") int maxInFlight) {
+        return new KeyOrderedExecutor(lanes, maxInFlight, "appointment-lane-");
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.kafka.appointment-listener.mode", havingValue = "parallel")
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> parallelKafkaListenerContainerFactory(
+            AppointmentParallelEventListener appointmentParallelEventListener,
+            @Value("${app.kafka.appointment-listener.concurrency:1}") int concurrency) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
+
+        // The listener commits completed offsets itself; the container never acknowledges
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(appointmentParallelEventListener);
+        // Idle events give the listener a chance to commit when no new records arrive
+        factory.getContainerProperties().setIdleEventInterval(1000L);
+
+        factory.setCommonErrorHandler(noInPlaceRetries());
 
         return factory;
     }
+
+    /**
+     * No blocking in-place retries; failures are routed to retry tiers or the DLT instead.
+     */
+    private static DefaultErrorHandler noInPlaceRetries() {
+        return new DefaultErrorHandler(new FixedBackOff(0L, 0L));
+    }
+
+    @Bean
+    public DeadLetterReplayService deadLetterReplayService(KafkaTemplate<String, byte[]> retryKafkaTemplate) {
+        return new DeadLetterReplayService(consumerFactory().getConfigurationProperties(), retryKafkaTemplate,
+                groupId + "-dlt-replay", DLT_SUFFIX);
+    }
+
+    /**
+     * Retry tiers are only consumed in {@code single} mode; batch and parallel mode dead-letter failures directly,
+     * so there only the DLT depth is reported.
+     */
+    @Bean
+    public RetryTopicDepthMonitor retryTopicDepthMonitor(KafkaAdmin kafkaAdmin, MeterRegistry meterRegistry,
+            DeadLetterReplayService deadLetterReplayService,
+            @Value("${app.kafka.retry.attempts:4}") int attempts,
+            @Value("${app.kafka.appointment-listener.mode:single}") String listenerMode) {
+        // Retry tier consumers join "<group><tier suffix>"; DLT depth is what has not been replayed yet
+        Map<String, String> groupByTopic = new LinkedHashMap<>();
+        for (String topic : RETRYABLE_TOPICS) {
+            if ("single".equals(listenerMode)) {
+                for (int tier = 0; tier < attempts - 1; tier++) {
+                    groupByTopic.put(topic + RETRY_SUFFIX + tier, groupId + RETRY_SUFFIX + tier);
+                }
+            }
+            groupByTopic.put(topic + DLT_SUFFIX, deadLetterReplayService.getReplayGroupId());
+        }
+        return new RetryTopicDepthMonitor(kafkaAdmin, meterRegistry, groupByTopic);
+    }
+
+    @Bean
+    public SagaMetrics sagaMetrics(MeterRegistry meterRegistry) {
+        return new SagaMetrics(meterRegistry);
+    }
 }
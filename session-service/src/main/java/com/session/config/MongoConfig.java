@@ -1,15 +1,55 @@
 package com.session.config;
 
+import com.mongodb.ReadPreference;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.data.mongodb.core.mapping.event.ValidatingMongoEventListener;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two templates over the same client: the primary one for writes and read-after-write paths, and
+ * {@value #SECONDARY_TEMPLATE} for list, dashboard and analytics reads that tolerate up to {@code max-staleness}
+ * of replication lag.
+ */
 @Configuration
 @EnableMongoAuditing
 public class MongoConfig {
 
+    public static final String SECONDARY_TEMPLATE = "secondaryMongoTemplate";
+
+    @Value("${app.mongo.secondary-reads.enabled:true}")
+    private boolean secondaryReadsEnabled;
+
+    @Value("${app.mongo.secondary-reads.max-staleness:120s}")
+    private Duration maxStaleness;
+
+    @Bean
+    @Primary
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter) {
+        return new MongoTemplate(mongoDatabaseFactory, mongoConverter);
+    }
+
+    @Bean(SECONDARY_TEMPLATE)
+    public MongoTemplate secondaryMongoTemplate(MongoDatabaseFactory mongoDatabaseFactory,
+            MongoConverter mongoConverter) {
+        MongoTemplate template = new MongoTemplate(mongoDatabaseFactory, mongoConverter);
+        if (secondaryReadsEnabled) {
+            // The server rejects max staleness below 90 seconds
+            long seconds = Math.max(90, maxStaleness.toSeconds());
+            template.setReadPreference(ReadPreference.secondaryPreferred(seconds, TimeUnit.SECONDS));
+        }
+        return template;
+    }
+
     @Bean
     public ValidatingMongoEventListener validatingMongoEventListener(LocalValidatorFactoryBean factory) {
         return new ValidatingMongoEventListener(factory);
@@ -0,0 +1,134 @@
+package com.session.config;
+
+import com.session.storage.FileStorage;
+import com.session.storage.FileStorageResolver;
+import com.session.storage.GridFsFileStorage;
+import com.session.storage.LocalFileStorage;
+import com.session.storage.LocalObjectStoreClient;
+import com.session.storage.MultipartUploader;
+import com.session.storage.ObjectStoreClient;
+import com.session.storage.ObjectStoreFileStorage;
+import com.session.storage.S3ObjectStoreClient;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Selects the session file storage backend from {@code app.storage.backend} (local, gridfs or s3).
+ */
+@Configuration
+@Slf4j
+public class StorageConfig {
+
+    @Value("${app.storage.part-size:8MB}")
+    private DataSize partSize;
+
+    @Value("${app.storage.upload-parallelism:4}")
+    private int uploadParallelism;
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService storagePartExecutor(@Value("${app.storage.io-threads:8}") int ioThreads) {
+        return Executors.newFixedThreadPool(ioThreads, new CustomizableThreadFactory("storage-io-"));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.backend", havingValue = "local", matchIfMissing = true)
+    public FileStorage localFileStorage(@Value("${app.upload.dir:${user.home}/session-uploads}") String uploadDir,
+            ExecutorService storagePartExecutor) {
+        log.info("Using local file storage at {}", uploadDir);
+        return newLocalFileStorage(uploadDir, storagePartExecutor);
+    }
+
+    @Bean
+    public FileStorageResolver fileStorageResolver(FileStorage fileStorage,
+            @Value("${app.upload.dir:${user.home}/session-uploads}") String uploadDir,
+            ExecutorService storagePartExecutor) {
+        if (LocalFileStorage.BACKEND_NAME.equals(fileStorage.backendName())) {
+            return new FileStorageResolver(fileStorage, List.of());
+        }
+        // Files uploaded before the switch (and legacy rows without a backend) stay on the upload dir
+        log.info("Keeping local file storage at {} readable for earlier uploads", uploadDir);
+        return new FileStorageResolver(fileStorage, List.of(newLocalFileStorage(uploadDir, storagePartExecutor)));
+    }
+
+    private LocalFileStorage newLocalFileStorage(String uploadDir, ExecutorService storagePartExecutor) {
+        return new LocalFileStorage(uploadDir,
+                new MultipartUploader(storagePartExecutor, (int) partSize.toBytes(), uploadParallelism));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.backend", havingValue = "gridfs")
+    public FileStorage gridFsFileStorage(MongoDatabaseFactory mongoDatabaseFactory,
+            @Value("${app.storage.gridfs.bucket:session_files}") String bucket,
+            @Value("${app.storage.gridfs.chunk-size:255KB}") DataSize chunkSize,
+            ExecutorService storagePartExecutor) {
+        int chunk = (int) chunkSize.toBytes();
+        // Parallel parts are split into whole chunks, so the part size must be chunk aligned
+        int alignedPartSize = Math.max(chunk, (int) (partSize.toBytes() / chunk) * chunk);
+        log.info("Using GridFS file storage in bucket {}", bucket);
+        return new GridFsFileStorage(mongoDatabaseFactory.getMongoDatabase(), bucket, chunk,
+                new MultipartUploader(storagePartExecutor, alignedPartSize, uploadParallelism));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3")
+    public FileStorage objectStoreFileStorage(ObjectStoreClient objectStoreClient,
+            ExecutorService storagePartExecutor) {
+        int objectStorePartSize = (int) Math.max(partSize.toBytes(), ObjectStoreFileStorage.MIN_PART_SIZE);
+        return new ObjectStoreFileStorage(objectStoreClient,
+                new MultipartUploader(storagePartExecutor, objectStorePartSize, uploadParallelism));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.storage.backend", havingValue = "s3")
+    public ObjectStoreClient objectStoreClient(
+            @Value("${app.storage.s3.client:aws}") String client,
+            @Value("${app.storage.s3.bucket:session-files}") String bucket,
+            @Value("${app.storage.s3.endpoint:}") String endpoint,
+            @Value("${app.storage.s3.region:us-east-1}") String region,
+            @Value("${app.storage.s3.access-key:}") String accessKey,
+            @Value("${app.storage.s3.secret-key:}") String secretKey,
+            @Value("${app.storage.s3.path-style-access:true}") boolean pathStyleAccess,
+            @Value("${app.storage.s3.local-dir:${user.home}/session-object-store}") String localDir)
+            throws IOException {
+        if ("local".equalsIgnoreCase(client)) {
+            log.info("Using in-process object store stand-in at {}", localDir);
+            return new LocalObjectStoreClient(localDir);
+        }
+
+        S3ClientBuilder builder = S3Client.builder()
+                .region(Region.of(region))
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyleAccess).build());
+        if (StringUtils.hasText(endpoint)) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        if (StringUtils.hasText(accessKey)) {
+            builder.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+        } else {
+            builder.credentialsProvider(DefaultCredentialsProvider.create());
+        }
+
+        log.info("Using S3 object storage in bucket {}{}", bucket,
+                StringUtils.hasText(endpoint) ? " at " + endpoint : "");
+        return new S3ObjectStoreClient(builder.build(), bucket);
+    }
+}
@@ -1,6 +1,8 @@
 package com.session.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.session.dto.AppointmentMappingDto;
+import com.session.dto.CursorPage;
 import com.session.entity.AppointmentMapping;
 import com.session.service.AppointmentMappingService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,8 +14,10 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -24,31 +28,57 @@ import java.util.Optional;
 public class AppointmentMappingController {
 
     private final AppointmentMappingService appointmentMappingService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    @Operation(summary = "Get all appointment sessions", description = "Retrieve all appointment mappings with optional filtering")
-    @ApiResponse(responseCode = "200", description = "All appointment sessions retrieved successfully")
+    @Operation(summary = "Get appointment sessions", description = "Retrieve one keyset page of appointment mappings with optional filtering. "
+            + "Pass the X-Next-Cursor response header back as 'after' to fetch the next page; it is absent on the last page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Appointment sessions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
     public ResponseEntity<List<AppointmentMappingDto>> getAllAppointmentSessions(
             @Parameter(description = "Patient ID filter (optional)") @RequestParam(required = false) Long patientId,
             @Parameter(description = "Doctor ID filter (optional)") @RequestParam(required = false) Long doctorId,
-            @Parameter(description = "Status filter (optional)") @RequestParam(required = false) AppointmentMapping.AppointmentStatus status) {
+            @Parameter(description = "Status filter (optional)") @RequestParam(required = false) AppointmentMapping.AppointmentStatus status,
+            @Parameter(description = "Cursor from the previous page's X-Next-Cursor header (optional)") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size, at most 1000") @RequestParam(defaultValue = "100") int limit) {
 
-        log.info("REST API: Fetching appointment sessions with filters - patientId: {}, doctorId: {}, status: {}",
-                patientId, doctorId, status);
+        log.info("REST API: Fetching appointment sessions with filters - patientId: {}, doctorId: {}, status: {}, after: {}, limit: {}",
+                patientId, doctorId, status, after, limit);
 
-        List<AppointmentMappingDto> mappings;
-
-        if (patientId != null) {
-            mappings = appointmentMappingService.findByPatientId(patientId);
-        } else if (doctorId != null) {
-            mappings = appointmentMappingService.findByDoctorId(doctorId);
-        } else if (status != null) {
-            mappings = appointmentMappingService.findByStatus(status);
-        } else {
-            mappings = appointmentMappingService.findAll();
+        try {
+            CursorPage<AppointmentMappingDto> page = appointmentMappingService.findPage(patientId, doctorId, status,
+                    after, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(SessionController.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+    }
+
+    @GetMapping(value = "/stream", produces = NdjsonResponses.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream appointment sessions", description = "Stream every matching appointment mapping as newline-delimited JSON straight from a database cursor")
+    @ApiResponse(responseCode = "200", description = "Appointment sessions streamed")
+    public ResponseEntity<StreamingResponseBody> streamAppointmentSessions(
+            @Parameter(description = "Patient ID filter (optional)") @RequestParam(required = false) Long patientId,
+            @Parameter(description = "Doctor ID filter (optional)") @RequestParam(required = false) Long doctorId,
+            @Parameter(description = "Status filter (optional)") @RequestParam(required = false) AppointmentMapping.AppointmentStatus status) {
+
+        log.info("REST API: Streaming appointment sessions with filters - patientId: {}, doctorId: {}, status: {}",
+                patientId, doctorId, status);
+        return NdjsonResponses.of(() -> appointmentMappingService.stream(patientId, doctorId, status), objectMapper);
+    }
 
-        return ResponseEntity.ok(mappings);
+    @GetMapping("/status-counts")
+    @Operation(summary = "Get appointment counts by status", description = "Number of appointment mappings in each status, served from incrementally maintained counters")
+    @ApiResponse(responseCode = "200", description = "Counts retrieved successfully")
+    public ResponseEntity<Map<String, Long>> getAppointmentCountsByStatus() {
+        log.info("REST API: Fetching appointment counts by status");
+        return ResponseEntity.ok(appointmentMappingService.getAppointmentCountsByStatus());
     }
 
     @GetMapping("/{appointmentId}")
@@ -0,0 +1,50 @@
+package com.session.controller;
+
+import com.telemedicine.events.kafka.DeadLetterReplayService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin/dead-letters")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Dead Letters", description = "APIs for re-driving dead-lettered Kafka records")
+public class DeadLetterController {
+
+    private final DeadLetterReplayService deadLetterReplayService;
+
+    @PostMapping("/{topic}/replay")
+    @Operation(summary = "Replay dead-lettered records", description = "Republish up to maxRecords records from a DLT onto their original topic")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Records replayed"),
+            @ApiResponse(responseCode = "400", description = "Topic is not a dead-letter topic")
+    })
+    public ResponseEntity<Map<String, Object>> replay(
+            @Parameter(description = "Dead-letter topic, e.g. appointment.booked-dlt") @PathVariable String topic,
+            @Parameter(description = "Maximum records to replay") @RequestParam(defaultValue = "100") int maxRecords) {
+
+        log.info("REST API: Replaying up to {} records from {}", maxRecords, topic);
+
+        if (!deadLetterReplayService.isDeadLetterTopic(topic) || maxRecords <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            int replayed = deadLetterReplayService.replay(topic, maxRecords);
+            return ResponseEntity.ok(Map.of("topic", topic, "replayed", replayed));
+        } catch (Exception e) {
+            log.error("Error replaying dead letters from {}: {}", topic, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
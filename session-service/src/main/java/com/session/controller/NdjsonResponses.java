@@ -0,0 +1,45 @@
+package com.session.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a cursor-backed stream as newline-delimited JSON, one document at a time, so memory use does not grow with
+ * the result size. The stream is opened lazily and always closed, which releases the Mongo cursor.
+ */
+final class NdjsonResponses {
+
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final int FLUSH_EVERY = 100;
+
+    private NdjsonResponses() {
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> of(Supplier<Stream<T>> source, ObjectMapper objectMapper) {
+        ObjectWriter writer = objectMapper.writer();
+        StreamingResponseBody body = out -> {
+            try (Stream<T> stream = source.get()) {
+                Iterator<T> items = stream.iterator();
+                int written = 0;
+                while (items.hasNext()) {
+                    out.write(writer.writeValueAsBytes(items.next()));
+                    out.write('\n');
+                    if (++written % FLUSH_EVERY == 0) {
+                        out.flush();
+                    }
+                }
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+}
@@ -0,0 +1,84 @@
+package com.session.controller;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.session.dto.SessionPercentilesDto;
+import com.session.entity.SessionHistogram;
+import com.session.service.SessionAnalyticsService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Session Analytics", description = "Wait-time and duration percentiles")
+public class SessionAnalyticsController {
+
+    private static final long MAX_RANGE_DAYS = 366;
+
+    private final SessionAnalyticsService sessionAnalyticsService;
+
+    @GetMapping("/api/v1/analytics/sessions/{metric}")
+    @Operation(summary = "Get session percentiles", description = "p50/p95/p99, max and mean in milliseconds for WAIT_TIME or DURATION, "
+            + "optionally for one doctor and broken down by day")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Percentiles computed"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range")
+    })
+    public ResponseEntity<SessionPercentilesDto> getPercentiles(
+            @Parameter(description = "WAIT_TIME or DURATION") @PathVariable SessionHistogram.Metric metric,
+            @Parameter(description = "Doctor ID (optional, all doctors when absent)") @RequestParam(required = false) Long doctorId,
+            @Parameter(description = "First day, inclusive") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, inclusive") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Include a per-day breakdown") @RequestParam(defaultValue = "false") boolean byDay) {
+
+        if (!isValidRange(from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(sessionAnalyticsService.getPercentiles(metric, doctorId, from, to, byDay));
+    }
+
+    @PostMapping("/api/v1/admin/analytics/backfill")
+    @Operation(summary = "Backfill session histograms", description = "Rebuilds the stored histograms for the given days from the sessions collection")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Histograms rebuilt"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range")
+    })
+    public ResponseEntity<Map<String, Object>> backfill(
+            @Parameter(description = "First day, inclusive") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day, inclusive") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        log.info("REST API: Backfilling session histograms from {} to {}", from, to);
+        if (!isValidRange(from, to)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            long sessions = sessionAnalyticsService.backfill(from, to);
+            return ResponseEntity.ok(Map.of("from", from, "to", to, "sessions", sessions));
+        } catch (Exception e) {
+            log.error("Error backfilling session histograms: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private static boolean isValidRange(LocalDate from, LocalDate to) {
+        return !to.isBefore(from) && ChronoUnit.DAYS.between(from, to) < MAX_RANGE_DAYS;
+    }
+}
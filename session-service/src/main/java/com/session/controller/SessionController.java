@@ -1,7 +1,9 @@
 package com.session.controller;
 
 import java.util.List;
+import java.util.Map;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -9,9 +11,15 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.session.dto.CursorPage;
 import com.session.dto.SessionResponseDto;
+import com.session.exception.InvalidSessionTransitionException;
+import com.session.exception.SessionNotFoundException;
 import com.session.service.SessionService;
+import com.session.service.SessionStateMachine;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -28,27 +36,56 @@ import lombok.extern.slf4j.Slf4j;
 @Tag(name = "Session Management", description = "Simplified APIs for managing telemedicine sessions")
 public class SessionController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final SessionService sessionService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    @Operation(summary = "Get all sessions", description = "Retrieve all sessions with optional filtering by patient or doctor")
-    @ApiResponse(responseCode = "200", description = "Sessions retrieved successfully")
+    @Operation(summary = "Get sessions", description = "Retrieve one keyset page of sessions with optional filtering by patient or doctor. "
+            + "Pass the X-Next-Cursor response header back as 'after' to fetch the next page; it is absent on the last page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sessions retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    })
     public ResponseEntity<List<SessionResponseDto>> getAllSessions(
             @Parameter(description = "Patient ID filter (optional)") @RequestParam(required = false) Long patientId,
-            @Parameter(description = "Doctor ID filter (optional)") @RequestParam(required = false) Long doctorId) {
+            @Parameter(description = "Doctor ID filter (optional)") @RequestParam(required = false) Long doctorId,
+            @Parameter(description = "Cursor from the previous page's X-Next-Cursor header (optional)") @RequestParam(required = false) String after,
+            @Parameter(description = "Page size, at most 1000") @RequestParam(defaultValue = "100") int limit) {
 
-        log.info("REST API: Fetching sessions with filters - patientId: {}, doctorId: {}", patientId, doctorId);
+        log.info("REST API: Fetching sessions with filters - patientId: {}, doctorId: {}, after: {}, limit: {}",
+                patientId, doctorId, after, limit);
 
-        List<SessionResponseDto> sessions;
-        if (patientId != null) {
-            sessions = sessionService.getSessionsByPatientId(patientId);
-        } else if (doctorId != null) {
-            sessions = sessionService.getSessionsByDoctorId(doctorId);
-        } else {
-            sessions = sessionService.getAllSessions();
+        try {
+            CursorPage<SessionResponseDto> page = sessionService.getSessionsPage(patientId, doctorId, after, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getItems());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
+    }
 
-        return ResponseEntity.ok(sessions);
+    @GetMapping(value = "/stream", produces = NdjsonResponses.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream sessions", description = "Stream every matching session as newline-delimited JSON straight from a database cursor")
+    @ApiResponse(responseCode = "200", description = "Sessions streamed")
+    public ResponseEntity<StreamingResponseBody> streamSessions(
+            @Parameter(description = "Patient ID filter (optional)") @RequestParam(required = false) Long patientId,
+            @Parameter(description = "Doctor ID filter (optional)") @RequestParam(required = false) Long doctorId) {
+
+        log.info("REST API: Streaming sessions with filters - patientId: {}, doctorId: {}", patientId, doctorId);
+        return NdjsonResponses.of(() -> sessionService.streamSessions(patientId, doctorId), objectMapper);
+    }
+
+    @GetMapping("/status-counts")
+    @Operation(summary = "Get session counts by status", description = "Number of sessions in each status, served from incrementally maintained counters")
+    @ApiResponse(responseCode = "200", description = "Counts retrieved successfully")
+    public ResponseEntity<Map<String, Long>> getSessionCountsByStatus() {
+        log.info("REST API: Fetching session counts by status");
+        return ResponseEntity.ok(sessionService.getSessionCountsByStatus());
     }
 
     @GetMapping("/{sessionId}")
@@ -70,13 +107,80 @@ public class SessionController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Session started successfully"),
             @ApiResponse(responseCode = "404", description = "Session not found"),
-            @ApiResponse(responseCode = "400", description = "Session cannot be started (invalid status)")
+            @ApiResponse(responseCode = "409", description = "Session cannot be started (invalid status or already started)")
     })
     public ResponseEntity<SessionResponseDto> startSession(
             @Parameter(description = "Session ID") @PathVariable String sessionId) {
 
         log.info("REST API: Starting session with ID: {}", sessionId);
-        SessionResponseDto response = sessionService.startSession(sessionId);
-        return ResponseEntity.ok(response);
+        return applyTransition(sessionId, SessionStateMachine.Transition.START);
+    }
+
+    @PostMapping("/{sessionId}/in-progress")
+    @Operation(summary = "Mark a session in progress", description = "Moves a started session to IN_PROGRESS")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Session marked in progress"),
+            @ApiResponse(responseCode = "404", description = "Session not found"),
+            @ApiResponse(responseCode = "409", description = "Session is not STARTED")
+    })
+    public ResponseEntity<SessionResponseDto> markInProgress(
+            @Parameter(description = "Session ID") @PathVariable String sessionId) {
+
+        log.info("REST API: Marking session {} in progress", sessionId);
+        return applyTransition(sessionId, SessionStateMachine.Transition.MARK_IN_PROGRESS);
+    }
+
+    @PostMapping("/{sessionId}/complete")
+    @Operation(summary = "Complete a session", description = "Completes a started or in-progress session")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Session completed"),
+            @ApiResponse(responseCode = "404", description = "Session not found"),
+            @ApiResponse(responseCode = "409", description = "Session is not STARTED or IN_PROGRESS")
+    })
+    public ResponseEntity<SessionResponseDto> completeSession(
+            @Parameter(description = "Session ID") @PathVariable String sessionId) {
+
+        log.info("REST API: Completing session {}", sessionId);
+        return applyTransition(sessionId, SessionStateMachine.Transition.COMPLETE);
+    }
+
+    @PostMapping("/{sessionId}/cancel")
+    @Operation(summary = "Cancel a session", description = "Cancels a scheduled or started session")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Session cancelled"),
+            @ApiResponse(responseCode = "404", description = "Session not found"),
+            @ApiResponse(responseCode = "409", description = "Session is not SCHEDULED or STARTED")
+    })
+    public ResponseEntity<SessionResponseDto> cancelSession(
+            @Parameter(description = "Session ID") @PathVariable String sessionId) {
+
+        log.info("REST API: Cancelling session {}", sessionId);
+        return applyTransition(sessionId, SessionStateMachine.Transition.CANCEL);
+    }
+
+    @PostMapping("/{sessionId}/no-show")
+    @Operation(summary = "Mark a session as no-show", description = "Marks a scheduled or started session as NO_SHOW")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Session marked as no-show"),
+            @ApiResponse(responseCode = "404", description = "Session not found"),
+            @ApiResponse(responseCode = "409", description = "Session is not SCHEDULED or STARTED")
+    })
+    public ResponseEntity<SessionResponseDto> markNoShow(
+            @Parameter(description = "Session ID") @PathVariable String sessionId) {
+
+        log.info("REST API: Marking session {} as no-show", sessionId);
+        return applyTransition(sessionId, SessionStateMachine.Transition.NO_SHOW);
+    }
+
+    private ResponseEntity<SessionResponseDto> applyTransition(String sessionId,
+            SessionStateMachine.Transition transition) {
+        try {
+            return ResponseEntity.ok(sessionService.transition(sessionId, transition));
+        } catch (SessionNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (InvalidSessionTransitionException e) {
+            log.warn("Rejected {} for session {}: {}", transition, sessionId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 }
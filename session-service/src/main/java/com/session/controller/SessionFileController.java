@@ -1,7 +1,12 @@
 package com.session.controller;
 
+import com.session.dto.SessionFileContent;
 import com.session.dto.SessionFileDto;
 import com.session.entity.SessionFile;
+import com.session.exception.InvalidRangeException;
+import com.session.exception.QuotaExceededException;
+import com.session.exception.SessionFileNotFoundException;
+import com.session.exception.SessionNotFoundException;
 import com.session.service.SessionFileService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,17 +15,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/sessions/{sessionId}/files")
@@ -36,7 +46,8 @@ public class SessionFileController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "File uploaded successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid file or session data"),
-            @ApiResponse(responseCode = "404", description = "Session not found")
+            @ApiResponse(responseCode = "404", description = "Session not found"),
+            @ApiResponse(responseCode = "413", description = "Session or uploader quota exceeded")
     })
     public ResponseEntity<SessionFileDto> uploadFile(
             @Parameter(description = "Session ID") @PathVariable String sessionId,
@@ -58,6 +69,9 @@ public class SessionFileController {
             SessionFileDto response = sessionFileService.uploadFile(sessionId, file, category, uploadedBy, uploadedById,
                     description);
             return new ResponseEntity<>(response, HttpStatus.CREATED);
+        } catch (QuotaExceededException e) {
+            log.warn("Rejected upload to session {}: {}", sessionId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
         } catch (IOException e) {
             log.error("Error uploading file: {}", e.getMessage(), e);
             return ResponseEntity.badRequest().build();
@@ -77,4 +91,157 @@ public class SessionFileController {
         List<SessionFileDto> response = sessionFileService.getSessionFiles(sessionId);
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping(value = "/archive", produces = "application/zip")
+    @Operation(summary = "Download session files as ZIP", description = "Streams a ZIP of the session's files, optionally filtered by category or uploader")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "ZIP archive streamed"),
+            @ApiResponse(responseCode = "404", description = "Session not found")
+    })
+    public ResponseEntity<StreamingResponseBody> downloadArchive(
+            @Parameter(description = "Session ID") @PathVariable String sessionId,
+            @Parameter(description = "Category filter (optional)") @RequestParam(required = false) SessionFile.FileCategory category,
+            @Parameter(description = "Uploader filter, PATIENT or DOCTOR (optional)") @RequestParam(required = false) String uploadedBy) {
+
+        log.info("REST API: Streaming archive for session ID: {}, category: {}, uploadedBy: {}",
+                sessionId, category, uploadedBy);
+        List<SessionFile> files;
+        try {
+            files = sessionFileService.getArchiveFiles(sessionId, category, uploadedBy);
+        } catch (SessionNotFoundException e) {
+            log.warn("Archive download failed: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+
+        StreamingResponseBody body = out -> {
+            try {
+                sessionFileService.writeArchive(files, out);
+            } catch (IOException e) {
+                // Headers are already on the wire; all we can do is cut the stream short
+                log.error("Error streaming archive for session {}: {}", sessionId, e.getMessage(), e);
+                throw e;
+            }
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("session-" + sessionId + "-files.zip")
+                        .build().toString())
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    @GetMapping("/{fileId}/preview")
+    @Operation(summary = "Get image preview", description = "Returns a JPEG thumbnail for an IMAGE file; 202 while it is still being generated")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Thumbnail returned"),
+            @ApiResponse(responseCode = "202", description = "Thumbnail is being generated, retry shortly"),
+            @ApiResponse(responseCode = "304", description = "Client copy is current"),
+            @ApiResponse(responseCode = "404", description = "File not found or has no preview")
+    })
+    public ResponseEntity<byte[]> getPreview(
+            @Parameter(description = "Session ID") @PathVariable String sessionId,
+            @Parameter(description = "File ID") @PathVariable String fileId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+
+        log.debug("REST API: Fetching preview for file {} in session ID: {}", fileId, sessionId);
+        try {
+            SessionFile file = sessionFileService.getFile(sessionId, fileId);
+            // Uploads are immutable, so a thumbnail never changes once it exists
+            String etag = "\"" + fileId + "-thumb\"";
+            CacheControl cacheControl = CacheControl.maxAge(Duration.ofDays(30)).cachePrivate();
+
+            if (file.getThumbnailKey() != null && etag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+
+            Optional<byte[]> preview = sessionFileService.getPreview(file);
+            if (preview.isPresent()) {
+                return ResponseEntity.ok()
+                        .eTag(etag)
+                        .cacheControl(cacheControl)
+                        .contentType(MediaType.IMAGE_JPEG)
+                        .body(preview.get());
+            }
+
+            if (sessionFileService.requestPreview(file)) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .header(HttpHeaders.RETRY_AFTER, "2")
+                        .cacheControl(CacheControl.noStore())
+                        .build();
+            }
+            return ResponseEntity.notFound().build();
+        } catch (SessionFileNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IOException e) {
+            log.error("Error reading preview for file {}: {}", fileId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/{fileId}/download")
+    @Operation(summary = "Download session file", description = "Streams a file's content; supports single byte-range requests")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "File content"),
+            @ApiResponse(responseCode = "206", description = "Requested byte range of the file"),
+            @ApiResponse(responseCode = "404", description = "File not found"),
+            @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
+    })
+    public ResponseEntity<StreamingResponseBody> downloadFile(
+            @Parameter(description = "Session ID") @PathVariable String sessionId,
+            @Parameter(description = "File ID") @PathVariable String fileId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        log.info("REST API: Downloading file {} from session ID: {}", fileId, sessionId);
+        try {
+            SessionFileContent content = sessionFileService.openFile(sessionId, fileId, range, acceptEncoding);
+            SessionFile file = content.getFile();
+
+            StreamingResponseBody body = out -> {
+                try (InputStream in = content.getStream()) {
+                    in.transferTo(out);
+                }
+            };
+
+            ResponseEntity.BodyBuilder response = ResponseEntity
+                    .status(content.isPartial() ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename(file.getOriginalFileName() != null ? file.getOriginalFileName() : file.getFileName(),
+                                    StandardCharsets.UTF_8)
+                            .build().toString())
+                    .contentType(mediaTypeOf(file))
+                    .contentLength(content.getLength());
+            if (file.getContentEncoding() != null) {
+                response.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            if (content.getContentEncoding() != null) {
+                response.header(HttpHeaders.CONTENT_ENCODING, content.getContentEncoding());
+            }
+            if (content.isPartial()) {
+                response.header(HttpHeaders.CONTENT_RANGE, "bytes " + content.getOffset() + "-"
+                        + (content.getOffset() + content.getLength() - 1) + "/" + content.getTotalSize());
+            }
+            return response.body(body);
+        } catch (SessionFileNotFoundException e) {
+            log.warn("File download failed: {}", e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (InvalidRangeException e) {
+            log.warn("File download failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).build();
+        } catch (IOException e) {
+            log.error("Error downloading file {}: {}", fileId, e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    private MediaType mediaTypeOf(SessionFile file) {
+        try {
+            return file.getContentType() != null ? MediaType.parseMediaType(file.getContentType())
+                    : MediaType.APPLICATION_OCTET_STREAM;
+        } catch (IllegalArgumentException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
 }
@@ -0,0 +1,98 @@
+package com.session.controller;
+
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.session.dto.SessionJoinTokenDto;
+import com.session.dto.SessionResponseDto;
+import com.session.entity.Session;
+import com.session.exception.SessionNotFoundException;
+import com.session.security.InvalidSessionTokenException;
+import com.session.security.SessionJoinClaims;
+import com.session.security.SessionRole;
+import com.session.security.SessionTokenService;
+import com.session.service.SessionService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/v1/sessions")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Session Join", description = "Signed join tokens for telemedicine sessions")
+public class SessionJoinController {
+
+    private static final Set<Session.SessionStatus> JOINABLE_STATUSES = Set.of(
+            Session.SessionStatus.SCHEDULED, Session.SessionStatus.STARTED, Session.SessionStatus.IN_PROGRESS);
+
+    private final SessionService sessionService;
+    private final SessionTokenService sessionTokenService;
+
+    @Value("${app.session-tokens.join-base-url:https://telemedicine.example.com/session/}")
+    private String joinBaseUrl;
+
+    @PostMapping("/{sessionId}/join-tokens")
+    @Operation(summary = "Issue a join token", description = "Issues a signed, expiring join URL for one participant of a session")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token issued"),
+            @ApiResponse(responseCode = "404", description = "Session not found"),
+            @ApiResponse(responseCode = "409", description = "Session is no longer joinable")
+    })
+    public ResponseEntity<SessionJoinTokenDto> issueJoinToken(
+            @Parameter(description = "Session ID") @PathVariable String sessionId,
+            @Parameter(description = "Participant role") @RequestParam SessionRole role) {
+
+        log.info("REST API: Issuing {} join token for session {}", role, sessionId);
+        SessionResponseDto session;
+        try {
+            session = sessionService.getSessionById(sessionId);
+        } catch (SessionNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!JOINABLE_STATUSES.contains(session.getStatus()) || sessionTokenService.isRevoked(sessionId)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        SessionJoinClaims claims = sessionTokenService.claimsFor(sessionId, session.getScheduledTime(), role);
+        String token = sessionTokenService.sign(claims);
+        return ResponseEntity.ok(SessionJoinTokenDto.builder()
+                .sessionId(sessionId)
+                .role(role)
+                .token(token)
+                .joinUrl(joinBaseUrl + sessionId + "?token=" + token)
+                .notBefore(claims.getNotBefore())
+                .expiresAt(claims.getExpiresAt())
+                .build());
+    }
+
+    @GetMapping("/join/validate")
+    @Operation(summary = "Validate a join token", description = "Checks a join token's signature, validity window and revocation without a database lookup")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token is valid"),
+            @ApiResponse(responseCode = "401", description = "Token is invalid, expired, not yet valid or revoked")
+    })
+    public ResponseEntity<SessionJoinClaims> validateJoinToken(
+            @Parameter(description = "Join token") @RequestParam String token) {
+        try {
+            return ResponseEntity.ok(sessionTokenService.verify(token));
+        } catch (InvalidSessionTokenException e) {
+            log.debug("Rejected join token: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+}
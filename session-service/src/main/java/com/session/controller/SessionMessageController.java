@@ -0,0 +1,108 @@
+package com.session.controller;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.session.dto.SessionMessageDto;
+import com.session.dto.SessionMessageRequestDto;
+import com.session.exception.MessageBacklogFullException;
+import com.session.exception.SessionNotFoundException;
+import com.session.service.SessionMessageService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/v1/sessions/{sessionId}/messages")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Session Messages", description = "In-session chat between participants")
+public class SessionMessageController {
+
+    private static final long COMMIT_TIMEOUT_SECONDS = 10;
+
+    private final SessionMessageService sessionMessageService;
+
+    @PostMapping
+    @Operation(summary = "Send a message", description = "Appends a message to the session; returns once it is stored")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Message stored"),
+            @ApiResponse(responseCode = "404", description = "Session not found"),
+            @ApiResponse(responseCode = "503", description = "Message queue is full; retry later")
+    })
+    public CompletableFuture<ResponseEntity<SessionMessageDto>> sendMessage(
+            @Parameter(description = "Session ID") @PathVariable String sessionId,
+            @Valid @RequestBody SessionMessageRequestDto request) {
+        CompletableFuture<SessionMessageDto> committed;
+        try {
+            committed = sessionMessageService.append(sessionId, request);
+        } catch (SessionNotFoundException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        } catch (MessageBacklogFullException e) {
+            log.warn("Rejected message for session {}: {}", sessionId, e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        }
+        // The request thread is released while the group commit runs; the timeout only abandons the response
+        return committed
+                .thenApply(message -> new ResponseEntity<>(message, HttpStatus.CREATED))
+                .orTimeout(COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .exceptionally(e -> {
+                    log.error("Failed to store message for session {}: {}", sessionId, e.getMessage(), e);
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                });
+    }
+
+    @GetMapping
+    @Operation(summary = "Get messages", description = "Retrieves one page of messages with seq greater than 'afterSeq', in order. "
+            + "The X-Next-Cursor header is the 'afterSeq' for the next page and is absent on the last page.")
+    @ApiResponse(responseCode = "200", description = "Messages retrieved successfully")
+    public ResponseEntity<List<SessionMessageDto>> getMessages(
+            @Parameter(description = "Session ID") @PathVariable String sessionId,
+            @Parameter(description = "Return messages after this sequence number") @RequestParam(defaultValue = "0") long afterSeq,
+            @Parameter(description = "Page size, at most 1000") @RequestParam(defaultValue = "100") int limit) {
+
+        List<SessionMessageDto> messages = sessionMessageService.getMessages(sessionId, afterSeq, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!messages.isEmpty() && messages.size() == SessionMessageService.clampLimit(limit)) {
+            response.header(SessionController.NEXT_CURSOR_HEADER,
+                    String.valueOf(messages.get(messages.size() - 1).getSeq()));
+        }
+        return response.body(messages);
+    }
+
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Receive messages live", description = "Server-sent events for new messages; send Last-Event-ID to replay what was missed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Event stream opened"),
+            @ApiResponse(responseCode = "404", description = "Session not found")
+    })
+    public ResponseEntity<SseEmitter> liveMessages(
+            @Parameter(description = "Session ID") @PathVariable String sessionId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        try {
+            return ResponseEntity.ok(sessionMessageService.subscribe(sessionId, lastEventId));
+        } catch (SessionNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.session.controller;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.session.dto.WaitingRoomEntryDto;
+import com.session.exception.InvalidSessionTransitionException;
+import com.session.exception.SessionNotFoundException;
+import com.session.security.InvalidSessionTokenException;
+import com.session.security.SessionJoinClaims;
+import com.session.security.SessionRole;
+import com.session.security.SessionTokenService;
+import com.session.service.WaitingRoomService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@RestController
+@RequestMapping("/api/v1/waiting-room")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Waiting Room", description = "Live presence of patients waiting for their doctor")
+public class WaitingRoomController {
+
+    private final WaitingRoomService waitingRoomService;
+    private final SessionTokenService sessionTokenService;
+
+    @PostMapping("/heartbeat")
+    @Operation(summary = "Patient heartbeat", description = "Joins the doctor's waiting room on the first call and keeps the patient present; send every few seconds")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Patient is in the waiting room"),
+            @ApiResponse(responseCode = "401", description = "Join token is invalid or expired"),
+            @ApiResponse(responseCode = "403", description = "Join token is not a patient token"),
+            @ApiResponse(responseCode = "404", description = "Session not found"),
+            @ApiResponse(responseCode = "409", description = "Session is no longer scheduled")
+    })
+    public ResponseEntity<WaitingRoomEntryDto> heartbeat(
+            @Parameter(description = "Patient join token") @RequestParam String token) {
+        SessionJoinClaims claims;
+        try {
+            claims = sessionTokenService.verify(token);
+        } catch (InvalidSessionTokenException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (claims.getRole() != SessionRole.PATIENT) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            return ResponseEntity.ok(waitingRoomService.heartbeat(claims.getSessionId()));
+        } catch (SessionNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (InvalidSessionTransitionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @PostMapping("/leave")
+    @Operation(summary = "Leave the waiting room", description = "Removes the patient immediately instead of waiting for the heartbeat to expire")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Patient removed"),
+            @ApiResponse(responseCode = "401", description = "Join token is invalid or expired")
+    })
+    public ResponseEntity<Void> leave(
+            @Parameter(description = "Patient join token") @RequestParam String token) {
+        try {
+            waitingRoomService.leave(sessionTokenService.verify(token).getSessionId());
+            return ResponseEntity.noContent().build();
+        } catch (InvalidSessionTokenException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    @GetMapping("/doctors/{doctorId}")
+    @Operation(summary = "Get a doctor's waiting room", description = "Patients currently waiting, ordered by scheduled time")
+    @ApiResponse(responseCode = "200", description = "Waiting room retrieved successfully")
+    public ResponseEntity<List<WaitingRoomEntryDto>> getWaitingRoom(
+            @Parameter(description = "Doctor ID") @PathVariable Long doctorId) {
+        return ResponseEntity.ok(waitingRoomService.getWaitingRoom(doctorId));
+    }
+
+    @GetMapping(value = "/doctors/{doctorId}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Watch a doctor's waiting room", description = "Server-sent events: a 'snapshot' on connect, then 'joined' and 'left'")
+    @ApiResponse(responseCode = "200", description = "Event stream opened")
+    public SseEmitter watchWaitingRoom(
+            @Parameter(description = "Doctor ID") @PathVariable Long doctorId) {
+        return waitingRoomService.subscribe(doctorId);
+    }
+}
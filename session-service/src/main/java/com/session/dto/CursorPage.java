@@ -0,0 +1,18 @@
+package com.session.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One keyset page. {@code nextCursor} is passed back as {@code after} to fetch the following page and is null on
+ * the last page.
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private String nextCursor;
+}
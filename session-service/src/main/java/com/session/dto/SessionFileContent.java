@@ -0,0 +1,30 @@
+package com.session.dto;
+
+import com.session.entity.SessionFile;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.io.InputStream;
+
+/**
+ * An open stream over session file content, plus what the controller needs to describe it.
+ * The caller owns the stream and must close it.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+public class SessionFileContent {
+
+    private SessionFile file;
+    private InputStream stream;
+
+    // Offset and length of the returned slice, and the full size, for Content-Range
+    private long offset;
+    private long length;
+    private long totalSize;
+    private boolean partial;
+
+    // Set when the stream carries stored compressed bytes rather than the original content
+    private String contentEncoding;
+}
@@ -26,4 +26,5 @@ public class SessionFileDto {
     private Long uploadedById;
     private String description;
     private LocalDateTime uploadedAt;
+    private Boolean previewAvailable;
 }
@@ -0,0 +1,23 @@
+package com.session.dto;
+
+import com.session.security.SessionRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionJoinTokenDto {
+
+    private String sessionId;
+    private SessionRole role;
+    private String token;
+    private String joinUrl;
+    private Instant notBefore;
+    private Instant expiresAt;
+}
@@ -0,0 +1,24 @@
+package com.session.dto;
+
+import com.session.security.SessionRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionMessageDto {
+
+    private String id;
+    private String sessionId;
+    private Long seq;
+    private Long senderId;
+    private SessionRole senderRole;
+    private String body;
+    private LocalDateTime createdAt;
+}
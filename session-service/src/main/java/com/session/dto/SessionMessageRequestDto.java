@@ -0,0 +1,27 @@
+package com.session.dto;
+
+import com.session.security.SessionRole;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionMessageRequestDto {
+
+    @NotNull(message = "Sender ID is required")
+    private Long senderId;
+
+    @NotNull(message = "Sender role is required")
+    private SessionRole senderRole;
+
+    @NotBlank(message = "Message body is required")
+    @Size(max = 4000, message = "Message body must be at most 4000 characters")
+    private String body;
+}
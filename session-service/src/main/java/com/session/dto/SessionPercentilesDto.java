@@ -0,0 +1,32 @@
+package com.session.dto;
+
+import com.session.entity.SessionHistogram;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Percentiles in milliseconds. {@code days} is only filled when a per-day breakdown was requested.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionPercentilesDto {
+
+    private SessionHistogram.Metric metric;
+    private Long doctorId;
+    private LocalDate from;
+    private LocalDate to;
+    private long count;
+    private long p50;
+    private long p95;
+    private long p99;
+    private long max;
+    private double mean;
+    private List<SessionPercentilesDto> days;
+}
@@ -0,0 +1,22 @@
+package com.session.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitingRoomEntryDto {
+
+    private String sessionId;
+    private Long patientId;
+    private LocalDateTime scheduledTime;
+    private Instant joinedAt;
+    private Instant lastSeenAt;
+}
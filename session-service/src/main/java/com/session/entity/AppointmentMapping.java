@@ -7,12 +7,22 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Document(collection = "appointment_mappings")
+@CompoundIndexes({
+        @CompoundIndex(name = "patient_id", def = "{'patientId': 1, '_id': 1}"),
+        @CompoundIndex(name = "doctor_id", def = "{'doctorId': 1, '_id': 1}"),
+        @CompoundIndex(name = "patient_status_id", def = "{'patientId': 1, 'status': 1, '_id': 1}"),
+        @CompoundIndex(name = "doctor_status_id", def = "{'doctorId': 1, 'status': 1, '_id': 1}"),
+        @CompoundIndex(name = "status_id", def = "{'status': 1, '_id': 1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,6 +33,7 @@ public class AppointmentMapping {
     private String id;
 
     @NotNull(message = "Appointment ID is required")
+    @Indexed(unique = true)
     private Long appointmentId;
 
     @NotNull(message = "Patient ID is required")
@@ -6,12 +6,24 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Document(collection = "sessions")
+@CompoundIndexes({
+        @CompoundIndex(name = "patient_status", def = "{'patientId': 1, 'status': 1}"),
+        @CompoundIndex(name = "doctor_status", def = "{'doctorId': 1, 'status': 1}"),
+        @CompoundIndex(name = "patient_id", def = "{'patientId': 1, '_id': 1}"),
+        @CompoundIndex(name = "doctor_id", def = "{'doctorId': 1, '_id': 1}"),
+        @CompoundIndex(name = "status_scheduled", def = "{'status': 1, 'scheduledTime': 1}"),
+        @CompoundIndex(name = "status_start", def = "{'status': 1, 'startTime': 1}"),
+        @CompoundIndex(name = "status_end", def = "{'status': 1, 'endTime': 1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -21,6 +33,7 @@ public class Session {
     private String id;
 
     @NotNull(message = "Appointment ID is required")
+    @Indexed(unique = true)
     private Long appointmentId;
 
     @NotNull(message = "Patient ID is required")
@@ -50,6 +63,9 @@ public class Session {
 
     private Boolean hasDoctorFiles;
 
+    // Written by batch transitions so each caller can read back exactly the sessions it moved
+    private String transitionId;
+
     @CreatedDate
     private LocalDateTime createdAt;
 
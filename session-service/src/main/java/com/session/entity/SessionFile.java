@@ -7,12 +7,19 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Document(collection = "session_files")
+@CompoundIndexes({
+        @CompoundIndex(name = "session_category", def = "{'sessionId': 1, 'category': 1}"),
+        @CompoundIndex(name = "session_uploader", def = "{'sessionId': 1, 'uploadedBy': 1}"),
+        @CompoundIndex(name = "uploader_id", def = "{'uploadedById': 1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,7 +42,21 @@ public class SessionFile {
 
     private Long fileSize;
 
-    private String filePath;
+    private Long storedSize; // Bytes held by the storage backend; smaller than fileSize when compressed
+
+    private String contentEncoding; // "deflate" when stored compressed, null when stored as uploaded
+
+    private Long crc32; // CRC-32 of the original bytes, lets archives store entries without a second read
+
+    private String thumbnailKey; // Storage key of the generated preview, set once the derivative pipeline is done
+
+    private Long thumbnailSize;
+
+    private String filePath; // Absolute disk path; only set on files stored before storage backends
+
+    private String storageBackend;
+
+    private String storageKey;
 
     private String contentType;
 
@@ -0,0 +1,53 @@
+package com.session.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Compressed HdrHistogram of one session metric for one doctor and day. Histograms for any set of doctors and days
+ * are merged by adding them, so percentile queries never touch {@code sessions}.
+ */
+@Document(collection = "session_histograms")
+@CompoundIndexes({
+        @CompoundIndex(name = "metric_doctor_day", def = "{'metric': 1, 'doctorId': 1, 'day': 1}"),
+        @CompoundIndex(name = "metric_day", def = "{'metric': 1, 'day': 1}")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionHistogram {
+
+    @Id
+    private String id;
+
+    private Metric metric;
+
+    private Long doctorId;
+
+    private LocalDate day;
+
+    private long count;
+
+    private byte[] histogram;
+
+    private LocalDateTime updatedAt;
+
+    @Version
+    private Long version;
+
+    public enum Metric {
+        /** startTime minus scheduledTime */
+        WAIT_TIME,
+        /** endTime minus startTime */
+        DURATION
+    }
+}
@@ -0,0 +1,39 @@
+package com.session.entity;
+
+import com.session.security.SessionRole;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One chat message in a session. Messages are append-only; {@code seq} is assigned per session in commit order.
+ */
+@Document(collection = "session_messages")
+@CompoundIndex(name = "session_seq", def = "{'sessionId': 1, 'seq': 1}", unique = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SessionMessage {
+
+    @Id
+    private String id;
+
+    private String sessionId;
+
+    private Long seq;
+
+    private Long senderId;
+
+    private SessionRole senderRole;
+
+    private String body;
+
+    private LocalDateTime createdAt;
+}
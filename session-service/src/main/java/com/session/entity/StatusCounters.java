@@ -0,0 +1,28 @@
+package com.session.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Per-status document counts for one collection, kept current with atomic $inc and periodically reconciled
+ * against a $group aggregation.
+ */
+@Document(collection = "status_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusCounters {
+
+    @Id
+    private String id;
+
+    private Map<String, Long> counts;
+
+    private LocalDateTime reconciledAt;
+}
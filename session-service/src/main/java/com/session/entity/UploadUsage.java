@@ -0,0 +1,31 @@
+package com.session.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bytes and files reserved against one upload quota scope: a session ({@code session:<sessionId>}) or an uploader
+ * ({@code uploader:<uploadedBy>:<uploadedById>}). Changed only by conditional $inc.
+ */
+@Document(collection = "upload_usage")
+@CompoundIndex(name = "bytes", def = "{'bytes': -1}")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadUsage {
+
+    @Id
+    private String id;
+
+    private long bytes;
+
+    private long files;
+
+    private LocalDateTime reconciledAt;
+}
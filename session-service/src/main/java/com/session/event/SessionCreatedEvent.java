@@ -0,0 +1,15 @@
+package com.session.event;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * In-process application event published once for each newly inserted session. Not sent to Kafka.
+ */
+@Value
+public class SessionCreatedEvent {
+
+    String sessionId;
+    LocalDateTime scheduledTime;
+}
@@ -1,7 +1,7 @@
 package com.session.event;
 
-import com.session.event.common.BaseEvent;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.telemedicine.events.BaseEvent;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -0,0 +1,17 @@
+package com.session.event;
+
+import com.session.entity.Session;
+import com.session.service.SessionStateMachine;
+import lombok.Value;
+
+/**
+ * In-process application event published once for each transition that won its conditional update.
+ * Not sent to Kafka.
+ */
+@Value
+public class SessionTransitionedEvent {
+
+    Session session;
+    Session.SessionStatus previousStatus;
+    SessionStateMachine.Transition transition;
+}
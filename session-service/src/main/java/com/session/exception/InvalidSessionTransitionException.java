@@ -0,0 +1,7 @@
+package com.session.exception;
+
+public class InvalidSessionTransitionException extends RuntimeException {
+    public InvalidSessionTransitionException(String message) {
+        super(message);
+    }
+}
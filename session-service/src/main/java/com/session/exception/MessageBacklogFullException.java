@@ -0,0 +1,7 @@
+package com.session.exception;
+
+public class MessageBacklogFullException extends RuntimeException {
+    public MessageBacklogFullException(String message) {
+        super(message);
+    }
+}
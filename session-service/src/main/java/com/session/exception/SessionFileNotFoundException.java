@@ -0,0 +1,7 @@
+package com.session.exception;
+
+public class SessionFileNotFoundException extends RuntimeException {
+    public SessionFileNotFoundException(String message) {
+        super(message);
+    }
+}
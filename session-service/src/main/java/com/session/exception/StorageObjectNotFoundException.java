@@ -0,0 +1,9 @@
+package com.session.exception;
+
+import java.io.FileNotFoundException;
+
+public class StorageObjectNotFoundException extends FileNotFoundException {
+    public StorageObjectNotFoundException(String message) {
+        super(message);
+    }
+}
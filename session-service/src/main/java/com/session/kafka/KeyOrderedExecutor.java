@@ -0,0 +1,64 @@
+package com.session.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks on a fixed set of single-threaded lanes chosen by key hash, so tasks for the same key run in
+ * submission order while different keys proceed in parallel. {@link #submit} blocks once {@code maxInFlight}
+ * tasks are queued or running, which bounds memory and back-pressures the caller.
+ */
+@Slf4j
+public class KeyOrderedExecutor implements DisposableBean {
+
+    private final ExecutorService[] lanes;
+    private final Semaphore permits;
+
+    public KeyOrderedExecutor(int laneCount, int maxInFlight, String threadNamePrefix) {
+        this.lanes = new ExecutorService[laneCount];
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(threadFactory);
+        }
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    public void submit(Object key, Runnable task) throws InterruptedException {
+        permits.acquire();
+        try {
+            lanes[Math.floorMod(key.hashCode(), lanes.length)].execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            if (!lane.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Key-ordered lane did not drain within 30s, abandoning queued tasks");
+                lane.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.session.kafka;
+
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Tracks out-of-order completion of records from one partition. The committable offset is the lowest offset still
+ * in flight, or one past the highest offset seen when nothing is in flight, i.e. everything below it is done.
+ * <p>
+ * {@link #started}, {@link #committable} and {@link #nextCommit} are called from the consumer thread; {@link #completed} from workers.
+ */
+public class PartitionOffsetTracker {
+
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private long highestSeen = -1;
+    private long lastCommitted = -1;
+
+    public void started(long offset) {
+        inFlight.add(offset);
+        highestSeen = Math.max(highestSeen, offset);
+    }
+
+    public void completed(long offset) {
+        inFlight.remove(offset);
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return the offset below which every record has completed, if any record was seen
+     */
+    public OptionalLong committable() {
+        if (highestSeen < 0) {
+            return OptionalLong.empty();
+        }
+        Long lowestInFlight = inFlight.ceiling(Long.MIN_VALUE);
+        return OptionalLong.of(lowestInFlight != null ? lowestInFlight : highestSeen + 1);
+    }
+
+    /**
+     * @return the committable offset if it advanced since the last call
+     */
+    public OptionalLong nextCommit() {
+        OptionalLong next = committable();
+        if (next.isEmpty() || next.getAsLong() <= lastCommitted) {
+            return OptionalLong.empty();
+        }
+        lastCommitted = next.getAsLong();
+        return next;
+    }
+}
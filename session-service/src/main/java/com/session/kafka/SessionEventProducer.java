@@ -30,7 +30,9 @@ public class SessionEventProducer {
             
             log.info("Publishing session.started event for session ID: {}", event.getSessionId());
             
-            CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(SESSION_STARTED_TOPIC, event.getSessionId(), event);
+            // Keyed by patientId like patient.registered and appointment.booked, so a patient's events share a partition
+            String key = event.getPatientId() != null ? event.getPatientId().toString() : event.getSessionId();
+            CompletableFuture<SendResult<String, Object>> future = kafkaTemplate.send(SESSION_STARTED_TOPIC, key, event);
             
             future.whenComplete((result, ex) -> {
                 if (ex == null) {
@@ -0,0 +1,85 @@
+package com.session.listener;
+
+import com.session.service.AppointmentBookingProcessor;
+import com.telemedicine.events.AppointmentBookedEvent;
+import com.telemedicine.events.codec.EventDeserializer;
+import com.telemedicine.events.saga.SagaMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumes appointment.booked a whole poll at a time for backfills and replays. Enabled with
+ * {@code app.kafka.appointment-listener.mode=batch}; offsets are committed once per batch and records that fail
+ * are parked on appointment.booked-dlt rather than retried in place.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.kafka.appointment-listener.mode", havingValue = "batch")
+public class AppointmentBatchEventListener {
+
+    private final AppointmentBookingProcessor appointmentBookingProcessor;
+    private final DeadLetterPublishingRecoverer deadLetterPublishingRecoverer;
+    private final SagaMetrics sagaMetrics;
+    private final EventDeserializer eventDeserializer = new EventDeserializer(AppointmentBookedEvent.class);
+
+    @KafkaListener(topics = "appointment.booked", groupId = "session-service-group", containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleAppointmentBookedBatch(List<ConsumerRecord<String, byte[]>> records, Acknowledgment ack) {
+        log.info("Received appointment.booked batch of {} records", records.size());
+
+        List<AppointmentBookedEvent> events = new ArrayList<>(records.size());
+        Map<Long, ConsumerRecord<String, byte[]>> recordsByAppointment = new HashMap<>();
+        List<SagaMetrics.Hop> hops = new ArrayList<>(records.size());
+        Map<Long, SagaMetrics.Hop> hopsByAppointment = new HashMap<>();
+        for (ConsumerRecord<String, byte[]> record : records) {
+            SagaMetrics.Hop hop = sagaMetrics.received(AppointmentEventListener.SAGA_STAGE, record);
+            try {
+                AppointmentBookedEvent event = eventDeserializer.deserialize(record.topic(), record.value(),
+                        AppointmentBookedEvent.class);
+                events.add(event);
+                recordsByAppointment.put(event.getAppointmentId(), record);
+                hops.add(hop);
+                hopsByAppointment.put(event.getAppointmentId(), hop);
+            } catch (Exception e) {
+                hop.failed();
+                // A malformed record is dead-lettered so it doesn't hold back the rest of the batch
+                log.error("Dead-lettering unparseable appointment.booked record at {}-{}@{}: {}",
+                        record.topic(), record.partition(), record.offset(), e.getMessage());
+                deadLetterPublishingRecoverer.accept(record, e);
+            }
+        }
+
+        List<AppointmentBookedEvent> failed;
+        try {
+            failed = appointmentBookingProcessor.processBatch(events);
+        } catch (Exception e) {
+            log.error("Error processing appointment.booked batch: {}", e.getMessage(), e);
+            failed = events;
+        }
+        for (AppointmentBookedEvent event : failed) {
+            ConsumerRecord<String, byte[]> record = recordsByAppointment.get(event.getAppointmentId());
+            deadLetterPublishingRecoverer.accept(record,
+                    new IllegalStateException("Failed to process appointment ID " + event.getAppointmentId()));
+            SagaMetrics.Hop hop = hopsByAppointment.remove(event.getAppointmentId());
+            if (hop != null) {
+                hop.failed();
+                hops.remove(hop);
+            }
+        }
+        // Every record of the batch shares the batch's processing time
+        hops.forEach(SagaMetrics.Hop::completed);
+
+        ack.acknowledge();
+    }
+}
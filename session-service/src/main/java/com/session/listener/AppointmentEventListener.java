@@ -1,89 +1,96 @@
 package com.session.listener;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.session.event.AppointmentBookedEvent;
-import com.session.service.AppointmentMappingService;
-import com.session.service.SessionService;
+import com.session.service.AppointmentBookingProcessor;
+import com.telemedicine.events.AppointmentBookedEvent;
+import com.telemedicine.events.codec.EventDeserializer;
+import com.telemedicine.events.saga.SagaMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
 import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
+@ConditionalOnProperty(name = "app.kafka.appointment-listener.mode", havingValue = "single", matchIfMissing = true)
 public class AppointmentEventListener {
 
-    private final AppointmentMappingService appointmentMappingService;
-    private final SessionService sessionService;
-    private final ObjectMapper objectMapper;
-
+    static final String SAGA_STAGE = "appointment.booked";
+
+    private final AppointmentBookingProcessor appointmentBookingProcessor;
+    private final SagaMetrics sagaMetrics;
+    private final EventDeserializer eventDeserializer = new EventDeserializer(AppointmentBookedEvent.class);
+
+    /**
+     * Failures are retried through appointment.booked-retry-N topics with exponential delays and finally parked on
+     * appointment.booked-dlt, so a failing record never blocks the partition. Payloads the event codec cannot
+     * read go straight to the DLT.
+     */
+    @RetryableTopic(
+            attempts = "${app.kafka.retry.attempts:4}",
+            backoff = @Backoff(delayExpression = "${app.kafka.retry.initial-delay:1000}",
+                    multiplierExpression = "${app.kafka.retry.multiplier:4}",
+                    maxDelayExpression = "${app.kafka.retry.max-delay:60000}"),
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            dltTopicSuffix = "-dlt",
+            exclude = SerializationException.class,
+            traversingCauses = "true",
+            kafkaTemplate = "retryKafkaTemplate",
+            autoCreateTopics = "${app.kafka.retry.auto-create-topics:true}")
     @KafkaListener(topics = "appointment.booked", groupId = "session-service-group", containerFactory = "kafkaListenerContainerFactory")
-    public void handleAppointmentBooked(@Payload String message, Acknowledgment ack) {
-        try {
-            log.info("Received appointment.booked event from topic: appointment.booked");
-            log.debug("Raw event payload: {}", message);
+    public void handleAppointmentBooked(ConsumerRecord<String, byte[]> record, Acknowledgment ack) {
+        log.info("Received appointment.booked event from topic: {}", record.topic());
+        log.debug("Raw event payload: {}", EventDeserializer.describe(record.value()));
+        SagaMetrics.Hop hop = sagaMetrics.received(SAGA_STAGE, record);
 
-            // Parse the JSON message manually
-            AppointmentBookedEvent event = objectMapper.readValue(message, AppointmentBookedEvent.class);
+        try {
+            // Binary or JSON straight from the record bytes
+            AppointmentBookedEvent event = eventDeserializer.deserialize(record.topic(), record.value(),
+                    AppointmentBookedEvent.class);
 
-            log.debug("Parsed event: appointmentId={}, patientId={}, doctorId={}, appointmentDate={}",
-                    event.getAppointmentId(), event.getPatientId(), event.getDoctorId(), event.getAppointmentDate());
+            log.debug("Parsed event: appointmentId={}, patientId={}, doctorId={}, appointmentDate={}, correlation={}",
+                    event.getAppointmentId(), event.getPatientId(), event.getDoctorId(), event.getAppointmentDate(),
+                    hop.getCorrelationId());
 
             processAppointmentEvent(event);
+        } catch (RuntimeException e) {
+            hop.failed();
+            throw e;
+        }
+        hop.completed();
 
-            // Acknowledge successful processing
-            ack.acknowledge();
-
-        } catch (Exception e) {
-            log.error("Error processing appointment.booked event: {}", e.getMessage(), e);
-            log.error("Raw message that failed: {}", message);
+        // Acknowledge successful processing; exceptions hand the record to the next retry tier
+        ack.acknowledge();
+    }
 
-            // In production, you might want to:
-            // 1. Send this to a dead letter queue
-            // 2. Implement retry logic with exponential backoff
-            // 3. Alert monitoring systems
-            //
-            // For now, we'll acknowledge to prevent infinite retries
-            // In a real system, you'd want more sophisticated error handling
-            ack.acknowledge();
-        }
+    @DltHandler
+    public void handleDeadLetter(@Payload byte[] message,
+            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
+            @Header(name = KafkaHeaders.DLT_EXCEPTION_MESSAGE, required = false) String error,
+            Acknowledgment ack) {
+        // Records stay on the DLT and can be re-driven through the dead-letter replay endpoint
+        log.error("appointment.booked record exhausted retries and was parked on {}: {}", topic, error);
+        log.error("Raw message that failed: {}", EventDeserializer.describe(message));
+        ack.acknowledge();
     }
 
     private void processAppointmentEvent(AppointmentBookedEvent event) {
         log.info("Processing appointment.booked event for appointment ID: {}", event.getAppointmentId());
 
-        try {
-            // Step 1: Save appointment mapping
-            appointmentMappingService.saveAppointmentMapping(
-                    event.getAppointmentId(),
-                    event.getPatientId(),
-                    event.getDoctorId(),
-                    event.getAppointmentType(),
-                    event.getAppointmentDate());
-
-            log.info("Successfully saved appointment mapping for appointment ID: {}", event.getAppointmentId());
-
-            // Step 2: Mark mapping as confirmed
-            appointmentMappingService.updateMappingStatus(
-                    event.getAppointmentId(),
-                    com.session.entity.AppointmentMapping.AppointmentStatus.CONFIRMED);
+        // Session and mapping are upserted idempotently, so redelivered and retried events are harmless
+        appointmentBookingProcessor.process(event);
 
-            // Step 3: Automatically create session (simplified workflow)
-            sessionService.createSessionFromAppointment(
-                    event.getAppointmentId(),
-                    event.getPatientId(),
-                    event.getDoctorId(),
-                    event.getAppointmentDate() // Use appointmentDate as scheduledTime
-            );
-
-            log.info("Successfully created session for appointment ID: {}", event.getAppointmentId());
-
-        } catch (Exception e) {
-            log.error("Error processing appointment event for ID {}: {}", event.getAppointmentId(), e.getMessage(), e);
-            // Don't rethrow - we want to acknowledge the message to avoid infinite retries
-        }
+        log.info("Successfully created session for appointment ID: {}", event.getAppointmentId());
     }
 }
@@ -0,0 +1,172 @@
+package com.session.listener;
+
+import com.session.kafka.KeyOrderedExecutor;
+import com.session.kafka.PartitionOffsetTracker;
+import com.session.service.AppointmentBookingProcessor;
+import com.telemedicine.events.AppointmentBookedEvent;
+import com.telemedicine.events.codec.EventDeserializer;
+import com.telemedicine.events.saga.SagaMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fans appointment.booked records out to key-ordered worker lanes so one slow write no longer stalls its
+ * partition. Records with the same appointmentId stay in order; per partition only the highest contiguous
+ * completed offset is committed, always from the consumer thread. A record counts as completed once it was processed
+ * or dead-lettered; if neither succeeded the container stops rather than commit past it. Enabled with
+ * {@code app.kafka.appointment-listener.mode=parallel}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.kafka.appointment-listener.mode", havingValue = "parallel")
+public class AppointmentParallelEventListener implements ConsumerAwareRebalanceListener {
+
+    static final String LISTENER_ID = "appointment-booked-parallel";
+    private static final long COMMIT_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final AppointmentBookingProcessor appointmentBookingProcessor;
+    private final KeyOrderedExecutor appointmentLaneExecutor;
+    private final DeadLetterPublishingRecoverer deadLetterPublishingRecoverer;
+    private final SagaMetrics sagaMetrics;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final EventDeserializer eventDeserializer = new EventDeserializer(AppointmentBookedEvent.class);
+
+    private final Map<TopicPartition, PartitionOffsetTracker> trackers = new ConcurrentHashMap<>();
+    // Per consumer thread, so with container concurrency > 1 one consumer's commit never defers another's
+    private final ThreadLocal<Long> lastCommitNanos = ThreadLocal.withInitial(System::nanoTime);
+
+    @KafkaListener(id = LISTENER_ID, topics = "appointment.booked", groupId = "session-service-group", containerFactory = "parallelKafkaListenerContainerFactory")
+    public void handleAppointmentBooked(ConsumerRecord<String, byte[]> record, Consumer<?, ?> consumer) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        PartitionOffsetTracker tracker = trackers.computeIfAbsent(partition, p -> new PartitionOffsetTracker());
+        long offset = record.offset();
+        tracker.started(offset);
+        // Time spent waiting for a lane counts as processing
+        SagaMetrics.Hop hop = sagaMetrics.received(AppointmentEventListener.SAGA_STAGE, record);
+
+        AppointmentBookedEvent event;
+        try {
+            event = eventDeserializer.deserialize(record.topic(), record.value(), AppointmentBookedEvent.class);
+        } catch (Exception e) {
+            hop.failed();
+            log.error("Dead-lettering unparseable appointment.booked record at {}@{}: {}", partition, offset, e.getMessage());
+            if (deadLetter(record, e)) {
+                tracker.completed(offset);
+                commitIfDue(consumer, false);
+            }
+            return;
+        }
+
+        try {
+            appointmentLaneExecutor.submit(event.getAppointmentId(), () -> {
+                try {
+                    appointmentBookingProcessor.process(event);
+                    hop.completed();
+                } catch (Exception e) {
+                    hop.failed();
+                    log.error("Error processing appointment event for ID {}, dead-lettering: {}",
+                            event.getAppointmentId(), e.getMessage(), e);
+                    if (!deadLetter(record, e)) {
+                        return;
+                    }
+                }
+                tracker.completed(offset);
+            });
+        } catch (InterruptedException e) {
+            // Container is stopping; leave the offset uncommitted so the record is redelivered
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        commitIfDue(consumer, false);
+    }
+
+    @EventListener(condition = "event.listenerId.startsWith('" + LISTENER_ID + "')")
+    public void onIdle(ListenerContainerIdleEvent event) {
+        // Published on the consumer thread, so committing here is safe
+        commitIfDue(event.getConsumer(), true);
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+            PartitionOffsetTracker tracker = trackers.get(partition);
+            if (tracker != null) {
+                tracker.committable().ifPresent(next -> offsets.put(partition, new OffsetAndMetadata(next)));
+            }
+        }
+        if (!offsets.isEmpty()) {
+            consumer.commitSync(offsets);
+        }
+        // In-flight records of revoked partitions may be redelivered to the new owner; processing is idempotent
+        partitions.forEach(trackers::remove);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitions.forEach(trackers::remove);
+    }
+
+    /**
+     * @return false if the DLT publish failed. The record then stays in flight, so its offset is never committed,
+     * and the container is stopped; the partitions are reassigned and redelivered from the last committed offset.
+     */
+    private boolean deadLetter(ConsumerRecord<String, byte[]> record, Exception cause) {
+        try {
+            deadLetterPublishingRecoverer.accept(record, cause);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Could not dead-letter appointment.booked record at {}-{}@{}, stopping {}: {}",
+                    record.topic(), record.partition(), record.offset(), LISTENER_ID, e.getMessage(), e);
+            MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+            if (container != null && container.isRunning()) {
+                // Asynchronous, so this is safe from both the consumer thread and the lane workers
+                container.stop(() -> log.warn("{} stopped after a failed dead-letter publish", LISTENER_ID));
+            }
+            return false;
+        }
+    }
+
+    private void commitIfDue(Consumer<?, ?> consumer, boolean force) {
+        long now = System.nanoTime();
+        if (!force && now - lastCommitNanos.get() < COMMIT_INTERVAL_NANOS) {
+            return;
+        }
+        lastCommitNanos.set(now);
+        // With container concurrency > 1 each consumer only commits the partitions it owns
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition partition : consumer.assignment()) {
+            PartitionOffsetTracker tracker = trackers.get(partition);
+            if (tracker != null) {
+                tracker.nextCommit().ifPresent(next -> offsets.put(partition, new OffsetAndMetadata(next)));
+            }
+        }
+        if (!offsets.isEmpty()) {
+            consumer.commitAsync(offsets, (committed, e) -> {
+                if (e != null) {
+                    log.warn("Offset commit failed for {}: {}", committed.keySet(), e.getMessage());
+                }
+            });
+        }
+    }
+}
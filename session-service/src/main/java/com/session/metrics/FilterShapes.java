@@ -0,0 +1,78 @@
+package com.session.metrics;
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * Reduces a command's filter to its shape for logging: field names and operators are kept, every value becomes
+ * {@code ?}, so slow-query logs carry no patient data.
+ */
+final class FilterShapes {
+
+    private static final int MAX_DEPTH = 6;
+
+    private FilterShapes() {
+    }
+
+    /**
+     * @return the shape of the command's filter, or {@code null} if the command has none
+     */
+    static String of(String commandName, BsonDocument command) {
+        BsonValue filter = switch (commandName) {
+            case "find" -> command.get("filter");
+            case "count", "distinct", "findAndModify" -> command.get("query");
+            case "update" -> firstStatementField(command, "updates", "q");
+            case "delete" -> firstStatementField(command, "deletes", "q");
+            case "aggregate" -> firstStage(command);
+            default -> null;
+        };
+        return filter != null ? shape(filter, 0) : null;
+    }
+
+    private static BsonValue firstStatementField(BsonDocument command, String statements, String field) {
+        BsonValue value = command.get(statements);
+        if (value != null && value.isArray() && !value.asArray().isEmpty() && value.asArray().get(0).isDocument()) {
+            return value.asArray().get(0).asDocument().get(field);
+        }
+        return null;
+    }
+
+    private static BsonValue firstStage(BsonDocument command) {
+        BsonValue pipeline = command.get("pipeline");
+        if (pipeline != null && pipeline.isArray() && !pipeline.asArray().isEmpty()) {
+            return pipeline.asArray().get(0);
+        }
+        return null;
+    }
+
+    private static String shape(BsonValue value, int depth) {
+        if (depth > MAX_DEPTH) {
+            return "...";
+        }
+        if (value.isDocument()) {
+            BsonDocument document = value.asDocument();
+            StringBuilder out = new StringBuilder("{");
+            document.forEach((key, nested) -> {
+                if (out.length() > 1) {
+                    out.append(", ");
+                }
+                out.append(key).append(": ").append(shape(nested, depth + 1));
+            });
+            return out.append('}').toString();
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            // $and/$or hold sub-filters; value lists collapse to [?]
+            if (!array.isEmpty() && array.get(0).isDocument()) {
+                StringBuilder out = new StringBuilder("[");
+                for (int i = 0; i < array.size(); i++) {
+                    out.append(i > 0 ? ", " : "").append(shape(array.get(i), depth + 1));
+                }
+                return out.append(']').toString();
+            }
+            return "[?]";
+        }
+        return "?";
+    }
+}
@@ -0,0 +1,90 @@
+package com.session.metrics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Driver command listener recording {@code mongodb.command.latency}, tagged by collection, command, the
+ * repository or service method that issued it ({@link MongoQueryOrigin}) and outcome. Commands slower than
+ * {@code slowThreshold} are logged with the shape of their filter.
+ */
+@Slf4j
+public class MongoCommandMetrics implements CommandListener {
+
+    private static final Set<String> IGNORED_COMMANDS = Set.of(
+            "hello", "isMaster", "ismaster", "ping", "buildInfo", "saslStart", "saslContinue", "endSessions");
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public MongoCommandMetrics(MeterRegistry meterRegistry, Duration slowThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (IGNORED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        // The command document is only valid during this callback, so the filter shape is captured now
+        BsonValue target = event.getCommand().get(event.getCommandName());
+        String collection = target != null && target.isString() ? target.asString().getValue() : "none";
+        String shape = slowThresholdNanos > 0 ? FilterShapes.of(event.getCommandName(), event.getCommand()) : null;
+        inFlight.put(event.getRequestId(), new Started(collection, MongoQueryOrigin.current(), shape));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        complete(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), "success");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        complete(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), "failed");
+    }
+
+    private void complete(int requestId, String commandName, long elapsedNanos, String status) {
+        Started started = inFlight.remove(requestId);
+        if (started == null) {
+            return;
+        }
+        String key = started.collection + '|' + commandName + '|' + started.method + '|' + status;
+        timers.computeIfAbsent(key, k -> Timer.builder("mongodb.command.latency")
+                        .description("Mongo command round trip as seen by the driver")
+                        .tag("collection", started.collection)
+                        .tag("command", commandName)
+                        .tag("method", started.method)
+                        .tag("status", status)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        if (slowThresholdNanos > 0 && elapsedNanos >= slowThresholdNanos) {
+            log.warn("Slow Mongo {} on {} from {} took {} ms ({}), filter: {}", commandName, started.collection,
+                    started.method, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), status, started.filterShape);
+        }
+    }
+
+    @Value
+    private static class Started {
+        String collection;
+        String method;
+        String filterShape;
+    }
+}
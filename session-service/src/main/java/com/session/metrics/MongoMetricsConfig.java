@@ -0,0 +1,23 @@
+package com.session.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class MongoMetricsConfig {
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetricsCustomizer(MeterRegistry meterRegistry,
+            @Value("${app.mongo.metrics.slow-command-threshold:200ms}") Duration slowThreshold) {
+        MongoCommandMetrics commandMetrics = new MongoCommandMetrics(meterRegistry, slowThreshold);
+        MongoPoolWaitMetrics poolWaitMetrics = new MongoPoolWaitMetrics(meterRegistry);
+        return builder -> builder
+                .addCommandListener(commandMetrics)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(poolWaitMetrics));
+    }
+}
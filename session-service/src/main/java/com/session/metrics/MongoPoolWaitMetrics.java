@@ -0,0 +1,58 @@
+package com.session.metrics;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times connection checkouts ({@code mongodb.pool.checkout.wait}, tagged by outcome); the timer's count is the
+ * number of checkouts. With the synchronous driver a checkout starts and ends on the calling thread.
+ * Pool size and checked-out gauges come from Spring Boot's {@code mongodb.driver.pool.*} metrics.
+ */
+public class MongoPoolWaitMetrics implements ConnectionPoolListener {
+
+    private final ThreadLocal<Long> checkoutStarted = new ThreadLocal<>();
+    private final Timer checkedOut;
+    private final Timer failed;
+
+    public MongoPoolWaitMetrics(MeterRegistry meterRegistry) {
+        checkedOut = waitTimer(meterRegistry, "checked_out");
+        failed = waitTimer(meterRegistry, "failed");
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        checkoutStarted.set(System.nanoTime());
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        record(checkedOut);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        record(failed);
+    }
+
+    private void record(Timer timer) {
+        Long started = checkoutStarted.get();
+        if (started != null) {
+            checkoutStarted.remove();
+            timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Timer waitTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("mongodb.pool.checkout.wait")
+                .description("Time spent waiting for a pooled Mongo connection")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
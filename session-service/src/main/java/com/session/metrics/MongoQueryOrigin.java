@@ -0,0 +1,34 @@
+package com.session.metrics;
+
+/**
+ * Remembers, per thread, which repository or service method issued the Mongo commands currently running, so the
+ * driver's command listener can tag them. The innermost instrumented method wins.
+ */
+public final class MongoQueryOrigin {
+
+    static final String UNKNOWN = "unknown";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private MongoQueryOrigin() {
+    }
+
+    static String enter(String method) {
+        String previous = CURRENT.get();
+        CURRENT.set(method);
+        return previous;
+    }
+
+    static void exit(String previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    static String current() {
+        String method = CURRENT.get();
+        return method != null ? method : UNKNOWN;
+    }
+}
@@ -0,0 +1,53 @@
+package com.session.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the repository method (e.g. {@code SessionRepository.findByDoctorId}) or, for MongoTemplate code, the
+ * service method around each call so command metrics can be tagged with it.
+ */
+@Aspect
+@Component
+public class MongoQueryOriginAspect {
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object aroundRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(),
+                type -> repositoryName(joinPoint.getThis()));
+        return proceed(joinPoint, repository + "." + joinPoint.getSignature().getName());
+    }
+
+    @Around("(within(com.session.service..*) || within(com.session.scheduler..*)) && execution(public * *(..))")
+    public Object aroundService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceed(joinPoint, joinPoint.getSignature().getDeclaringType().getSimpleName() + "."
+                + joinPoint.getSignature().getName());
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint, String method) throws Throwable {
+        String previous = MongoQueryOrigin.enter(method);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            MongoQueryOrigin.exit(previous);
+        }
+    }
+
+    private static String repositoryName(Object proxy) {
+        // The proxy implements the application's repository interface plus Spring Data's own
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+            if (type.getName().startsWith("com.session.")) {
+                return type.getSimpleName();
+            }
+        }
+        return proxy.getClass().getSimpleName();
+    }
+}
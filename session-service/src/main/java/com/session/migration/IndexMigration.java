@@ -0,0 +1,16 @@
+package com.session.migration;
+
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * One versioned, one-off change to the database (e.g. a pre-check or dropping an obsolete index). Applied at most
+ * once, in version order, and recorded in {@code schema_migrations}.
+ */
+public interface IndexMigration {
+
+    int version();
+
+    String description();
+
+    void apply(MongoTemplate mongoTemplate);
+}
@@ -0,0 +1,181 @@
+package com.session.migration;
+
+import com.session.entity.AppointmentMapping;
+import com.session.entity.Session;
+import com.session.entity.SessionFile;
+import com.session.entity.SessionHistogram;
+import com.session.entity.SessionMessage;
+import com.session.entity.StatusCounters;
+import com.session.entity.UploadUsage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Brings indexes up to date at startup, before any listener or endpoint touches the collections.
+ * <p>
+ * Pending {@link IndexMigration}s run first, in version order. Then every index declared with {@code @Indexed} or
+ * {@code @CompoundIndex} on the managed entities is ensured; that step is idempotent and runs on every start, so
+ * annotating an entity is enough to add an index. {@code spring.data.mongodb.auto-index-creation} is off so that
+ * this is the only place indexes are created.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndexMigrationRunner implements InitializingBean {
+
+    static final String MIGRATIONS_COLLECTION = "schema_migrations";
+
+    static final List<Class<?>> INDEXED_ENTITIES = List.of(
+            Session.class, SessionFile.class, SessionMessage.class, SessionHistogram.class, AppointmentMapping.class,
+            StatusCounters.class, UploadUsage.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @Override
+    public void afterPropertiesSet() {
+        for (IndexMigration migration : migrations()) {
+            if (isApplied(migration.version())) {
+                continue;
+            }
+            log.info("Applying index migration V{}: {}", migration.version(), migration.description());
+            migration.apply(mongoTemplate);
+            recordApplied(migration);
+        }
+        ensureDeclaredIndexes();
+    }
+
+    List<IndexMigration> migrations() {
+        List<IndexMigration> migrations = new ArrayList<>(List.of(
+                new RequireUniqueAppointmentIds(1, Session.class),
+                new RequireUniqueAppointmentIds(2, AppointmentMapping.class),
+                // Superseded by the same keys with a trailing _id, which also serve the keyset page sort
+                new DropIndexes(3, AppointmentMapping.class, List.of("patient_status", "doctor_status", "status"))));
+        migrations.sort(Comparator.comparingInt(IndexMigration::version));
+        return migrations;
+    }
+
+    void ensureDeclaredIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (Class<?> entity : INDEXED_ENTITIES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            resolver.resolveIndexFor(entity).forEach(index -> {
+                String name = indexOps.ensureIndex(index);
+                log.debug("Ensured index {} on {}", name, mongoTemplate.getCollectionName(entity));
+            });
+        }
+    }
+
+    private boolean isApplied(int version) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(version)), MIGRATIONS_COLLECTION);
+    }
+
+    private void recordApplied(IndexMigration migration) {
+        Document record = new Document("_id", migration.version())
+                .append("description", migration.description())
+                .append("appliedAt", LocalDateTime.now());
+        try {
+            mongoTemplate.insert(record, MIGRATIONS_COLLECTION);
+        } catch (DuplicateKeyException e) {
+            // Another replica applied it concurrently; migrations are written to be idempotent
+            log.debug("Index migration V{} already recorded", migration.version());
+        }
+    }
+
+    /**
+     * The unique appointmentId indexes cannot be built over existing duplicates; fail with the offending IDs rather
+     * than let the index build fail obscurely or silently delete sessions.
+     */
+    static final class RequireUniqueAppointmentIds implements IndexMigration {
+
+        private final int version;
+        private final Class<?> entity;
+
+        RequireUniqueAppointmentIds(int version, Class<?> entity) {
+            this.version = version;
+            this.entity = entity;
+        }
+
+        @Override
+        public int version() {
+            return version;
+        }
+
+        @Override
+        public String description() {
+            return "Check " + entity.getSimpleName() + " has no duplicate appointmentId before the unique index";
+        }
+
+        @Override
+        public void apply(MongoTemplate mongoTemplate) {
+            Aggregation duplicates = Aggregation.newAggregation(
+                    Aggregation.group("appointmentId").count().as("count"),
+                    Aggregation.match(Criteria.where("count").gt(1)),
+                    Aggregation.limit(20));
+            List<Object> ids = new ArrayList<>();
+            for (Document group : mongoTemplate.aggregate(duplicates, entity, Document.class)) {
+                ids.add(group.get("_id"));
+            }
+            if (!ids.isEmpty()) {
+                throw new IllegalStateException("Duplicate appointmentId values in "
+                        + mongoTemplate.getCollectionName(entity) + " must be resolved before the unique index "
+                        + "can be created: " + ids);
+            }
+        }
+    }
+
+    /**
+     * Drops indexes that are no longer declared on the entity; names that do not exist are skipped.
+     */
+    static final class DropIndexes implements IndexMigration {
+
+        private final int version;
+        private final Class<?> entity;
+        private final List<String> names;
+
+        DropIndexes(int version, Class<?> entity, List<String> names) {
+            this.version = version;
+            this.entity = entity;
+            this.names = names;
+        }
+
+        @Override
+        public int version() {
+            return version;
+        }
+
+        @Override
+        public String description() {
+            return "Drop indexes " + names + " from " + entity.getSimpleName();
+        }
+
+        @Override
+        public void apply(MongoTemplate mongoTemplate) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entity);
+            List<String> existing = indexOps.getIndexInfo().stream().map(IndexInfo::getName).toList();
+            for (String name : names) {
+                if (existing.contains(name)) {
+                    indexOps.dropIndex(name);
+                }
+            }
+        }
+    }
+}
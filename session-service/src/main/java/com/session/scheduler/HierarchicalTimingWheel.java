@@ -0,0 +1,158 @@
+package com.session.scheduler;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed hierarchical timing wheel keyed by {@code K}. Each level has {@code 2^bits} buckets and each level's bucket
+ * spans a whole rotation of the level below, so scheduling and cancelling are O(1) and advancing costs one bucket per
+ * tick plus the occasional cascade. Deadlines beyond the top level wait in an overflow list that is re-examined
+ * whenever the top level cascades.
+ * <p>
+ * A key has at most one pending deadline; scheduling it again replaces the previous one. Cancelled entries are
+ * dropped lazily when their bucket is reached. All methods are synchronized; callers act on the returned
+ * timeouts outside the lock.
+ */
+public class HierarchicalTimingWheel<K, V> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final List<List<Entry<K, V>>[]> levels = new ArrayList<>();
+    private final List<Entry<K, V>> overflow = new ArrayList<>();
+    private final Map<K, Entry<K, V>> pending = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int bits, int levelCount, long startMillis) {
+        if (tickMillis <= 0 || bits <= 0 || levelCount <= 0 || (long) bits * levelCount >= 62) {
+            throw new IllegalArgumentException("Invalid timing wheel geometry");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        for (int level = 0; level < levelCount; level++) {
+            List<Entry<K, V>>[] buckets = new List[1 << bits];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new ArrayList<>();
+            }
+            levels.add(buckets);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedules {@code key} to expire at {@code deadlineMillis}, replacing any pending deadline for it. A deadline
+     * that is already due fires on the next {@link #advance}.
+     */
+    public synchronized void schedule(K key, V value, long deadlineMillis) {
+        Entry<K, V> entry = new Entry<>(key, value, deadlineMillis, Math.max(ceilTick(deadlineMillis), currentTick + 1));
+        Entry<K, V> previous = pending.put(key, entry);
+        if (previous != null) {
+            previous.cancelled = true;
+        }
+        place(entry);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Entry<K, V> previous = pending.remove(key);
+        if (previous != null) {
+            previous.cancelled = true;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    /**
+     * Advances the wheel to {@code nowMillis} and returns every timeout that came due, in tick order.
+     */
+    public synchronized List<Timeout<K, V>> advance(long nowMillis) {
+        List<Timeout<K, V>> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade(currentTick);
+            List<Entry<K, V>> bucket = levels.get(0)[(int) (currentTick & mask)];
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            List<Entry<K, V>> due = new ArrayList<>(bucket);
+            bucket.clear();
+            for (Entry<K, V> entry : due) {
+                if (entry.cancelled) {
+                    continue;
+                }
+                pending.remove(entry.key);
+                expired.add(new Timeout<>(entry.key, entry.value, entry.deadlineMillis));
+            }
+        }
+        return expired;
+    }
+
+    private void cascade(long tick) {
+        // Higher levels first, so entries drop through every level they pass on this tick
+        for (int level = levels.size() - 1; level >= 1; level--) {
+            if ((tick & ((1L << (bits * level)) - 1)) != 0) {
+                continue;
+            }
+            if (level == levels.size() - 1 && !overflow.isEmpty()) {
+                List<Entry<K, V>> waiting = new ArrayList<>(overflow);
+                overflow.clear();
+                waiting.stream().filter(entry -> !entry.cancelled).forEach(this::place);
+            }
+            List<Entry<K, V>> bucket = levels.get(level)[(int) ((tick >>> (bits * level)) & mask)];
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            List<Entry<K, V>> moved = new ArrayList<>(bucket);
+            bucket.clear();
+            moved.stream().filter(entry -> !entry.cancelled).forEach(this::place);
+        }
+    }
+
+    private void place(Entry<K, V> entry) {
+        long delta = entry.deadlineTick - currentTick;
+        for (int level = 0; level < levels.size(); level++) {
+            if (delta < (1L << (bits * (level + 1)))) {
+                // deadlineTick is never behind the tick being processed, so the bucket is reached within one rotation
+                levels.get(level)[(int) ((entry.deadlineTick >>> (bits * level)) & mask)].add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private long ceilTick(long millis) {
+        return Math.floorDiv(millis + tickMillis - 1, tickMillis);
+    }
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private final long deadlineMillis;
+        private final long deadlineTick;
+        private boolean cancelled;
+
+        private Entry(K key, V value, long deadlineMillis, long deadlineTick) {
+            this.key = key;
+            this.value = value;
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    @Value
+    public static class Timeout<K, V> {
+        K key;
+        V value;
+        long deadlineMillis;
+    }
+}
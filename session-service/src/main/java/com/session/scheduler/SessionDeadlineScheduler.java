@@ -0,0 +1,210 @@
+package com.session.scheduler;
+
+import com.session.entity.Session;
+import com.session.event.SessionCreatedEvent;
+import com.session.event.SessionTransitionedEvent;
+import com.session.service.SessionStateMachine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Moves sessions nobody acted on: SCHEDULED sessions become NO_SHOW {@code no-show-grace} after their scheduled
+ * time, and STARTED or IN_PROGRESS sessions are completed {@code max-duration} after they started.
+ * <p>
+ * Deadlines live in a {@link HierarchicalTimingWheel}, loaded as sessions are created and started and rebuilt at
+ * startup from indexed range queries covering the next {@code horizon}. Each tick hands the expired sessions to
+ * {@link SessionStateMachine#transitionAll} in batches, so a session that was acted on in the meantime is simply
+ * not matched. Every replica runs its own wheel; the conditional update lets only one of them win.
+ */
+@Component
+@ConditionalOnProperty(name = "app.session-deadlines.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SessionDeadlineScheduler {
+
+    private final MongoTemplate mongoTemplate;
+    private final SessionStateMachine sessionStateMachine;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.session-deadlines.tick:1s}")
+    private Duration tick;
+
+    @Value("${app.session-deadlines.no-show-grace:30m}")
+    private Duration noShowGrace;
+
+    @Value("${app.session-deadlines.max-duration:2h}")
+    private Duration maxDuration;
+
+    @Value("${app.session-deadlines.horizon:24h}")
+    private Duration horizon;
+
+    @Value("${app.session-deadlines.batch-size:500}")
+    private int batchSize;
+
+    private volatile HierarchicalTimingWheel<String, SessionStateMachine.Transition> wheel;
+    private ScheduledExecutorService ticker;
+    private final Map<SessionStateMachine.Transition, Counter> firedCounters =
+            new EnumMap<>(SessionStateMachine.Transition.class);
+    private final Map<SessionStateMachine.Transition, Counter> appliedCounters =
+            new EnumMap<>(SessionStateMachine.Transition.class);
+    private DistributionSummary lateness;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        wheel = new HierarchicalTimingWheel<>(tick.toMillis(), 6, 4, System.currentTimeMillis());
+        for (SessionStateMachine.Transition transition : List.of(SessionStateMachine.Transition.NO_SHOW,
+                SessionStateMachine.Transition.COMPLETE)) {
+            firedCounters.put(transition, Counter.builder("session.deadlines.fired")
+                    .description("Session deadlines that expired")
+                    .tag("transition", transition.name())
+                    .register(meterRegistry));
+            appliedCounters.put(transition, Counter.builder("session.deadlines.applied")
+                    .description("Expired deadlines whose conditional update moved the session")
+                    .tag("transition", transition.name())
+                    .register(meterRegistry));
+        }
+        lateness = DistributionSummary.builder("session.deadlines.lateness")
+                .description("Milliseconds between a deadline and the tick that fired it")
+                .baseUnit("milliseconds")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("session.deadlines.pending", this, scheduler -> scheduler.wheel.size())
+                .description("Session deadlines held in the timing wheel")
+                .register(meterRegistry);
+
+        reload();
+        ticker = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("session-deadlines-"));
+        ticker.scheduleWithFixedDelay(this::fireExpired, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (ticker != null) {
+            ticker.shutdown();
+            ticker.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Loads every open deadline falling before now + {@code horizon}; overdue ones fire on the next tick. Runs at
+     * startup and periodically, which also picks up sessions created or started on other replicas.
+     */
+    @Scheduled(initialDelayString = "${app.session-deadlines.reload-interval:3600000}",
+            fixedDelayString = "${app.session-deadlines.reload-interval:3600000}")
+    public void reload() {
+        if (wheel == null) {
+            return;
+        }
+        LocalDateTime limit = LocalDateTime.now().plus(horizon);
+        int loaded = 0;
+
+        // Served by the status_scheduled index
+        Query scheduled = Query.query(Criteria.where("status").is(Session.SessionStatus.SCHEDULED)
+                .and("scheduledTime").lt(limit.minus(noShowGrace)));
+        scheduled.fields().include("scheduledTime");
+        try (Stream<Session> sessions = mongoTemplate.stream(scheduled, Session.class)) {
+            for (Session session : (Iterable<Session>) sessions::iterator) {
+                scheduleNoShow(session.getId(), session.getScheduledTime());
+                loaded++;
+            }
+        }
+
+        // Served by the status_start index
+        Query running = Query.query(Criteria.where("status")
+                .in(Session.SessionStatus.STARTED, Session.SessionStatus.IN_PROGRESS)
+                .and("startTime").lt(limit.minus(maxDuration)));
+        running.fields().include("startTime");
+        try (Stream<Session> sessions = mongoTemplate.stream(running, Session.class)) {
+            for (Session session : (Iterable<Session>) sessions::iterator) {
+                scheduleCompletion(session.getId(), session.getStartTime());
+                loaded++;
+            }
+        }
+        log.info("Loaded {} session deadlines before {}", loaded, limit);
+    }
+
+    @EventListener
+    public void onSessionCreated(SessionCreatedEvent event) {
+        if (wheel != null) {
+            scheduleNoShow(event.getSessionId(), event.getScheduledTime());
+        }
+    }
+
+    @EventListener
+    public void onSessionTransitioned(SessionTransitionedEvent event) {
+        if (wheel == null) {
+            return;
+        }
+        Session session = event.getSession();
+        switch (session.getStatus()) {
+            case STARTED, IN_PROGRESS -> scheduleCompletion(session.getId(), session.getStartTime());
+            case COMPLETED, CANCELLED, NO_SHOW -> wheel.cancel(session.getId());
+            default -> {
+            }
+        }
+    }
+
+    void fireExpired() {
+        try {
+            long now = System.currentTimeMillis();
+            Map<SessionStateMachine.Transition, List<String>> due = new EnumMap<>(SessionStateMachine.Transition.class);
+            for (HierarchicalTimingWheel.Timeout<String, SessionStateMachine.Transition> timeout : wheel.advance(now)) {
+                lateness.record(now - timeout.getDeadlineMillis());
+                firedCounters.get(timeout.getValue()).increment();
+                due.computeIfAbsent(timeout.getValue(), t -> new ArrayList<>()).add(timeout.getKey());
+            }
+            due.forEach((transition, sessionIds) -> {
+                for (int from = 0; from < sessionIds.size(); from += batchSize) {
+                    List<String> batch = sessionIds.subList(from, Math.min(from + batchSize, sessionIds.size()));
+                    appliedCounters.get(transition).increment(sessionStateMachine.transitionAll(batch, transition).size());
+                }
+            });
+        } catch (Exception e) {
+            // Deadlines already taken off the wheel are picked up again by the next reload
+            log.error("Failed to apply expired session deadlines: {}", e.getMessage(), e);
+        }
+    }
+
+    private void scheduleNoShow(String sessionId, LocalDateTime scheduledTime) {
+        if (scheduledTime != null) {
+            wheel.schedule(sessionId, SessionStateMachine.Transition.NO_SHOW, toMillis(scheduledTime.plus(noShowGrace)));
+        }
+    }
+
+    private void scheduleCompletion(String sessionId, LocalDateTime startTime) {
+        if (startTime != null) {
+            wheel.schedule(sessionId, SessionStateMachine.Transition.COMPLETE, toMillis(startTime.plus(maxDuration)));
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
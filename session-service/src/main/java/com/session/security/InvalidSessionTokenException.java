@@ -0,0 +1,7 @@
+package com.session.security;
+
+public class InvalidSessionTokenException extends RuntimeException {
+    public InvalidSessionTokenException(String message) {
+        super(message);
+    }
+}
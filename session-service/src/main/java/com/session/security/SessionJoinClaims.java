@@ -0,0 +1,18 @@
+package com.session.security;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * What a join token vouches for: who may join which session, and when.
+ */
+@Value
+public class SessionJoinClaims {
+
+    String sessionId;
+    SessionRole role;
+    Instant notBefore;
+    Instant expiresAt;
+    String keyId;
+}
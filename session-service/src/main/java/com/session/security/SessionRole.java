@@ -0,0 +1,6 @@
+package com.session.security;
+
+public enum SessionRole {
+    PATIENT,
+    DOCTOR
+}
@@ -0,0 +1,218 @@
+package com.session.security;
+
+import com.session.entity.Session;
+import com.session.event.SessionTransitionedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies stateless session join tokens: {@code <keyId>.<payload>.<signature>}, where the payload is
+ * base64url of {@code sessionId|role|notBefore|expiresAt} (epoch seconds) and the signature is HMAC-SHA256 over
+ * {@code <keyId>.<payload>}.
+ * <p>
+ * Verification is pure CPU: no database lookup. Keys rotate by adding a new key, making it active, and removing the
+ * old one once every token it signed has expired. Cancelled, completed and no-show sessions are revoked in memory
+ * until their tokens could no longer be valid; the revocation set is per replica.
+ */
+@Service
+@Slf4j
+public class SessionTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final Set<Session.SessionStatus> REVOKING_STATUSES = Set.of(
+            Session.SessionStatus.CANCELLED, Session.SessionStatus.COMPLETED, Session.SessionStatus.NO_SHOW);
+
+    private final Map<String, SecretKeySpec> keys;
+    private final String activeKeyId;
+    private final Duration joinWindowBefore;
+    private final Duration maxValidity;
+    private final Map<String, ThreadLocal<Mac>> macs = new ConcurrentHashMap<>();
+    private final Map<String, Instant> revokedUntil = new ConcurrentHashMap<>();
+
+    /**
+     * @param keys comma-separated {@code keyId:base64Secret} pairs; when empty an ephemeral key is generated
+     */
+    public SessionTokenService(@Value("${app.session-tokens.keys:}") String keys,
+            @Value("${app.session-tokens.active-key-id:}") String activeKeyId,
+            @Value("${app.session-tokens.join-window-before:15m}") Duration joinWindowBefore,
+            @Value("${app.session-tokens.max-validity:4h}") Duration maxValidity) {
+        this.keys = parseKeys(keys);
+        this.activeKeyId = StringUtils.hasText(activeKeyId) ? activeKeyId : this.keys.keySet().iterator().next();
+        if (!this.keys.containsKey(this.activeKeyId)) {
+            throw new IllegalStateException("Active session token key '" + this.activeKeyId + "' is not configured");
+        }
+        this.joinWindowBefore = joinWindowBefore;
+        this.maxValidity = maxValidity;
+    }
+
+    /**
+     * Claims valid from {@code join-window-before} ahead of the scheduled time until {@code max-validity} after the
+     * later of the scheduled time and now, signed with the active key.
+     */
+    public SessionJoinClaims claimsFor(String sessionId, LocalDateTime scheduledTime, SessionRole role) {
+        Instant now = Instant.now();
+        Instant scheduled = scheduledTime != null ? scheduledTime.atZone(ZoneId.systemDefault()).toInstant() : now;
+        Instant notBefore = scheduled.minus(joinWindowBefore);
+        Instant expiresAt = (scheduled.isAfter(now) ? scheduled : now).plus(maxValidity);
+        return new SessionJoinClaims(sessionId, role, notBefore, expiresAt, activeKeyId);
+    }
+
+    public String issue(String sessionId, SessionRole role, Instant notBefore, Instant expiresAt) {
+        return sign(new SessionJoinClaims(sessionId, role, notBefore, expiresAt, activeKeyId));
+    }
+
+    public String sign(SessionJoinClaims claims) {
+        String payload = claims.getSessionId() + "|" + claims.getRole().name() + "|"
+                + claims.getNotBefore().getEpochSecond() + "|" + claims.getExpiresAt().getEpochSecond();
+        String signingInput = claims.getKeyId() + "."
+                + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return signingInput + "." + ENCODER.encodeToString(mac(claims.getKeyId(), signingInput));
+    }
+
+    public SessionJoinClaims verify(String token) {
+        return verify(token, Instant.now());
+    }
+
+    public SessionJoinClaims verify(String token, Instant now) {
+        if (token == null) {
+            throw new InvalidSessionTokenException("Missing token");
+        }
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot == firstDot) {
+            throw new InvalidSessionTokenException("Malformed token");
+        }
+
+        String keyId = token.substring(0, firstDot);
+        if (!keys.containsKey(keyId)) {
+            throw new InvalidSessionTokenException("Unknown signing key");
+        }
+        String signingInput = token.substring(0, lastDot);
+        byte[] signature;
+        String[] fields;
+        try {
+            signature = DECODER.decode(token.substring(lastDot + 1));
+            fields = new String(DECODER.decode(token.substring(firstDot + 1, lastDot)), StandardCharsets.UTF_8)
+                    .split("\\|");
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSessionTokenException("Malformed token");
+        }
+        if (!MessageDigest.isEqual(signature, mac(keyId, signingInput))) {
+            throw new InvalidSessionTokenException("Bad signature");
+        }
+        if (fields.length != 4) {
+            throw new InvalidSessionTokenException("Malformed token");
+        }
+
+        SessionJoinClaims claims;
+        try {
+            claims = new SessionJoinClaims(fields[0], SessionRole.valueOf(fields[1]),
+                    Instant.ofEpochSecond(Long.parseLong(fields[2])), Instant.ofEpochSecond(Long.parseLong(fields[3])),
+                    keyId);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSessionTokenException("Malformed token");
+        }
+        if (now.isBefore(claims.getNotBefore())) {
+            throw new InvalidSessionTokenException("Token not yet valid");
+        }
+        if (!now.isBefore(claims.getExpiresAt())) {
+            throw new InvalidSessionTokenException("Token expired");
+        }
+        Instant revoked = revokedUntil.get(claims.getSessionId());
+        if (revoked != null && now.isBefore(revoked)) {
+            throw new InvalidSessionTokenException("Session is no longer joinable");
+        }
+        return claims;
+    }
+
+    /**
+     * Rejects every token for the session until the last one issued for {@code scheduledTime} has expired.
+     */
+    public void revoke(String sessionId, LocalDateTime scheduledTime) {
+        Instant now = Instant.now();
+        Instant scheduled = scheduledTime != null ? scheduledTime.atZone(ZoneId.systemDefault()).toInstant() : now;
+        revokedUntil.put(sessionId, (scheduled.isAfter(now) ? scheduled : now).plus(maxValidity));
+    }
+
+    @EventListener
+    public void onSessionTransitioned(SessionTransitionedEvent event) {
+        Session session = event.getSession();
+        if (REVOKING_STATUSES.contains(session.getStatus())) {
+            revoke(session.getId(), session.getScheduledTime());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.session-tokens.revocation-prune-interval:600000}")
+    public void pruneRevocations() {
+        Instant now = Instant.now();
+        revokedUntil.values().removeIf(until -> !now.isBefore(until));
+    }
+
+    public boolean isRevoked(String sessionId) {
+        Instant revoked = revokedUntil.get(sessionId);
+        return revoked != null && Instant.now().isBefore(revoked);
+    }
+
+    private byte[] mac(String keyId, String signingInput) {
+        Mac mac = macs.computeIfAbsent(keyId, id -> ThreadLocal.withInitial(() -> newMac(keys.get(id)))).get();
+        return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+        }
+    }
+
+    private static Map<String, SecretKeySpec> parseKeys(String spec) {
+        Map<String, SecretKeySpec> parsed = new LinkedHashMap<>();
+        if (StringUtils.hasText(spec)) {
+            for (String entry : spec.split(",")) {
+                String[] parts = entry.trim().split(":", 2);
+                if (parts.length != 2 || parts[0].isBlank() || parts[0].contains(".")) {
+                    throw new IllegalStateException("Session token keys must be 'keyId:base64Secret' pairs");
+                }
+                byte[] secret = Base64.getDecoder().decode(parts[1].trim());
+                if (secret.length < 32) {
+                    throw new IllegalStateException("Session token key '" + parts[0] + "' must be at least 256 bits");
+                }
+                parsed.put(parts[0].trim(), new SecretKeySpec(secret, ALGORITHM));
+            }
+        }
+        if (parsed.isEmpty()) {
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            parsed.put("ephemeral", new SecretKeySpec(secret, ALGORITHM));
+            log.warn("No app.session-tokens.keys configured; using an ephemeral key. Join tokens will not survive "
+                    + "a restart or validate on other replicas");
+        }
+        return Collections.unmodifiableMap(parsed);
+    }
+}
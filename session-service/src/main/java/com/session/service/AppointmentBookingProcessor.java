@@ -0,0 +1,229 @@
+package com.session.service;
+
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.session.dto.SessionResponseDto;
+import com.session.entity.AppointmentMapping;
+import com.session.entity.Session;
+import com.session.event.SessionCreatedEvent;
+import com.session.mapper.SessionMapper;
+import com.telemedicine.events.AppointmentBookedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns an appointment.booked event into its session and appointment mapping with two upserts and no reads.
+ * <p>
+ * The session is written first with {@code $setOnInsert} only, so a redelivered event matches the existing
+ * document and changes nothing. The mapping is then inserted straight as SESSION_READY, which replaces the
+ * old PENDING -> CONFIRMED -> SESSION_READY walk and its find-then-save round trips; a mapping that already
+ * exists keeps its status unless it is still PENDING or CONFIRMED, in which case a conditional update promotes
+ * it. Both collections carry a unique index on appointmentId, so concurrent deliveries of the same event
+ * converge on one document.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AppointmentBookingProcessor {
+
+    static final String AUTO_CREATED_NOTES = "Session created automatically from appointment booking";
+
+    private static final FindAndModifyOptions UPSERT_RETURN_NEW = FindAndModifyOptions.options()
+            .upsert(true)
+            .returnNew(true);
+
+    private static final FindAndModifyOptions UPSERT_RETURN_OLD = FindAndModifyOptions.options()
+            .upsert(true)
+            .returnNew(false);
+
+    private static final FindAndModifyOptions RETURN_OLD = FindAndModifyOptions.options()
+            .returnNew(false);
+
+    private static final List<AppointmentMapping.AppointmentStatus> PROMOTABLE = List.of(
+            AppointmentMapping.AppointmentStatus.PENDING, AppointmentMapping.AppointmentStatus.CONFIRMED);
+
+    private final MongoTemplate mongoTemplate;
+    private final SessionMapper sessionMapper;
+    private final StatusCounterService statusCounterService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SessionResponseDto process(AppointmentBookedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        Query byAppointment = byAppointmentId(event);
+
+        // A client-generated _id tells an insert apart from a redelivery without another read
+        ObjectId newSessionId = new ObjectId();
+        Session session = mongoTemplate.findAndModify(byAppointment,
+                sessionInsert(event, now).setOnInsert("_id", newSessionId), UPSERT_RETURN_NEW, Session.class);
+        if (newSessionId.toHexString().equals(session.getId())) {
+            statusCounterService.recordInsert(StatusCounterService.SESSIONS, Session.SessionStatus.SCHEDULED, 1);
+            eventPublisher.publishEvent(new SessionCreatedEvent(session.getId(), session.getScheduledTime()));
+        }
+
+        AppointmentMapping previous = mongoTemplate.findAndModify(byAppointment, mappingUpsert(event, now),
+                UPSERT_RETURN_OLD, AppointmentMapping.class);
+        if (previous == null) {
+            statusCounterService.recordInsert(StatusCounterService.APPOINTMENT_MAPPINGS,
+                    AppointmentMapping.AppointmentStatus.SESSION_READY, 1);
+        } else if (PROMOTABLE.contains(previous.getStatus())) {
+            // Conditional on the status, so the counter moves from the status that was actually replaced
+            AppointmentMapping promoted = mongoTemplate.findAndModify(promotable(event), mappingPromote(now),
+                    RETURN_OLD, AppointmentMapping.class);
+            if (promoted != null) {
+                statusCounterService.recordTransition(StatusCounterService.APPOINTMENT_MAPPINGS,
+                        promoted.getStatus(), AppointmentMapping.AppointmentStatus.SESSION_READY);
+            }
+        }
+
+        log.debug("Session {} ready for appointment ID: {}", session.getId(), event.getAppointmentId());
+        return sessionMapper.toResponseDto(session);
+    }
+
+    /**
+     * Applies a whole poll of events with two unordered bulk upserts. Events are deduplicated by appointmentId
+     * (last one wins); a mapping is only inserted or promoted to SESSION_READY when its session upsert succeeded.
+     * Events whose bulk write failed are retried one by one so a single bad document does not fail the rest.
+     *
+     * @return the events that still failed after the individual retry
+     */
+    public List<AppointmentBookedEvent> processBatch(List<AppointmentBookedEvent> events) {
+        Map<Long, AppointmentBookedEvent> byAppointment = new LinkedHashMap<>();
+        for (AppointmentBookedEvent event : events) {
+            byAppointment.put(event.getAppointmentId(), event);
+        }
+        List<AppointmentBookedEvent> unique = new ArrayList<>(byAppointment.values());
+        if (unique.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BitSet failed = new BitSet(unique.size());
+
+        BulkOperations sessions = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Session.class);
+        for (AppointmentBookedEvent event : unique) {
+            sessions.upsert(byAppointmentId(event), sessionInsert(event, now));
+        }
+        List<BulkWriteUpsert> sessionUpserts = executeBulk(sessions, failed, unique.size());
+        statusCounterService.recordInsert(StatusCounterService.SESSIONS, Session.SessionStatus.SCHEDULED,
+                sessionUpserts.size());
+        for (BulkWriteUpsert upsert : sessionUpserts) {
+            eventPublisher.publishEvent(new SessionCreatedEvent(upsert.getId().asObjectId().getValue().toHexString(),
+                    unique.get(upsert.getIndex()).getAppointmentDate()));
+        }
+
+        List<AppointmentBookedEvent> ready = new ArrayList<>(unique.size());
+        BulkOperations mappings = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AppointmentMapping.class);
+        for (int i = 0; i < unique.size(); i++) {
+            if (!failed.get(i)) {
+                ready.add(unique.get(i));
+                mappings.upsert(byAppointmentId(unique.get(i)), mappingUpsert(unique.get(i), now));
+                mappings.updateOne(promotable(unique.get(i)), mappingPromote(now));
+            }
+        }
+        if (!ready.isEmpty()) {
+            BitSet mappingFailed = new BitSet(ready.size() * 2);
+            // Only inserts are counted here; promotions of pre-existing mappings are left to reconciliation
+            int mappingsInserted = executeBulk(mappings, mappingFailed, ready.size() * 2).size();
+            statusCounterService.recordInsert(StatusCounterService.APPOINTMENT_MAPPINGS,
+                    AppointmentMapping.AppointmentStatus.SESSION_READY, mappingsInserted);
+            // Each event queued an upsert and a promotion, in that order
+            for (int i = mappingFailed.nextSetBit(0); i >= 0; i = mappingFailed.nextSetBit(i + 1)) {
+                failed.set(unique.indexOf(ready.get(i / 2)));
+            }
+        }
+
+        List<AppointmentBookedEvent> stillFailed = new ArrayList<>();
+        for (int i = failed.nextSetBit(0); i >= 0; i = failed.nextSetBit(i + 1)) {
+            AppointmentBookedEvent event = unique.get(i);
+            try {
+                process(event);
+            } catch (Exception e) {
+                log.error("Failed to process appointment.booked event for appointment ID {}: {}",
+                        event.getAppointmentId(), e.getMessage(), e);
+                stillFailed.add(event);
+            }
+        }
+
+        log.info("Processed appointment.booked batch: {} events, {} distinct appointments, {} failed",
+                events.size(), unique.size(), stillFailed.size());
+        return stillFailed;
+    }
+
+    /**
+     * @return the documents the bulk inserted, by request index
+     */
+    private List<BulkWriteUpsert> executeBulk(BulkOperations operations, BitSet failed, int size) {
+        try {
+            return operations.execute().getUpserts();
+        } catch (BulkOperationException e) {
+            // Unordered: everything except the reported indexes was written
+            e.getErrors().forEach(error -> failed.set(error.getIndex()));
+            return e.getResult().getUpserts();
+        } catch (Exception e) {
+            log.warn("Bulk write failed, falling back to per-event processing: {}", e.getMessage());
+            failed.set(0, size);
+            return List.of();
+        }
+    }
+
+    private static Query byAppointmentId(AppointmentBookedEvent event) {
+        return Query.query(Criteria.where("appointmentId").is(event.getAppointmentId()));
+    }
+
+    static Update sessionInsert(AppointmentBookedEvent event, LocalDateTime now) {
+        return new Update()
+                .setOnInsert("patientId", event.getPatientId())
+                .setOnInsert("doctorId", event.getDoctorId())
+                .setOnInsert("status", Session.SessionStatus.SCHEDULED)
+                // appointmentDate is the scheduled time for sessions created from bookings
+                .setOnInsert("scheduledTime", event.getAppointmentDate())
+                .setOnInsert("sessionUrl", SessionService.generateSessionUrl())
+                .setOnInsert("notes", AUTO_CREATED_NOTES)
+                .setOnInsert("fileCount", 0)
+                .setOnInsert("hasPatientFiles", false)
+                .setOnInsert("hasDoctorFiles", false)
+                .setOnInsert("createdAt", now)
+                .setOnInsert("updatedAt", now);
+    }
+
+    static Update mappingUpsert(AppointmentBookedEvent event, LocalDateTime now) {
+        return new Update()
+                .setOnInsert("patientId", event.getPatientId())
+                .setOnInsert("doctorId", event.getDoctorId())
+                .setOnInsert("appointmentType", event.getAppointmentType())
+                .setOnInsert("appointmentTime", event.getAppointmentDate())
+                .setOnInsert("status", AppointmentMapping.AppointmentStatus.SESSION_READY)
+                .setOnInsert("createdAt", now)
+                .setOnInsert("updatedAt", now);
+    }
+
+    /**
+     * Matches the mapping only while it still awaits its session, so later statuses are never overwritten.
+     */
+    private static Query promotable(AppointmentBookedEvent event) {
+        return Query.query(Criteria.where("appointmentId").is(event.getAppointmentId())
+                .and("status").in(PROMOTABLE));
+    }
+
+    static Update mappingPromote(LocalDateTime now) {
+        return new Update()
+                .set("status", AppointmentMapping.AppointmentStatus.SESSION_READY)
+                .set("updatedAt", now);
+    }
+}
@@ -1,15 +1,21 @@
 package com.session.service;
 
+import com.session.config.MongoConfig;
 import com.session.dto.AppointmentMappingDto;
+import com.session.dto.CursorPage;
 import com.session.entity.AppointmentMapping;
 import com.session.repository.AppointmentMappingRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -17,6 +23,9 @@ import java.util.stream.Collectors;
 public class AppointmentMappingService {
 
     private final AppointmentMappingRepository appointmentMappingRepository;
+    @Qualifier(MongoConfig.SECONDARY_TEMPLATE)
+    private final MongoTemplate secondaryMongoTemplate;
+    private final StatusCounterService statusCounterService;
 
     public AppointmentMappingDto saveAppointmentMapping(Long appointmentId, Long patientId, Long doctorId,
             String appointmentType, java.time.LocalDateTime appointmentTime) {
@@ -39,6 +48,7 @@ public class AppointmentMappingService {
                 .build();
 
         AppointmentMapping savedMapping = appointmentMappingRepository.save(mapping);
+        statusCounterService.recordInsert(StatusCounterService.APPOINTMENT_MAPPINGS, savedMapping.getStatus(), 1);
         log.info("Successfully saved appointment mapping with ID: {}", savedMapping.getId());
 
         return convertToDto(savedMapping);
@@ -51,8 +61,10 @@ public class AppointmentMappingService {
                 .orElseThrow(() -> new RuntimeException(
                         "Appointment mapping not found for appointment ID: " + appointmentId));
 
+        AppointmentMapping.AppointmentStatus previousStatus = mapping.getStatus();
         mapping.setStatus(status);
         AppointmentMapping updatedMapping = appointmentMappingRepository.save(mapping);
+        statusCounterService.recordTransition(StatusCounterService.APPOINTMENT_MAPPINGS, previousStatus, status);
 
         log.info("Successfully updated appointment mapping status");
         return convertToDto(updatedMapping);
@@ -63,20 +75,6 @@ public class AppointmentMappingService {
                 .map(this::convertToDto);
     }
 
-    public List<AppointmentMappingDto> findByDoctorId(Long doctorId) {
-        List<AppointmentMapping> mappings = appointmentMappingRepository.findByDoctorId(doctorId);
-        return mappings.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-    }
-
-    public List<AppointmentMappingDto> findByPatientId(Long patientId) {
-        List<AppointmentMapping> mappings = appointmentMappingRepository.findByPatientId(patientId);
-        return mappings.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-    }
-
     public boolean canCreateSession(Long appointmentId) {
         Optional<AppointmentMapping> mapping = appointmentMappingRepository.findByAppointmentId(appointmentId);
         return mapping.isPresent() &&
@@ -84,30 +82,47 @@ public class AppointmentMappingService {
                         mapping.get().getStatus() == AppointmentMapping.AppointmentStatus.SESSION_READY);
     }
 
-    public List<AppointmentMappingDto> findAll() {
-        log.info("Fetching all appointment mappings");
-        List<AppointmentMapping> mappings = appointmentMappingRepository.findAll();
-        return mappings.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<AppointmentMappingDto> findPage(Long patientId, Long doctorId,
+            AppointmentMapping.AppointmentStatus status, String after, int limit) {
+        log.info("Fetching appointment mappings page - patientId: {}, doctorId: {}, status: {}, after: {}, limit: {}",
+                patientId, doctorId, status, after, limit);
+
+        List<AppointmentMapping> mappings = secondaryMongoTemplate.find(
+                KeysetPagination.pageQuery(mappingFilter(patientId, doctorId, status), after, limit),
+                AppointmentMapping.class);
+        return new CursorPage<>(
+                mappings.stream().map(this::convertToDto).collect(Collectors.toList()),
+                KeysetPagination.nextCursor(mappings, limit, AppointmentMapping::getId));
     }
 
-    public List<AppointmentMappingDto> findByStatus(AppointmentMapping.AppointmentStatus status) {
-        log.info("Fetching appointment mappings with status: {}", status);
-        List<AppointmentMapping> mappings = appointmentMappingRepository.findByStatus(status);
-        return mappings.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    /**
+     * Streams matching mappings from a Mongo cursor; the caller must close the stream.
+     */
+    public Stream<AppointmentMappingDto> stream(Long patientId, Long doctorId,
+            AppointmentMapping.AppointmentStatus status) {
+        log.info("Streaming appointment mappings - patientId: {}, doctorId: {}, status: {}", patientId, doctorId, status);
+        return secondaryMongoTemplate.stream(KeysetPagination.streamQuery(mappingFilter(patientId, doctorId, status)),
+                AppointmentMapping.class)
+                .map(this::convertToDto);
+    }
+
+    private static Criteria mappingFilter(Long patientId, Long doctorId, AppointmentMapping.AppointmentStatus status) {
+        Criteria criteria = new Criteria();
+        if (patientId != null) {
+            criteria.and("patientId").is(patientId);
+        }
+        if (doctorId != null) {
+            criteria.and("doctorId").is(doctorId);
+        }
+        if (status != null) {
+            criteria.and("status").is(status);
+        }
+        return criteria;
     }
 
     public java.util.Map<String, Long> getAppointmentCountsByStatus() {
         log.info("Fetching appointment counts by status");
-        List<AppointmentMapping> allMappings = appointmentMappingRepository.findAll();
-
-        return allMappings.stream()
-                .collect(Collectors.groupingBy(
-                        mapping -> mapping.getStatus().name(),
-                        Collectors.counting()));
+        return statusCounterService.getCounts(StatusCounterService.APPOINTMENT_MAPPINGS);
     }
 
     private AppointmentMappingDto convertToDto(AppointmentMapping mapping) {
@@ -0,0 +1,291 @@
+package com.session.service;
+
+import com.session.entity.SessionFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decides whether session file content is worth compressing at rest and applies it as a stream.
+ * Content is stored zlib-wrapped ("deflate" in HTTP terms) so it can be served to clients that
+ * accept that encoding without being inflated first.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FileCompressionService {
+
+    public static final String DEFLATE = "deflate";
+
+    private static final Set<SessionFile.FileCategory> COMPRESSIBLE_CATEGORIES = EnumSet.of(
+            SessionFile.FileCategory.DOCUMENT,
+            SessionFile.FileCategory.MEDICAL_RECORD,
+            SessionFile.FileCategory.LAB_REPORT,
+            SessionFile.FileCategory.PRESCRIPTION);
+
+    private static final List<String> COMPRESSIBLE_TYPES = List.of(
+            "text/", "application/pdf", "application/dicom", "application/json", "application/xml",
+            "application/rtf", "application/msword", "image/bmp", "image/tiff", "image/svg+xml");
+
+    // Already entropy-coded formats; deflating these costs CPU and saves nothing
+    private static final List<String> INCOMPRESSIBLE_TYPES = List.of(
+            "image/jpeg", "image/png", "image/gif", "image/webp", "image/heic", "video/", "audio/",
+            "application/zip", "application/gzip", "application/x-7z-compressed", "application/x-rar-compressed",
+            "application/vnd.openxmlformats");
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.storage.compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.storage.compression.level:6}")
+    private int level;
+
+    @Value("${app.storage.compression.sample-size:64KB}")
+    private DataSize sampleSize;
+
+    @Value("${app.storage.compression.min-size:4KB}")
+    private DataSize minSize;
+
+    // Store compressed only if the sample shrinks to at most this fraction of its size
+    @Value("${app.storage.compression.max-ratio:0.9}")
+    private double maxRatio;
+
+    /**
+     * Wraps upload content in a compressing stream when the type, size and a quick sample say it pays off.
+     * The returned stream must be used in place of the original one.
+     */
+    public PreparedUpload prepare(InputStream in, long size, String contentType, SessionFile.FileCategory category)
+            throws IOException {
+        String categoryTag = category != null ? category.name() : "NONE";
+
+        String skipReason = !enabled ? "disabled"
+                : size < minSize.toBytes() ? "size"
+                : !isCandidate(contentType, category) ? "type"
+                : null;
+        if (skipReason != null) {
+            skipped(categoryTag, skipReason);
+            return new PreparedUpload(in, null, size, categoryTag, null);
+        }
+
+        long start = System.nanoTime();
+        byte[] sample = in.readNBytes((int) sampleSize.toBytes());
+        double sampleRatio = sampleRatio(sample);
+        long sampleNanos = System.nanoTime() - start;
+
+        InputStream restored = new SequenceInputStream(new ByteArrayInputStream(sample), in);
+        if (sampleRatio > maxRatio) {
+            log.debug("Skipping compression for {} content, sample ratio {}", contentType, sampleRatio);
+            skipped(categoryTag, "sample");
+            return new PreparedUpload(restored, null, size, categoryTag, null);
+        }
+
+        Deflater deflater = new Deflater(level);
+        InputStream deflating = new DeflaterInputStream(restored, deflater, 64 * 1024) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    deflater.end();
+                }
+            }
+        };
+        TimedInputStream compressed = new TimedInputStream(deflating, sampleNanos);
+        return new PreparedUpload(compressed, DEFLATE, size, categoryTag, compressed);
+    }
+
+    /**
+     * Returns a stream of the original bytes for content stored with the given encoding.
+     */
+    public InputStream decode(InputStream stored, String contentEncoding) {
+        if (DEFLATE.equals(contentEncoding)) {
+            Inflater inflater = new Inflater();
+            return new InflaterInputStream(stored, inflater, 64 * 1024) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        }
+        return stored;
+    }
+
+    /**
+     * True when an {@code Accept-Encoding} header allows the given encoding with a non-zero quality.
+     */
+    public static boolean accepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null || encoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.trim().split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals(encoding) && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            return !refused;
+        }
+        return false;
+    }
+
+    /**
+     * True for formats that are already entropy-coded (JPEG, PNG, video, archives, ...).
+     */
+    public boolean isAlreadyCompressed(String contentType) {
+        String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        return INCOMPRESSIBLE_TYPES.stream().anyMatch(type::startsWith);
+    }
+
+    private boolean isCandidate(String contentType, SessionFile.FileCategory category) {
+        String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        if (isAlreadyCompressed(type)) {
+            return false;
+        }
+        return COMPRESSIBLE_CATEGORIES.contains(category) || COMPRESSIBLE_TYPES.stream().anyMatch(type::startsWith);
+    }
+
+    private double sampleRatio(byte[] sample) {
+        if (sample.length == 0) {
+            return 1.0;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+            byte[] out = new byte[8192];
+            long compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(out);
+            }
+            return (double) compressed / sample.length;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void skipped(String category, String reason) {
+        Counter.builder("session.files.compression.skipped")
+                .description("Uploads stored without compression")
+                .tag("category", category)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Upload content ready for storage, plus the bookkeeping to record how compression went.
+     */
+    public class PreparedUpload {
+
+        private final InputStream stream;
+        private final String contentEncoding;
+        private final long originalSize;
+        private final String category;
+        private final TimedInputStream timed;
+
+        PreparedUpload(InputStream stream, String contentEncoding, long originalSize, String category,
+                TimedInputStream timed) {
+            this.stream = stream;
+            this.contentEncoding = contentEncoding;
+            this.originalSize = originalSize;
+            this.category = category;
+            this.timed = timed;
+        }
+
+        public InputStream getStream() {
+            return stream;
+        }
+
+        public String getContentEncoding() {
+            return contentEncoding;
+        }
+
+        public boolean isCompressed() {
+            return contentEncoding != null;
+        }
+
+        /**
+         * Records ratio and CPU time once the stored size is known.
+         */
+        public void recordStored(long storedSize) {
+            if (!isCompressed() || originalSize <= 0) {
+                return;
+            }
+            DistributionSummary.builder("session.files.compression.ratio")
+                    .description("Stored size divided by original size for compressed uploads")
+                    .tag("category", category)
+                    .register(meterRegistry)
+                    .record((double) storedSize / originalSize);
+            Timer.builder("session.files.compression.time")
+                    .description("Time spent sampling and deflating upload content")
+                    .tag("category", category)
+                    .register(meterRegistry)
+                    .record(timed.getNanos(), TimeUnit.NANOSECONDS);
+            log.debug("Compressed {} upload from {} to {} bytes", category, originalSize, storedSize);
+        }
+    }
+
+    /**
+     * Accumulates the time spent inside read calls, which for a deflating stream is dominated by compression.
+     */
+    static class TimedInputStream extends FilterInputStream {
+
+        private long nanos;
+
+        TimedInputStream(InputStream in, long initialNanos) {
+            super(in);
+            this.nanos = initialNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.read();
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            try {
+                return super.read(b, off, len);
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+        }
+
+        long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.session.service;
+
+import com.session.entity.SessionFile;
+import com.session.storage.FileStorage;
+import com.session.storage.FileStorageResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates thumbnails for IMAGE uploads off the request path.
+ * Work goes through a bounded executor; when the queue is full the job is dropped (and counted)
+ * rather than blocking the upload, and the preview endpoint re-enqueues it on first request.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageDerivativeService {
+
+    public static final String THUMBNAIL_CONTENT_TYPE = "image/jpeg";
+    private static final String THUMBNAIL_SUFFIX = ".thumb.jpg";
+
+    private final FileStorageResolver fileStorages;
+    private final FileCompressionService fileCompressionService;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.thumbnails.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.thumbnails.threads:2}")
+    private int threads;
+
+    @Value("${app.thumbnails.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${app.thumbnails.max-dimension:320}")
+    private int maxDimension;
+
+    @Value("${app.thumbnails.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    @Value("${app.thumbnails.cache-entries:512}")
+    private int cacheEntries;
+
+    private ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private Map<String, byte[]> previewCache;
+
+    private Timer generationTimer;
+    private Counter rejectedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("image-derivatives-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        previewCache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > cacheEntries;
+            }
+        });
+
+        Gauge.builder("session.files.thumbnails.queue.depth", executor, e -> e.getQueue().size())
+                .description("Thumbnail jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("session.files.thumbnails.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Thumbnail jobs currently running")
+                .register(meterRegistry);
+        generationTimer = Timer.builder("session.files.thumbnails.generation")
+                .description("Time to read an image and write its thumbnail")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("session.files.thumbnails.rejected")
+                .description("Thumbnail jobs dropped because the queue was full")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("session.files.thumbnails.failed")
+                .description("Thumbnail jobs that could not decode or store the image")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    public boolean supports(SessionFile file) {
+        return enabled
+                && file.getCategory() == SessionFile.FileCategory.IMAGE
+                && file.getContentType() != null
+                && ImageIO.getImageReadersByMIMEType(file.getContentType()).hasNext();
+    }
+
+    /**
+     * Queues thumbnail generation for a committed upload. Never blocks; returns false if the job was not queued.
+     */
+    public boolean submit(SessionFile file) {
+        if (!supports(file) || file.getThumbnailKey() != null || !pending.add(file.getId())) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generationTimer.record(() -> generate(file));
+                } finally {
+                    pending.remove(file.getId());
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            pending.remove(file.getId());
+            rejectedCounter.increment();
+            log.warn("Thumbnail queue full, skipping file {} for now", file.getId());
+            return false;
+        }
+    }
+
+    /**
+     * Returns thumbnail bytes, from memory when recently served.
+     */
+    public Optional<byte[]> getPreview(SessionFile file) throws IOException {
+        if (file.getThumbnailKey() == null) {
+            return Optional.empty();
+        }
+        byte[] cached = previewCache.get(file.getId());
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        try (InputStream in = fileStorages.forFile(file).get(file.getThumbnailKey())) {
+            byte[] bytes = in.readAllBytes();
+            previewCache.put(file.getId(), bytes);
+            return Optional.of(bytes);
+        }
+    }
+
+    public void deletePreview(SessionFile file) throws IOException {
+        previewCache.remove(file.getId());
+        if (file.getThumbnailKey() != null) {
+            fileStorages.forFile(file).delete(file.getThumbnailKey());
+        }
+    }
+
+    private void generate(SessionFile file) {
+        String sourceKey = file.getStorageKey() != null ? file.getStorageKey() : file.getFilePath();
+        try {
+            // The thumbnail is kept next to its source so both resolve through the file's backend
+            FileStorage fileStorage = fileStorages.forFile(file);
+            BufferedImage thumbnail;
+            try (InputStream in = fileCompressionService.decode(fileStorage.get(sourceKey), file.getContentEncoding())) {
+                thumbnail = readScaled(in);
+            }
+            if (thumbnail == null) {
+                failedCounter.increment();
+                log.warn("No image reader could decode file {}", file.getId());
+                return;
+            }
+
+            byte[] jpeg = encodeJpeg(thumbnail);
+            String thumbnailKey = sourceKey + THUMBNAIL_SUFFIX;
+            fileStorage.put(thumbnailKey, new ByteArrayInputStream(jpeg), jpeg.length, THUMBNAIL_CONTENT_TYPE);
+
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(file.getId())),
+                    new Update().set("thumbnailKey", thumbnailKey).set("thumbnailSize", (long) jpeg.length),
+                    SessionFile.class);
+            previewCache.put(file.getId(), jpeg);
+            log.debug("Generated {} byte thumbnail for file {}", jpeg.length, file.getId());
+        } catch (IOException | RuntimeException e) {
+            failedCounter.increment();
+            log.error("Failed to generate thumbnail for file {}: {}", file.getId(), e.getMessage(), e);
+        }
+    }
+
+    private BufferedImage readScaled(InputStream in) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+
+                // Subsample while decoding so a large photo never has to be held at full resolution
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (maxDimension * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                double scale = Math.min(1.0, (double) maxDimension / Math.max(decoded.getWidth(), decoded.getHeight()));
+                int targetWidth = Math.max(1, (int) Math.round(decoded.getWidth() * scale));
+                int targetHeight = Math.max(1, (int) Math.round(decoded.getHeight() * scale));
+
+                BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+                Graphics2D g = scaled.createGraphics();
+                try {
+                    g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                    g.setColor(Color.WHITE); // JPEG has no alpha channel
+                    g.fillRect(0, 0, targetWidth, targetHeight);
+                    g.drawImage(decoded, 0, 0, targetWidth, targetHeight, null);
+                } finally {
+                    g.dispose();
+                }
+                return scaled;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,50 @@
+package com.session.service;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination over {@code _id}. ObjectIds grow with insertion time, so pages come back in creation order and
+ * every page is an index range scan of at most {@code limit} documents regardless of how deep the client has paged.
+ */
+public final class KeysetPagination {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 1000;
+    static final int STREAM_BATCH_SIZE = 500;
+
+    private KeysetPagination() {
+    }
+
+    public static Query pageQuery(Criteria filter, String after, int limit) {
+        Criteria criteria = filter;
+        if (after != null && !after.isBlank()) {
+            if (!ObjectId.isValid(after)) {
+                throw new IllegalArgumentException("Invalid cursor: " + after);
+            }
+            criteria = new Criteria().andOperator(filter, Criteria.where("_id").gt(new ObjectId(after)));
+        }
+        return Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(clamp(limit));
+    }
+
+    static Query streamQuery(Criteria filter) {
+        return Query.query(filter)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+    }
+
+    static <T> String nextCursor(List<T> page, int limit, Function<T, String> id) {
+        return page.size() == clamp(limit) ? id.apply(page.get(page.size() - 1)) : null;
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
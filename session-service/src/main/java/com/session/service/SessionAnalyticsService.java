@@ -0,0 +1,247 @@
+package com.session.service;
+
+import com.session.config.MongoConfig;
+import com.session.dto.SessionPercentilesDto;
+import com.session.entity.Session;
+import com.session.entity.SessionHistogram;
+import com.session.entity.SessionHistogram.Metric;
+import com.session.event.SessionTransitionedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+
+/**
+ * Wait-time and duration percentiles per doctor and day without scanning sessions.
+ * <p>
+ * START and COMPLETE transitions are recorded into in-memory {@link Recorder}s, one per metric/doctor/day bucket.
+ * A scheduled flush takes each recorder's interval histogram and merges it into the stored snapshot under
+ * optimistic locking, so several replicas can flush into the same bucket. Queries decode and add the snapshots in
+ * range; values recorded since the last flush are not yet visible.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionAnalyticsService {
+
+    /** One day in milliseconds; longer waits and durations are clamped. */
+    static final long HIGHEST_TRACKABLE_MILLIS = Duration.ofDays(1).toMillis();
+    static final int SIGNIFICANT_DIGITS = 3;
+    private static final int MAX_MERGE_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+    @Qualifier(MongoConfig.SECONDARY_TEMPLATE)
+    private final MongoTemplate secondaryMongoTemplate;
+
+    private final Map<BucketKey, Recorder> recorders = new ConcurrentHashMap<>();
+
+    @EventListener
+    public void onSessionTransitioned(SessionTransitionedEvent event) {
+        Session session = event.getSession();
+        if (event.getTransition() == SessionStateMachine.Transition.START) {
+            record(Metric.WAIT_TIME, session.getDoctorId(), session.getScheduledTime(), session.getStartTime());
+        } else if (event.getTransition() == SessionStateMachine.Transition.COMPLETE) {
+            record(Metric.DURATION, session.getDoctorId(), session.getStartTime(), session.getEndTime());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.flush-interval:30000}")
+    public void flush() {
+        LocalDate oldestLive = LocalDate.now().minusDays(1);
+        recorders.forEach((key, recorder) -> {
+            Histogram interval = recorder.getIntervalHistogram();
+            if (interval.getTotalCount() > 0) {
+                merge(key, interval);
+            }
+            // Late values for older days are rare; they get a new recorder and the next flush still merges them
+            if (key.day.isBefore(oldestLive)) {
+                recorders.remove(key, recorder);
+            }
+        });
+    }
+
+    public SessionPercentilesDto getPercentiles(Metric metric, Long doctorId, LocalDate from, LocalDate to,
+            boolean byDay) {
+        Criteria criteria = Criteria.where("metric").is(metric);
+        if (doctorId != null) {
+            criteria = criteria.and("doctorId").is(doctorId);
+        }
+        Query query = Query.query(criteria.and("day").gte(from).lte(to)).with(Sort.by("day"));
+
+        Histogram total = newHistogram();
+        Map<LocalDate, Histogram> perDay = new TreeMap<>();
+        for (SessionHistogram snapshot : secondaryMongoTemplate.find(query, SessionHistogram.class)) {
+            Histogram histogram = decode(snapshot);
+            total.add(histogram);
+            if (byDay) {
+                perDay.computeIfAbsent(snapshot.getDay(), day -> newHistogram()).add(histogram);
+            }
+        }
+
+        SessionPercentilesDto result = toDto(metric, doctorId, from, to, total);
+        if (byDay) {
+            List<SessionPercentilesDto> days = new ArrayList<>();
+            perDay.forEach((day, histogram) -> days.add(toDto(metric, doctorId, day, day, histogram)));
+            result.setDays(days);
+        }
+        return result;
+    }
+
+    /**
+     * Rebuilds the snapshots for {@code from} to {@code to} (inclusive) from the sessions collection, replacing what
+     * is stored for those days. Each metric is read by the timestamp that picks its bucket: wait times by
+     * startTime, durations of completed sessions by endTime. Values flushed for those days while the backfill runs
+     * may be overwritten.
+     *
+     * @return the number of session documents read, once per metric
+     */
+    public long backfill(LocalDate from, LocalDate to) {
+        Map<BucketKey, Histogram> rebuilt = new HashMap<>();
+        // Listing every status lets the (status, startTime) index serve the range
+        long sessions = rebuild(rebuilt, Metric.WAIT_TIME,
+                Criteria.where("status").in((Object[]) Session.SessionStatus.values()), "startTime", from, to,
+                Session::getScheduledTime, Session::getStartTime);
+        // Live durations are only recorded on COMPLETE
+        sessions += rebuild(rebuilt, Metric.DURATION,
+                Criteria.where("status").is(Session.SessionStatus.COMPLETED), "endTime", from, to,
+                Session::getStartTime, Session::getEndTime);
+
+        mongoTemplate.remove(Query.query(Criteria.where("day").gte(from).lte(to)), SessionHistogram.class);
+        // A flush may recreate a bucket between the remove and the write, so replace rather than insert
+        rebuilt.forEach((key, histogram) -> mongoTemplate.findAndReplace(
+                Query.query(Criteria.where("_id").is(key.id())), snapshot(key, histogram, 0L),
+                FindAndReplaceOptions.options().upsert()));
+        log.info("Backfilled {} session histograms from {} sessions between {} and {}", rebuilt.size(), sessions,
+                from, to);
+        return sessions;
+    }
+
+    private long rebuild(Map<BucketKey, Histogram> rebuilt, Metric metric, Criteria byStatus, String dayField,
+            LocalDate from, LocalDate to, Function<Session, LocalDateTime> start, Function<Session, LocalDateTime> end) {
+        Query query = Query.query(byStatus.and(dayField).gte(from.atStartOfDay()).lt(to.plusDays(1).atStartOfDay()));
+        query.fields().include("doctorId", "scheduledTime", "startTime", "endTime");
+
+        long sessions = 0;
+        try (Stream<Session> stream = secondaryMongoTemplate.stream(query, Session.class)) {
+            for (Session session : (Iterable<Session>) stream::iterator) {
+                sessions++;
+                add(rebuilt, metric, session.getDoctorId(), start.apply(session), end.apply(session));
+            }
+        }
+        return sessions;
+    }
+
+    private void record(Metric metric, Long doctorId, LocalDateTime start, LocalDateTime end) {
+        if (doctorId == null || start == null || end == null) {
+            return;
+        }
+        recorders.computeIfAbsent(new BucketKey(metric, doctorId, end.toLocalDate()),
+                key -> new Recorder(HIGHEST_TRACKABLE_MILLIS, SIGNIFICANT_DIGITS)).recordValue(millis(start, end));
+    }
+
+    private static void add(Map<BucketKey, Histogram> histograms, Metric metric, Long doctorId, LocalDateTime start,
+            LocalDateTime end) {
+        if (doctorId != null && start != null && end != null) {
+            histograms.computeIfAbsent(new BucketKey(metric, doctorId, end.toLocalDate()), key -> newHistogram())
+                    .recordValue(millis(start, end));
+        }
+    }
+
+    private void merge(BucketKey key, Histogram delta) {
+        for (int attempt = 1; attempt <= MAX_MERGE_ATTEMPTS; attempt++) {
+            SessionHistogram existing = mongoTemplate.findById(key.id(), SessionHistogram.class);
+            Histogram merged = existing != null ? decode(existing) : newHistogram();
+            merged.add(delta);
+            try {
+                mongoTemplate.save(snapshot(key, merged, existing != null ? existing.getVersion() : null));
+                return;
+            } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+                log.debug("Concurrent update of histogram {}, retrying ({}/{})", key.id(), attempt,
+                        MAX_MERGE_ATTEMPTS);
+            }
+        }
+        log.warn("Dropped {} values for histogram {} after {} conflicting merges", delta.getTotalCount(), key.id(),
+                MAX_MERGE_ATTEMPTS);
+    }
+
+    private static SessionHistogram snapshot(BucketKey key, Histogram histogram, Long version) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] bytes = new byte[length];
+        buffer.flip();
+        buffer.get(bytes);
+        return new SessionHistogram(key.id(), key.metric, key.doctorId, key.day, histogram.getTotalCount(), bytes,
+                LocalDateTime.now(), version);
+    }
+
+    private static Histogram decode(SessionHistogram snapshot) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(snapshot.getHistogram()),
+                    HIGHEST_TRACKABLE_MILLIS);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt histogram " + snapshot.getId(), e);
+        }
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_MILLIS, SIGNIFICANT_DIGITS);
+    }
+
+    private static long millis(LocalDateTime start, LocalDateTime end) {
+        // Early starts count as no wait
+        return Math.min(Math.max(0, Duration.between(start, end).toMillis()), HIGHEST_TRACKABLE_MILLIS);
+    }
+
+    private static SessionPercentilesDto toDto(Metric metric, Long doctorId, LocalDate from, LocalDate to,
+            Histogram histogram) {
+        boolean empty = histogram.getTotalCount() == 0;
+        return SessionPercentilesDto.builder()
+                .metric(metric)
+                .doctorId(doctorId)
+                .from(from)
+                .to(to)
+                .count(histogram.getTotalCount())
+                .p50(empty ? 0 : histogram.getValueAtPercentile(50))
+                .p95(empty ? 0 : histogram.getValueAtPercentile(95))
+                .p99(empty ? 0 : histogram.getValueAtPercentile(99))
+                .max(empty ? 0 : histogram.getMaxValue())
+                .mean(empty ? 0 : histogram.getMean())
+                .build();
+    }
+
+    @lombok.Value
+    private static class BucketKey {
+        Metric metric;
+        Long doctorId;
+        LocalDate day;
+
+        String id() {
+            return metric + ":" + doctorId + ":" + day;
+        }
+    }
+}
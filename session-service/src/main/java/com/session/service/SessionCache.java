@@ -0,0 +1,93 @@
+package com.session.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.session.entity.Session;
+import com.session.event.SessionTransitionedEvent;
+import com.session.repository.SessionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded in-process cache of sessions by ID, plus an appointmentId to sessionId index.
+ * <p>
+ * Loads are single-flight: concurrent misses for the same key wait for one Mongo read. Entries are invalidated on
+ * every state transition and file-count change made by this instance; the write TTL bounds staleness for changes
+ * made by other replicas. The appointment index never goes stale because a session's appointmentId is immutable.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SessionCache {
+
+    private final SessionRepository sessionRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.cache.sessions.max-size:10000}")
+    private long maxSize;
+
+    @Value("${app.cache.sessions.ttl:10s}")
+    private Duration ttl;
+
+    private Cache<String, Session> byId;
+    private Cache<Long, String> idByAppointment;
+
+    @PostConstruct
+    void init() {
+        byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        idByAppointment = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "sessions.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByAppointment, "sessions.byAppointmentId");
+        Gauge.builder("session.cache.hit.ratio", byId, cache -> cache.stats().hitRate())
+                .description("Hit ratio of the session-by-ID cache")
+                .tag("cache", "sessions.byId")
+                .register(meterRegistry);
+        Gauge.builder("session.cache.hit.ratio", idByAppointment, cache -> cache.stats().hitRate())
+                .description("Hit ratio of the appointmentId index")
+                .tag("cache", "sessions.byAppointmentId")
+                .register(meterRegistry);
+    }
+
+    public Optional<Session> getById(String sessionId) {
+        // Caffeine does not store nulls, so a missing session is looked up again next time
+        return Optional.ofNullable(byId.get(sessionId, id -> sessionRepository.findById(id).orElse(null)));
+    }
+
+    public Optional<Session> getByAppointmentId(Long appointmentId) {
+        String sessionId = idByAppointment.get(appointmentId, id -> sessionRepository.findByAppointmentId(id)
+                .map(session -> {
+                    byId.put(session.getId(), session);
+                    return session.getId();
+                })
+                .orElse(null));
+        return sessionId != null ? getById(sessionId) : Optional.empty();
+    }
+
+    public void invalidate(String sessionId) {
+        // Waits for an in-flight load of the same key, so a stale read cannot be cached after this returns
+        byId.invalidate(sessionId);
+    }
+
+    @EventListener
+    public void onSessionTransitioned(SessionTransitionedEvent event) {
+        invalidate(event.getSession().getId());
+    }
+}
@@ -1,34 +1,59 @@
 package com.session.service;
 
+import com.mongodb.client.result.UpdateResult;
+import com.session.dto.SessionFileContent;
 import com.session.dto.SessionFileDto;
+import com.session.entity.Session;
 import com.session.entity.SessionFile;
+import com.session.exception.InvalidRangeException;
+import com.session.exception.SessionFileNotFoundException;
+import com.session.exception.SessionNotFoundException;
 import com.session.repository.SessionFileRepository;
 import com.session.repository.SessionRepository;
+import com.session.storage.BoundedInputStream;
+import com.session.storage.FileStorage;
+import com.session.storage.FileStorageResolver;
+import com.session.storage.StoredObject;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.http.HttpRange;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class SessionFileService {
 
+    private static final int ARCHIVE_BUFFER_SIZE = 64 * 1024;
+
     private final SessionFileRepository sessionFileRepository;
     private final SessionRepository sessionRepository;
-
-    @Value("${app.upload.dir:${user.home}/session-uploads}")
-    private String uploadDir;
+    private final FileStorageResolver fileStorages;
+    private final FileCompressionService fileCompressionService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final SessionCache sessionCache;
+    private final UploadQuotaService uploadQuotaService;
+    private final MongoTemplate mongoTemplate;
 
     public SessionFileDto uploadFile(String sessionId, MultipartFile file, SessionFile.FileCategory category,
             String uploadedBy, Long uploadedById, String description) throws IOException {
@@ -39,12 +64,29 @@ public class SessionFileService {
             throw new RuntimeException("Session not found with ID: " + sessionId);
         }
 
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+        // Reserve quota before any content is written; released if the content or metadata write fails
+        UploadQuotaService.Reservation reservation = uploadQuotaService.reserve(sessionId, uploadedBy, uploadedById,
+                file.getSize());
+        SessionFile savedFile;
+        try {
+            savedFile = storeFile(sessionId, file, category, uploadedBy, uploadedById, description);
+        } catch (IOException | RuntimeException e) {
+            uploadQuotaService.release(reservation);
+            throw e;
         }
 
+        // The file is stored from here on, so its quota stays reserved even if a later step fails
+        updateSessionFileCounts(sessionId);
+
+        // Thumbnails are produced in the background once the metadata is committed
+        imageDerivativeService.submit(savedFile);
+
+        log.info("Successfully uploaded file with ID: {}", savedFile.getId());
+        return convertToDto(savedFile);
+    }
+
+    private SessionFile storeFile(String sessionId, MultipartFile file, SessionFile.FileCategory category,
+            String uploadedBy, Long uploadedById, String description) throws IOException {
         // Generate unique filename
         String originalFilename = file.getOriginalFilename();
         String fileExtension = originalFilename != null && originalFilename.contains(".")
@@ -52,9 +94,22 @@ public class SessionFileService {
                 : "";
         String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
 
-        // Save file to disk
-        Path filePath = uploadPath.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        // Stream file content to the configured storage backend, compressing it when worthwhile
+        FileStorage fileStorage = fileStorages.active();
+        String storageKey = sessionId + "/" + uniqueFilename;
+        StoredObject stored;
+        String contentEncoding;
+        CRC32 crc = new CRC32();
+        try (InputStream in = new CheckedInputStream(file.getInputStream(), crc)) {
+            FileCompressionService.PreparedUpload upload = fileCompressionService.prepare(
+                    in, file.getSize(), file.getContentType(), category);
+            try (InputStream content = upload.getStream()) {
+                stored = fileStorage.put(storageKey, content, upload.isCompressed() ? -1 : file.getSize(),
+                        file.getContentType());
+            }
+            upload.recordStored(stored.getSize());
+            contentEncoding = upload.getContentEncoding();
+        }
 
         // Save file metadata to database
         SessionFile sessionFile = SessionFile.builder()
@@ -63,7 +118,11 @@ public class SessionFileService {
                 .originalFileName(originalFilename)
                 .fileType(fileExtension.substring(1)) // Remove the dot
                 .fileSize(file.getSize())
-                .filePath(filePath.toString())
+                .storedSize(stored.getSize())
+                .contentEncoding(contentEncoding)
+                .crc32(crc.getValue())
+                .storageBackend(fileStorage.backendName())
+                .storageKey(storageKey)
                 .contentType(file.getContentType())
                 .category(category)
                 .uploadedBy(uploadedBy)
@@ -71,13 +130,13 @@ public class SessionFileService {
                 .description(description)
                 .build();
 
-        SessionFile savedFile = sessionFileRepository.save(sessionFile);
-
-        // Update session file counts
-        updateSessionFileCounts(sessionId);
-
-        log.info("Successfully uploaded file with ID: {}", savedFile.getId());
-        return convertToDto(savedFile);
+        try {
+            return sessionFileRepository.save(sessionFile);
+        } catch (RuntimeException e) {
+            // Don't leave orphaned content behind when the metadata write fails
+            fileStorage.delete(storageKey);
+            throw e;
+        }
     }
 
     public List<SessionFileDto> getSessionFiles(String sessionId) {
@@ -104,34 +163,197 @@ public class SessionFileService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Picks the files to include in a session archive, reusing the category and uploader finders.
+     */
+    public List<SessionFile> getArchiveFiles(String sessionId, SessionFile.FileCategory category, String uploadedBy) {
+        if (!sessionRepository.existsById(sessionId)) {
+            throw new SessionNotFoundException("Session not found with ID: " + sessionId);
+        }
+
+        if (category != null) {
+            List<SessionFile> files = sessionFileRepository.findBySessionIdAndCategory(sessionId, category);
+            return uploadedBy == null ? files
+                    : files.stream().filter(f -> uploadedBy.equals(f.getUploadedBy())).collect(Collectors.toList());
+        }
+        if (uploadedBy != null) {
+            return sessionFileRepository.findBySessionIdAndUploadedBy(sessionId, uploadedBy);
+        }
+        return sessionFileRepository.findBySessionId(sessionId);
+    }
+
+    /**
+     * Streams the given files into a ZIP written to {@code out}. Each file is copied through a fixed
+     * buffer, so memory stays constant however large the archive gets. Formats that are already
+     * compressed are STORED; everything else is DEFLATED.
+     */
+    public void writeArchive(List<SessionFile> files, OutputStream out) throws IOException {
+        byte[] buffer = new byte[ARCHIVE_BUFFER_SIZE];
+        Set<String> usedNames = new HashSet<>();
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        for (SessionFile sessionFile : files) {
+            FileStorage fileStorage = fileStorages.forFile(sessionFile);
+            String storageKey = storageKeyOf(sessionFile);
+            ZipEntry entry = new ZipEntry(uniqueEntryName(sessionFile, usedNames));
+            if (sessionFile.getUploadedAt() != null) {
+                entry.setTimeLocal(sessionFile.getUploadedAt());
+            }
+
+            if (fileCompressionService.isAlreadyCompressed(sessionFile.getContentType())
+                    && sessionFile.getFileSize() != null) {
+                // STORED entries need size and CRC up front; older files without a CRC need one extra pass
+                long crc = sessionFile.getCrc32() != null ? sessionFile.getCrc32() : computeCrc(sessionFile, buffer);
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(sessionFile.getFileSize());
+                entry.setCompressedSize(sessionFile.getFileSize());
+                entry.setCrc(crc);
+            } else {
+                entry.setMethod(ZipEntry.DEFLATED);
+            }
+
+            zip.putNextEntry(entry);
+            try (InputStream in = fileCompressionService.decode(fileStorage.get(storageKey),
+                    sessionFile.getContentEncoding())) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    zip.write(buffer, 0, read);
+                }
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    public SessionFile getFile(String sessionId, String fileId) {
+        return sessionFileRepository.findById(fileId)
+                .filter(f -> sessionId.equals(f.getSessionId()))
+                .orElseThrow(() -> new SessionFileNotFoundException(
+                        "File not found with ID: " + fileId + " in session: " + sessionId));
+    }
+
+    public Optional<byte[]> getPreview(SessionFile sessionFile) throws IOException {
+        return imageDerivativeService.getPreview(sessionFile);
+    }
+
+    /**
+     * Makes sure a thumbnail is on its way for a file that has none yet.
+     *
+     * @return false when the file type has no preview at all
+     */
+    public boolean requestPreview(SessionFile sessionFile) {
+        if (!imageDerivativeService.supports(sessionFile)) {
+            return false;
+        }
+        imageDerivativeService.submit(sessionFile);
+        return true;
+    }
+
     public byte[] downloadFile(String fileId) throws IOException {
         log.info("Downloading file with ID: {}", fileId);
 
         SessionFile sessionFile = sessionFileRepository.findById(fileId)
-                .orElseThrow(() -> new RuntimeException("File not found with ID: " + fileId));
+                .orElseThrow(() -> new SessionFileNotFoundException("File not found with ID: " + fileId));
+
+        try (InputStream in = fileCompressionService.decode(
+                fileStorages.forFile(sessionFile).get(storageKeyOf(sessionFile)), sessionFile.getContentEncoding())) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Opens a streaming read of a file, honouring a single-range {@code Range} header when present.
+     * Compressed files are sent as stored when the client accepts their encoding and asked for the
+     * whole file; otherwise they are inflated on the fly.
+     */
+    public SessionFileContent openFile(String sessionId, String fileId, String rangeHeader, String acceptEncoding)
+            throws IOException {
+        log.info("Streaming file with ID: {} for session ID: {}", fileId, sessionId);
+
+        SessionFile sessionFile = getFile(sessionId, fileId);
 
-        Path filePath = Paths.get(sessionFile.getFilePath());
-        if (!Files.exists(filePath)) {
-            throw new RuntimeException("Physical file not found: " + sessionFile.getFilePath());
+        long totalSize = sessionFile.getFileSize() != null ? sessionFile.getFileSize() : 0L;
+        FileStorage fileStorage = fileStorages.forFile(sessionFile);
+        String storageKey = storageKeyOf(sessionFile);
+        String encoding = sessionFile.getContentEncoding();
+        boolean wholeFile = rangeHeader == null || rangeHeader.isBlank();
+
+        if (encoding != null && wholeFile && FileCompressionService.accepts(acceptEncoding, encoding)) {
+            long storedSize = sessionFile.getStoredSize();
+            return SessionFileContent.builder()
+                    .file(sessionFile)
+                    .stream(fileStorage.get(storageKey))
+                    .offset(0)
+                    .length(storedSize)
+                    .totalSize(storedSize)
+                    .contentEncoding(encoding)
+                    .partial(false)
+                    .build();
+        }
+
+        if (wholeFile) {
+            return SessionFileContent.builder()
+                    .file(sessionFile)
+                    .stream(fileCompressionService.decode(fileStorage.get(storageKey), encoding))
+                    .offset(0)
+                    .length(totalSize)
+                    .totalSize(totalSize)
+                    .partial(false)
+                    .build();
         }
 
-        return Files.readAllBytes(filePath);
+        long start;
+        long end;
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            if (ranges.size() != 1) {
+                throw new InvalidRangeException("Only single byte ranges are supported: " + rangeHeader);
+            }
+            start = ranges.get(0).getRangeStart(totalSize);
+            end = ranges.get(0).getRangeEnd(totalSize);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRangeException("Unsatisfiable range " + rangeHeader + " for file of " + totalSize + " bytes");
+        }
+
+        long length = end - start + 1;
+        InputStream stream;
+        if (encoding == null) {
+            stream = fileStorage.get(storageKey, start, length);
+        } else {
+            // Offsets refer to the original bytes, so compressed content has to be inflated up to the range
+            stream = fileCompressionService.decode(fileStorage.get(storageKey), encoding);
+            try {
+                stream.skipNBytes(start);
+            } catch (IOException e) {
+                stream.close();
+                throw e;
+            }
+            stream = new BoundedInputStream(stream, length);
+        }
+        return SessionFileContent.builder()
+                .file(sessionFile)
+                .stream(stream)
+                .offset(start)
+                .length(length)
+                .totalSize(totalSize)
+                .partial(true)
+                .build();
     }
 
     public void deleteFile(String fileId) throws IOException {
         log.info("Deleting file with ID: {}", fileId);
 
         SessionFile sessionFile = sessionFileRepository.findById(fileId)
-                .orElseThrow(() -> new RuntimeException("File not found with ID: " + fileId));
+                .orElseThrow(() -> new SessionFileNotFoundException("File not found with ID: " + fileId));
 
-        // Delete physical file
-        Path filePath = Paths.get(sessionFile.getFilePath());
-        if (Files.exists(filePath)) {
-            Files.delete(filePath);
-        }
+        // Delete stored content and any derived preview
+        fileStorages.forFile(sessionFile).delete(storageKeyOf(sessionFile));
+        imageDerivativeService.deletePreview(sessionFile);
 
         // Delete metadata from database
         sessionFileRepository.delete(sessionFile);
+        uploadQuotaService.release(sessionFile);
 
         // Update session file counts
         updateSessionFileCounts(sessionFile.getSessionId());
@@ -146,13 +368,54 @@ public class SessionFileService {
         boolean hasPatientFiles = allFiles.stream().anyMatch(f -> "PATIENT".equals(f.getUploadedBy()));
         boolean hasDoctorFiles = allFiles.stream().anyMatch(f -> "DOCTOR".equals(f.getUploadedBy()));
 
-        // Update session with file counts
-        sessionRepository.findById(sessionId).ifPresent(session -> {
-            session.setFileCount(totalCount);
-            session.setHasPatientFiles(hasPatientFiles);
-            session.setHasDoctorFiles(hasDoctorFiles);
-            sessionRepository.save(session);
-        });
+        // Only the count fields are written, so a concurrent status transition is never overwritten
+        UpdateResult result = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(sessionId)),
+                new Update()
+                        .set("fileCount", totalCount)
+                        .set("hasPatientFiles", hasPatientFiles)
+                        .set("hasDoctorFiles", hasDoctorFiles)
+                        .set("updatedAt", LocalDateTime.now()),
+                Session.class);
+        if (result.getMatchedCount() > 0) {
+            sessionCache.invalidate(sessionId);
+        }
+    }
+
+    private long computeCrc(SessionFile sessionFile, byte[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        FileStorage fileStorage = fileStorages.forFile(sessionFile);
+        try (InputStream in = fileCompressionService.decode(fileStorage.get(storageKeyOf(sessionFile)),
+                sessionFile.getContentEncoding())) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private String uniqueEntryName(SessionFile sessionFile, Set<String> usedNames) {
+        String name = sessionFile.getOriginalFileName() != null ? sessionFile.getOriginalFileName()
+                : sessionFile.getFileName();
+        // Never let client-supplied names create directories or escape the archive root
+        name = name.replace('\\', '_').replace('/', '_');
+        if (name.isBlank() || name.startsWith(".")) {
+            name = sessionFile.getFileName();
+        }
+
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int n = 1; !usedNames.add(candidate); n++) {
+            candidate = base + " (" + n + ")" + extension;
+        }
+        return candidate;
+    }
+
+    private String storageKeyOf(SessionFile sessionFile) {
+        // Files uploaded before storage backends existed only carry their absolute disk path
+        return sessionFile.getStorageKey() != null ? sessionFile.getStorageKey() : sessionFile.getFilePath();
     }
 
     private SessionFileDto convertToDto(SessionFile sessionFile) {
@@ -169,6 +432,7 @@ public class SessionFileService {
                 .uploadedById(sessionFile.getUploadedById())
                 .description(sessionFile.getDescription())
                 .uploadedAt(sessionFile.getUploadedAt())
+                .previewAvailable(sessionFile.getThumbnailKey() != null)
                 .build();
     }
 }
@@ -0,0 +1,129 @@
+package com.session.service;
+
+import com.session.dto.SessionMessageDto;
+import com.session.dto.SessionMessageRequestDto;
+import com.session.entity.SessionMessage;
+import com.session.exception.SessionNotFoundException;
+import com.session.sse.SseBroadcaster;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-session chat. Messages are appended through {@link SessionMessageWriter}, read back in pages by {@code seq}
+ * and pushed live to participants subscribed on this replica.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SessionMessageService {
+
+    static final String MESSAGE_EVENT = "message";
+
+    private final SessionMessageWriter sessionMessageWriter;
+    private final SessionCache sessionCache;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.messages.sse-timeout:30m}")
+    private Duration sseTimeout;
+
+    private SseBroadcaster broadcaster;
+    private ExecutorService broadcastExecutor;
+
+    @PostConstruct
+    void init() {
+        broadcaster = new SseBroadcaster("session-messages", sseTimeout, meterRegistry);
+        // One thread: fan-outs run in the order commits complete and slow subscribers never hold up the writer
+        broadcastExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("session-messages-sse-"));
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        broadcastExecutor.shutdown();
+        broadcastExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @return completes once the message is committed; the push to live subscribers follows on its own thread
+     * @throws SessionNotFoundException if the session does not exist
+     */
+    public CompletableFuture<SessionMessageDto> append(String sessionId, SessionMessageRequestDto request) {
+        if (sessionCache.getById(sessionId).isEmpty()) {
+            throw new SessionNotFoundException("Session not found with ID: " + sessionId);
+        }
+        SessionMessage message = SessionMessage.builder()
+                .sessionId(sessionId)
+                .senderId(request.getSenderId())
+                .senderRole(request.getSenderRole())
+                .body(request.getBody())
+                .createdAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS))
+                .build();
+        CompletableFuture<SessionMessageDto> committed = sessionMessageWriter.append(message).thenApply(this::toDto);
+        committed.thenAcceptAsync(dto -> broadcaster.send(sessionId, MESSAGE_EVENT, String.valueOf(dto.getSeq()), dto),
+                broadcastExecutor);
+        return committed;
+    }
+
+    /**
+     * One page of messages with {@code seq > afterSeq}, in sequence order; an index range scan on (sessionId, seq).
+     */
+    public List<SessionMessageDto> getMessages(String sessionId, long afterSeq, int limit) {
+        Query query = Query.query(Criteria.where("sessionId").is(sessionId).and("seq").gt(afterSeq))
+                .with(Sort.by(Sort.Direction.ASC, "seq"))
+                .limit(clampLimit(limit));
+        return mongoTemplate.find(query, SessionMessage.class).stream().map(this::toDto).toList();
+    }
+
+    /**
+     * Subscribes to live messages, first replaying up to one page after {@code lastSeq} when given. A message
+     * committed during the replay can arrive twice; clients de-duplicate by event ID ({@code seq}).
+     */
+    public SseEmitter subscribe(String sessionId, Long lastSeq) {
+        if (sessionCache.getById(sessionId).isEmpty()) {
+            throw new SessionNotFoundException("Session not found with ID: " + sessionId);
+        }
+        SseEmitter emitter = broadcaster.subscribe(sessionId);
+        if (lastSeq != null) {
+            for (SessionMessageDto message : getMessages(sessionId, lastSeq, KeysetPagination.MAX_LIMIT)) {
+                broadcaster.send(sessionId, emitter, MESSAGE_EVENT, String.valueOf(message.getSeq()), message);
+            }
+        }
+        return emitter;
+    }
+
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, KeysetPagination.MAX_LIMIT));
+    }
+
+    private SessionMessageDto toDto(SessionMessage message) {
+        return SessionMessageDto.builder()
+                .id(message.getId())
+                .sessionId(message.getSessionId())
+                .seq(message.getSeq())
+                .senderId(message.getSenderId())
+                .senderRole(message.getSenderRole())
+                .body(message.getBody())
+                .createdAt(message.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.session.service;
+
+import com.session.entity.SessionMessage;
+import com.session.exception.MessageBacklogFullException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer group commit for session messages. Appenders enqueue and wait on a future; one thread drains
+ * whatever has queued up (at most {@code max-batch}), reserves a sequence range per session with one {@code $inc},
+ * and writes the whole batch with one insertMany. Under load a commit costs one round trip per distinct session plus
+ * one, however many messages it carries.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+class SessionMessageWriter {
+
+    static final String SEQUENCES_COLLECTION = "session_message_sequences";
+
+    private static final FindAndModifyOptions UPSERT_RETURN_NEW = FindAndModifyOptions.options()
+            .upsert(true)
+            .returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.messages.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.messages.max-batch:500}")
+    private int maxBatch;
+
+    @Value("${app.messages.linger:0ms}")
+    private Duration linger;
+
+    private BlockingQueue<Pending> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private DistributionSummary batchSizes;
+    private Timer commitTimer;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        batchSizes = DistributionSummary.builder("session.messages.batch.size")
+                .description("Messages written per group commit")
+                .register(meterRegistry);
+        commitTimer = Timer.builder("session.messages.commit")
+                .description("Time to reserve sequences and insert one batch")
+                .register(meterRegistry);
+        Gauge.builder("session.messages.queue.depth", this, writer -> writer.queue.size())
+                .description("Messages waiting for the writer")
+                .register(meterRegistry);
+
+        running = true;
+        writerThread = new Thread(this::run, "session-messages-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * @return completes with the stored message (seq and id assigned) once its batch is committed
+     * @throws MessageBacklogFullException when the queue is full; callers should back off
+     */
+    CompletableFuture<SessionMessage> append(SessionMessage message) {
+        Pending pending = new Pending(message, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new MessageBacklogFullException("Message queue is full");
+        }
+        return pending.future;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - batch.size());
+                // Messages arriving while the previous commit ran are already queued; linger only helps when idle
+                long deadline = System.nanoTime() + linger.toNanos();
+                while (batch.size() < maxBatch && System.nanoTime() < deadline) {
+                    Pending next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        try {
+            commitTimer.record(() -> {
+                Map<String, List<SessionMessage>> bySession = new LinkedHashMap<>();
+                for (Pending pending : batch) {
+                    bySession.computeIfAbsent(pending.message.getSessionId(), id -> new ArrayList<>())
+                            .add(pending.message);
+                }
+                bySession.forEach(this::assignSequences);
+
+                List<SessionMessage> messages = new ArrayList<>(batch.size());
+                batch.forEach(pending -> messages.add(pending.message));
+                mongoTemplate.insert(messages, SessionMessage.class);
+            });
+            batchSizes.record(batch.size());
+            batch.forEach(pending -> pending.future.complete(pending.message));
+        } catch (RuntimeException e) {
+            // Sequences already reserved are skipped; readers page by seq and tolerate gaps
+            log.error("Failed to commit {} session messages: {}", batch.size(), e.getMessage(), e);
+            batch.forEach(pending -> pending.future.completeExceptionally(e));
+        }
+    }
+
+    private void assignSequences(String sessionId, List<SessionMessage> messages) {
+        Document counter = mongoTemplate.findAndModify(Query.query(Criteria.where("_id").is(sessionId)),
+                new Update().inc("seq", (long) messages.size()), UPSERT_RETURN_NEW, Document.class,
+                SEQUENCES_COLLECTION);
+        long seq = counter.get("seq", Number.class).longValue() - messages.size();
+        for (SessionMessage message : messages) {
+            message.setSeq(++seq);
+        }
+    }
+
+    @lombok.Value
+    private static class Pending {
+        SessionMessage message;
+        CompletableFuture<SessionMessage> future;
+    }
+}
@@ -1,8 +1,11 @@
 package com.session.service;
 
+import com.session.config.MongoConfig;
+import com.session.dto.CursorPage;
 import com.session.dto.SessionRequestDto;
 import com.session.dto.SessionResponseDto;
 import com.session.entity.Session;
+import com.session.event.SessionCreatedEvent;
 import com.session.event.SessionStartedEvent;
 import com.session.exception.SessionNotFoundException;
 import com.session.kafka.SessionEventProducer;
@@ -10,12 +13,18 @@ import com.session.mapper.SessionMapper;
 import com.session.repository.SessionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +35,12 @@ public class SessionService {
     private final SessionEventProducer sessionEventProducer;
     private final SessionMapper sessionMapper;
     private final AppointmentMappingService appointmentMappingService;
+    private final SessionStateMachine sessionStateMachine;
+    private final SessionCache sessionCache;
+    @Qualifier(MongoConfig.SECONDARY_TEMPLATE)
+    private final MongoTemplate secondaryMongoTemplate;
+    private final StatusCounterService statusCounterService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public SessionResponseDto createSession(SessionRequestDto requestDto) {
         log.info("Creating new session for appointment ID: {}", requestDto.getAppointmentId());
@@ -57,6 +72,8 @@ public class SessionService {
 
         // Save session
         Session savedSession = sessionRepository.save(session);
+        statusCounterService.recordInsert(StatusCounterService.SESSIONS, savedSession.getStatus(), 1);
+        eventPublisher.publishEvent(new SessionCreatedEvent(savedSession.getId(), savedSession.getScheduledTime()));
         log.info("Session created successfully with ID: {}", savedSession.getId());
 
         // Update appointment mapping status to SESSION_READY
@@ -69,71 +86,73 @@ public class SessionService {
 
     public SessionResponseDto startSession(String sessionId) {
         log.info("Starting session with ID: {}", sessionId);
+        return transition(sessionId, SessionStateMachine.Transition.START);
+    }
 
-        Session session = sessionRepository.findById(sessionId)
-                .orElseThrow(() -> new SessionNotFoundException("Session not found with ID: " + sessionId));
-
-        if (session.getStatus() != Session.SessionStatus.SCHEDULED) {
-            throw new IllegalStateException("Session cannot be started. Current status: " + session.getStatus());
+    public SessionResponseDto transition(String sessionId, SessionStateMachine.Transition transition) {
+        // Conditional on the current status; throws for every caller except the one that won
+        Session updatedSession = sessionStateMachine.transition(sessionId, transition);
+
+        if (transition == SessionStateMachine.Transition.START) {
+            SessionStartedEvent event = SessionStartedEvent.builder()
+                    .sessionId(updatedSession.getId())
+                    .appointmentId(updatedSession.getAppointmentId())
+                    .patientId(updatedSession.getPatientId())
+                    .doctorId(updatedSession.getDoctorId())
+                    .sessionUrl(updatedSession.getSessionUrl())
+                    .startTime(updatedSession.getStartTime())
+                    .scheduledTime(updatedSession.getScheduledTime())
+                    .build();
+
+            sessionEventProducer.publishSessionStartedEvent(event);
         }
 
-        // Update session status and start time
-        session.setStatus(Session.SessionStatus.STARTED);
-        session.setStartTime(LocalDateTime.now());
-
-        Session updatedSession = sessionRepository.save(session);
-        log.info("Session started successfully with ID: {}", updatedSession.getId());
-
-        // Publish session started event
-        SessionStartedEvent event = SessionStartedEvent.builder()
-                .sessionId(updatedSession.getId())
-                .appointmentId(updatedSession.getAppointmentId())
-                .patientId(updatedSession.getPatientId())
-                .doctorId(updatedSession.getDoctorId())
-                .sessionUrl(updatedSession.getSessionUrl())
-                .startTime(updatedSession.getStartTime())
-                .scheduledTime(updatedSession.getScheduledTime())
-                .build();
-
-        sessionEventProducer.publishSessionStartedEvent(event);
-
         return sessionMapper.toResponseDto(updatedSession);
     }
 
     public SessionResponseDto getSessionById(String id) {
         log.info("Fetching session with ID: {}", id);
 
-        Session session = sessionRepository.findById(id)
+        Session session = sessionCache.getById(id)
                 .orElseThrow(() -> new SessionNotFoundException("Session not found with ID: " + id));
 
         return sessionMapper.toResponseDto(session);
     }
 
-    public List<SessionResponseDto> getSessionsByPatientId(Long patientId) {
-        log.info("Fetching sessions for patient ID: {}", patientId);
-
-        List<Session> sessions = sessionRepository.findByPatientId(patientId);
-        return sessions.stream()
-                .map(sessionMapper::toResponseDto)
-                .collect(Collectors.toList());
+    public java.util.Map<String, Long> getSessionCountsByStatus() {
+        log.info("Fetching session counts by status");
+        return statusCounterService.getCounts(StatusCounterService.SESSIONS);
     }
 
-    public List<SessionResponseDto> getSessionsByDoctorId(Long doctorId) {
-        log.info("Fetching sessions for doctor ID: {}", doctorId);
+    public CursorPage<SessionResponseDto> getSessionsPage(Long patientId, Long doctorId, String after, int limit) {
+        log.info("Fetching sessions page - patientId: {}, doctorId: {}, after: {}, limit: {}",
+                patientId, doctorId, after, limit);
 
-        List<Session> sessions = sessionRepository.findByDoctorId(doctorId);
-        return sessions.stream()
-                .map(sessionMapper::toResponseDto)
-                .collect(Collectors.toList());
+        List<Session> sessions = secondaryMongoTemplate.find(
+                KeysetPagination.pageQuery(sessionFilter(patientId, doctorId), after, limit), Session.class);
+        return new CursorPage<>(
+                sessions.stream().map(sessionMapper::toResponseDto).collect(Collectors.toList()),
+                KeysetPagination.nextCursor(sessions, limit, Session::getId));
     }
 
-    public List<SessionResponseDto> getAllSessions() {
-        log.info("Fetching all sessions");
+    /**
+     * Streams matching sessions from a Mongo cursor; the caller must close the stream.
+     */
+    public Stream<SessionResponseDto> streamSessions(Long patientId, Long doctorId) {
+        log.info("Streaming sessions - patientId: {}, doctorId: {}", patientId, doctorId);
+        return secondaryMongoTemplate.stream(KeysetPagination.streamQuery(sessionFilter(patientId, doctorId)), Session.class)
+                .map(sessionMapper::toResponseDto);
+    }
 
-        List<Session> sessions = sessionRepository.findAll();
-        return sessions.stream()
-                .map(sessionMapper::toResponseDto)
-                .collect(Collectors.toList());
+    private static Criteria sessionFilter(Long patientId, Long doctorId) {
+        Criteria criteria = new Criteria();
+        if (patientId != null) {
+            criteria.and("patientId").is(patientId);
+        }
+        if (doctorId != null) {
+            criteria.and("doctorId").is(doctorId);
+        }
+        return criteria;
     }
 
     public SessionResponseDto createSessionFromAppointment(Long appointmentId, Long patientId, Long doctorId,
@@ -141,9 +160,10 @@ public class SessionService {
         log.info("Creating session from appointment booking - Appointment ID: {}", appointmentId);
 
         // Check if session already exists for this appointment
-        if (sessionRepository.findByAppointmentId(appointmentId).isPresent()) {
+        Optional<Session> existing = sessionCache.getByAppointmentId(appointmentId);
+        if (existing.isPresent()) {
             log.info("Session already exists for appointment ID: {}, skipping creation", appointmentId);
-            return sessionMapper.toResponseDto(sessionRepository.findByAppointmentId(appointmentId).get());
+            return sessionMapper.toResponseDto(existing.get());
         }
 
         SessionRequestDto requestDto = SessionRequestDto.builder()
@@ -157,7 +177,7 @@ public class SessionService {
         return createSession(requestDto);
     }
 
-    private String generateSessionUrl() {
+    static String generateSessionUrl() {
         // In a real implementation, this would integrate with a video conferencing
         // service
         // like Zoom, Teams, WebRTC, etc.
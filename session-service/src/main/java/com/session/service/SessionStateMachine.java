@@ -0,0 +1,161 @@
+package com.session.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.session.entity.Session;
+import com.session.entity.Session.SessionStatus;
+import com.session.event.SessionTransitionedEvent;
+import com.session.exception.InvalidSessionTransitionException;
+import com.session.exception.SessionNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Applies session status transitions as a single conditional findAndModify on {@code _id} and the allowed source
+ * statuses. Of several concurrent callers exactly one matches the document; the others get
+ * {@link InvalidSessionTransitionException}. {@link SessionTransitionedEvent} is published only by the winner.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SessionStateMachine {
+
+    private static final FindAndModifyOptions RETURN_OLD = FindAndModifyOptions.options().returnNew(false);
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public enum Transition {
+        START(EnumSet.of(SessionStatus.SCHEDULED), SessionStatus.STARTED, "startTime"),
+        MARK_IN_PROGRESS(EnumSet.of(SessionStatus.STARTED), SessionStatus.IN_PROGRESS, null),
+        COMPLETE(EnumSet.of(SessionStatus.STARTED, SessionStatus.IN_PROGRESS), SessionStatus.COMPLETED, "endTime"),
+        CANCEL(EnumSet.of(SessionStatus.SCHEDULED, SessionStatus.STARTED), SessionStatus.CANCELLED, "endTime"),
+        NO_SHOW(EnumSet.of(SessionStatus.SCHEDULED, SessionStatus.STARTED), SessionStatus.NO_SHOW, "endTime");
+
+        private final Set<SessionStatus> from;
+        private final SessionStatus to;
+        private final String timestampField;
+
+        Transition(Set<SessionStatus> from, SessionStatus to, String timestampField) {
+            this.from = from;
+            this.to = to;
+            this.timestampField = timestampField;
+        }
+
+        public Set<SessionStatus> getFrom() {
+            return from;
+        }
+
+        public SessionStatus getTo() {
+            return to;
+        }
+    }
+
+    /**
+     * @return the session as written by this transition, without a second read
+     * @throws SessionNotFoundException         if the session does not exist
+     * @throws InvalidSessionTransitionException if the session is not in a source status, including when a
+     *                                          concurrent caller won the same transition
+     */
+    public Session transition(String sessionId, Transition transition) {
+        // Mongo keeps millisecond precision; truncate so the returned document matches what was stored
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        Query query = Query.query(Criteria.where("_id").is(sessionId).and("status").in(transition.from));
+        Update update = new Update()
+                .set("status", transition.to)
+                .set("updatedAt", now);
+        if (transition.timestampField != null) {
+            update.set(transition.timestampField, now);
+        }
+
+        // The pre-image tells listeners which status was left; the update is then applied locally
+        Session session = mongoTemplate.findAndModify(query, update, RETURN_OLD, Session.class);
+        if (session == null) {
+            throw rejected(sessionId, transition);
+        }
+        SessionStatus previousStatus = session.getStatus();
+        session.setStatus(transition.to);
+        session.setUpdatedAt(now);
+        if ("startTime".equals(transition.timestampField)) {
+            session.setStartTime(now);
+        } else if ("endTime".equals(transition.timestampField)) {
+            session.setEndTime(now);
+        }
+
+        log.info("Session {} transitioned {} -> {} ({})", sessionId, previousStatus, transition.to, transition);
+        eventPublisher.publishEvent(new SessionTransitionedEvent(session, previousStatus, transition));
+        return session;
+    }
+
+    /**
+     * Applies one transition to many sessions with a conditional updateMulti per source status, publishing
+     * {@link SessionTransitionedEvent} for each session that was actually moved. Sessions that were already
+     * elsewhere, or that a concurrent caller moved first, are skipped.
+     * <p>
+     * Each update also writes a {@code transitionId} unique to this call, and winners are read back by it, so two
+     * replicas applying the same deadlines in the same millisecond never both claim a session.
+     *
+     * @return the sessions this call moved
+     */
+    public List<Session> transitionAll(Collection<String> sessionIds, Transition transition) {
+        List<Session> moved = new ArrayList<>();
+        Set<String> remaining = new HashSet<>(sessionIds);
+        for (SessionStatus from : transition.from) {
+            if (remaining.isEmpty()) {
+                break;
+            }
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            String transitionId = UUID.randomUUID().toString();
+            Update update = new Update()
+                    .set("status", transition.to)
+                    .set("updatedAt", now)
+                    .set("transitionId", transitionId);
+            if (transition.timestampField != null) {
+                update.set(transition.timestampField, now);
+            }
+            UpdateResult result = mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("_id").in(remaining).and("status").is(from)), update, Session.class);
+            if (result.getModifiedCount() == 0) {
+                continue;
+            }
+
+            List<Session> winners = mongoTemplate.find(Query.query(Criteria.where("_id").in(remaining)
+                    .and("transitionId").is(transitionId)), Session.class);
+            for (Session session : winners) {
+                remaining.remove(session.getId());
+                moved.add(session);
+                eventPublisher.publishEvent(new SessionTransitionedEvent(session, from, transition));
+            }
+            log.info("Batch {}: {} sessions moved {} -> {}", transition, winners.size(), from, transition.to);
+        }
+        return moved;
+    }
+
+    private RuntimeException rejected(String sessionId, Transition transition) {
+        // Only the losing path reads the document again, to tell a missing session from a wrong status
+        Query statusOnly = Query.query(Criteria.where("_id").is(sessionId));
+        statusOnly.fields().include("status");
+        Session current = mongoTemplate.findOne(statusOnly, Session.class);
+        if (current == null) {
+            return new SessionNotFoundException("Session not found with ID: " + sessionId);
+        }
+        return new InvalidSessionTransitionException("Session " + sessionId + " cannot " + transition
+                + " from status " + current.getStatus() + "; allowed from " + transition.from);
+    }
+}
@@ -0,0 +1,110 @@
+package com.session.service;
+
+import com.session.entity.AppointmentMapping;
+import com.session.entity.Session;
+import com.session.entity.StatusCounters;
+import com.session.event.SessionTransitionedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains per-status counts for sessions and appointment mappings in {@code status_counters}.
+ * <p>
+ * Every insert and status change applies a single atomic $inc, so reads are one document lookup instead of a
+ * collection scan. A scheduled $group aggregation overwrites the counters to repair drift, e.g. from writes that
+ * bypass this service or from bulk upserts whose previous status is unknown.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatusCounterService {
+
+    public static final String SESSIONS = "sessions";
+    public static final String APPOINTMENT_MAPPINGS = "appointment_mappings";
+
+    private final MongoTemplate mongoTemplate;
+
+    public void recordInsert(String counterId, Enum<?> status, long count) {
+        if (count > 0) {
+            inc(counterId, new Update().inc(field(status), count));
+        }
+    }
+
+    public void recordTransition(String counterId, Enum<?> from, Enum<?> to) {
+        if (from == to) {
+            return;
+        }
+        Update update = new Update().inc(field(to), 1);
+        if (from != null) {
+            update.inc(field(from), -1);
+        }
+        inc(counterId, update);
+    }
+
+    @EventListener
+    public void onSessionTransitioned(SessionTransitionedEvent event) {
+        recordTransition(SESSIONS, event.getPreviousStatus(), event.getSession().getStatus());
+    }
+
+    public Map<String, Long> getCounts(String counterId) {
+        StatusCounters counters = mongoTemplate.findById(counterId, StatusCounters.class);
+        if (counters == null || counters.getReconciledAt() == null) {
+            // Counters have never been seeded from the collection; do it now
+            return reconcile(counterId);
+        }
+        return new TreeMap<>(counters.getCounts());
+    }
+
+    @Scheduled(fixedDelayString = "${app.counters.reconcile-interval:300000}",
+            initialDelayString = "${app.counters.reconcile-initial-delay:30000}")
+    public void reconcileAll() {
+        reconcile(SESSIONS);
+        reconcile(APPOINTMENT_MAPPINGS);
+    }
+
+    public Map<String, Long> reconcile(String counterId) {
+        Class<?> entityClass = SESSIONS.equals(counterId) ? Session.class : AppointmentMapping.class;
+        Aggregation byStatus = Aggregation.newAggregation(Aggregation.group("status").count().as("count"));
+
+        Map<String, Long> counts = new TreeMap<>();
+        for (Document group : mongoTemplate.aggregate(byStatus, entityClass, Document.class)) {
+            Object status = group.get("_id");
+            if (status != null) {
+                counts.put(status.toString(), ((Number) group.get("count")).longValue());
+            }
+        }
+
+        // $inc calls landing between the aggregation and this write are lost until the next run
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(counterId)),
+                new Update().set("counts", counts).set("reconciledAt", LocalDateTime.now()),
+                StatusCounters.class);
+        log.debug("Reconciled {} status counters: {}", counterId, counts);
+        return counts;
+    }
+
+    private void inc(String counterId, Update update) {
+        try {
+            mongoTemplate.upsert(Query.query(Criteria.where("_id").is(counterId)), update, StatusCounters.class);
+        } catch (Exception e) {
+            // Counters are advisory; reconciliation repairs a missed increment
+            log.warn("Failed to update {} status counters: {}", counterId, e.getMessage());
+        }
+    }
+
+    private static String field(Enum<?> status) {
+        return "counts." + status.name();
+    }
+}
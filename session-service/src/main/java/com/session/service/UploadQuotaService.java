@@ -0,0 +1,186 @@
+package com.session.service;
+
+import com.session.entity.SessionFile;
+import com.session.entity.UploadUsage;
+import com.session.exception.QuotaExceededException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Per-session and per-uploader byte and file-count quotas for session uploads.
+ * <p>
+ * An upload reserves its size against both scopes before any content is written. Each reservation is one
+ * conditional upsert: the filter only matches while the scope still has room, so when it is full the upsert
+ * collides with the existing document on {@code _id} and nothing changes. A failed upload releases what it
+ * reserved; deleting a file releases its share. A scheduled aggregation over {@code session_files} repairs drift,
+ * e.g. from a pod dying between reserving and releasing.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UploadQuotaService {
+
+    static final String SESSION_SCOPE = "session:";
+    static final String UPLOADER_SCOPE = "uploader:";
+
+    private static final FindAndModifyOptions UPSERT = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.upload-quotas.session.max-bytes:500MB}")
+    private DataSize sessionMaxBytes;
+
+    @Value("${app.upload-quotas.session.max-files:100}")
+    private long sessionMaxFiles;
+
+    @Value("${app.upload-quotas.uploader.max-bytes:2GB}")
+    private DataSize uploaderMaxBytes;
+
+    @Value("${app.upload-quotas.uploader.max-files:1000}")
+    private long uploaderMaxFiles;
+
+    /**
+     * Reserves one file of {@code bytes} against the session and the uploader.
+     *
+     * @throws QuotaExceededException if either scope would go over its limit; nothing stays reserved
+     */
+    public Reservation reserve(String sessionId, String uploadedBy, Long uploadedById, long bytes) {
+        String sessionScope = sessionScope(sessionId);
+        String uploaderScope = uploaderScope(uploadedBy, uploadedById);
+
+        reserve(sessionScope, bytes, sessionMaxBytes.toBytes(), sessionMaxFiles);
+        try {
+            reserve(uploaderScope, bytes, uploaderMaxBytes.toBytes(), uploaderMaxFiles);
+        } catch (QuotaExceededException e) {
+            inc(sessionScope, -bytes, -1);
+            throw e;
+        }
+        return new Reservation(sessionScope, uploaderScope, bytes);
+    }
+
+    public void release(Reservation reservation) {
+        inc(reservation.getSessionScope(), -reservation.getBytes(), -1);
+        inc(reservation.getUploaderScope(), -reservation.getBytes(), -1);
+    }
+
+    public void release(SessionFile file) {
+        long bytes = file.getFileSize() != null ? file.getFileSize() : 0;
+        release(new Reservation(sessionScope(file.getSessionId()),
+                uploaderScope(file.getUploadedBy(), file.getUploadedById()), bytes));
+    }
+
+    public List<UploadUsage> getTopUsage(int limit) {
+        return mongoTemplate.find(new Query().with(Sort.by(Sort.Direction.DESC, "bytes")).limit(limit),
+                UploadUsage.class);
+    }
+
+    public UploadUsage getUsage(String scopeId) {
+        UploadUsage usage = mongoTemplate.findById(scopeId, UploadUsage.class);
+        return usage != null ? usage : new UploadUsage(scopeId, 0, 0, null);
+    }
+
+    public Limits getLimits() {
+        return new Limits(sessionMaxBytes.toBytes(), sessionMaxFiles, uploaderMaxBytes.toBytes(), uploaderMaxFiles);
+    }
+
+    /**
+     * Overwrites every scope with the totals of the files actually stored, and zeroes scopes that have none.
+     * Uploads in flight while this runs are briefly under-counted.
+     */
+    @Scheduled(initialDelayString = "${app.upload-quotas.reconcile-interval:3600000}",
+            fixedDelayString = "${app.upload-quotas.reconcile-interval:3600000}")
+    public void reconcile() {
+        LocalDateTime now = LocalDateTime.now();
+        int scopes = 0;
+
+        Aggregation bySession = Aggregation.newAggregation(
+                Aggregation.group("sessionId").sum("fileSize").as("bytes").count().as("files"));
+        for (Document total : mongoTemplate.aggregate(bySession, SessionFile.class, Document.class)) {
+            overwrite(sessionScope(total.getString("_id")), total, now);
+            scopes++;
+        }
+
+        Aggregation byUploader = Aggregation.newAggregation(
+                Aggregation.group("uploadedBy", "uploadedById").sum("fileSize").as("bytes").count().as("files"));
+        for (Document total : mongoTemplate.aggregate(byUploader, SessionFile.class, Document.class)) {
+            Document id = total.get("_id", Document.class);
+            overwrite(uploaderScope(id.getString("uploadedBy"), id.get("uploadedById", Number.class) != null
+                    ? id.get("uploadedById", Number.class).longValue() : null), total, now);
+            scopes++;
+        }
+
+        mongoTemplate.updateMulti(Query.query(new Criteria().orOperator(
+                        Criteria.where("reconciledAt").lt(now), Criteria.where("reconciledAt").exists(false))),
+                new Update().set("bytes", 0L).set("files", 0L).set("reconciledAt", now), UploadUsage.class);
+        log.info("Reconciled upload usage for {} scopes", scopes);
+    }
+
+    private void reserve(String scopeId, long bytes, long maxBytes, long maxFiles) {
+        if (bytes > maxBytes) {
+            throw new QuotaExceededException("File of " + bytes + " bytes exceeds the " + maxBytes
+                    + " byte quota of " + scopeId);
+        }
+        Query hasRoom = Query.query(Criteria.where("_id").is(scopeId)
+                .and("bytes").lte(maxBytes - bytes)
+                .and("files").lte(maxFiles - 1));
+        try {
+            mongoTemplate.findAndModify(hasRoom, new Update().inc("bytes", bytes).inc("files", 1), UPSERT,
+                    UploadUsage.class);
+        } catch (DuplicateKeyException e) {
+            // The scope exists but the filter did not match: it has no room left
+            throw new QuotaExceededException("Upload quota of " + scopeId + " exceeded (limit " + maxBytes
+                    + " bytes, " + maxFiles + " files)");
+        }
+    }
+
+    private void inc(String scopeId, long bytes, long files) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(scopeId)),
+                new Update().inc("bytes", bytes).inc("files", files), UploadUsage.class);
+    }
+
+    private void overwrite(String scopeId, Document total, LocalDateTime now) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(scopeId)), new Update()
+                .set("bytes", total.get("bytes", Number.class).longValue())
+                .set("files", total.get("files", Number.class).longValue())
+                .set("reconciledAt", now), UploadUsage.class);
+    }
+
+    static String sessionScope(String sessionId) {
+        return SESSION_SCOPE + sessionId;
+    }
+
+    static String uploaderScope(String uploadedBy, Long uploadedById) {
+        return UPLOADER_SCOPE + uploadedBy + ":" + uploadedById;
+    }
+
+    @lombok.Value
+    public static class Reservation {
+        String sessionScope;
+        String uploaderScope;
+        long bytes;
+    }
+
+    @lombok.Value
+    public static class Limits {
+        long sessionMaxBytes;
+        long sessionMaxFiles;
+        long uploaderMaxBytes;
+        long uploaderMaxFiles;
+    }
+}
@@ -0,0 +1,174 @@
+package com.session.service;
+
+import com.session.dto.WaitingRoomEntryDto;
+import com.session.entity.Session;
+import com.session.event.SessionTransitionedEvent;
+import com.session.exception.InvalidSessionTransitionException;
+import com.session.exception.SessionNotFoundException;
+import com.session.sse.SseBroadcaster;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory virtual waiting room per doctor. Patients of SCHEDULED sessions send heartbeats; a doctor sees who is
+ * waiting and gets {@code joined} / {@code left} events over SSE. Rooms are separate concurrent maps keyed by
+ * doctorId, so heartbeats for different doctors never contend, and a repeat heartbeat is a single volatile write.
+ * Nothing is written to MongoDB. Presence that misses heartbeats for {@code heartbeat-ttl} is expired by a sweep.
+ * State is per replica; route a doctor's patients and SSE stream to the same one.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WaitingRoomService {
+
+    static final String JOINED_EVENT = "joined";
+    static final String LEFT_EVENT = "left";
+    static final String SNAPSHOT_EVENT = "snapshot";
+
+    private final SessionCache sessionCache;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.waiting-room.heartbeat-ttl:30s}")
+    private Duration heartbeatTtl;
+
+    @Value("${app.waiting-room.sse-timeout:30m}")
+    private Duration sseTimeout;
+
+    private final Map<Long, Map<String, Presence>> rooms = new ConcurrentHashMap<>();
+    private SseBroadcaster broadcaster;
+
+    @PostConstruct
+    void init() {
+        broadcaster = new SseBroadcaster("waiting-room", sseTimeout, meterRegistry);
+        Gauge.builder("waiting.room.patients", rooms, r -> r.values().stream().mapToInt(Map::size).sum())
+                .description("Patients currently present in a waiting room")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a heartbeat for the patient of a session, joining the doctor's waiting room on the first one.
+     *
+     * @throws SessionNotFoundException          if the session does not exist
+     * @throws InvalidSessionTransitionException if the session is no longer SCHEDULED
+     */
+    public WaitingRoomEntryDto heartbeat(String sessionId) {
+        Session session = sessionCache.getById(sessionId)
+                .orElseThrow(() -> new SessionNotFoundException("Session not found with ID: " + sessionId));
+        if (session.getStatus() != Session.SessionStatus.SCHEDULED) {
+            throw new InvalidSessionTransitionException("Session " + sessionId + " is " + session.getStatus()
+                    + "; the waiting room is only open for SCHEDULED sessions");
+        }
+
+        Map<String, Presence> room = rooms.computeIfAbsent(session.getDoctorId(), id -> new ConcurrentHashMap<>());
+        Instant now = Instant.now();
+        Presence presence = room.get(sessionId);
+        if (presence != null) {
+            presence.lastSeen = now;
+            return presence.toDto();
+        }
+
+        Presence joined = new Presence(sessionId, session.getPatientId(), session.getScheduledTime(), now);
+        Presence raced = room.putIfAbsent(sessionId, joined);
+        if (raced != null) {
+            raced.lastSeen = now;
+            return raced.toDto();
+        }
+        log.debug("Patient {} joined waiting room of doctor {} for session {}", session.getPatientId(),
+                session.getDoctorId(), sessionId);
+        WaitingRoomEntryDto dto = joined.toDto();
+        broadcaster.send(String.valueOf(session.getDoctorId()), JOINED_EVENT, null, dto);
+        return dto;
+    }
+
+    public void leave(String sessionId) {
+        sessionCache.getById(sessionId).ifPresent(session -> remove(session.getDoctorId(), sessionId));
+    }
+
+    public List<WaitingRoomEntryDto> getWaitingRoom(Long doctorId) {
+        Map<String, Presence> room = rooms.get(doctorId);
+        if (room == null) {
+            return List.of();
+        }
+        return room.values().stream()
+                .map(Presence::toDto)
+                .sorted(Comparator.comparing(WaitingRoomEntryDto::getScheduledTime,
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    /**
+     * Opens the doctor's live stream, starting with a snapshot of who is waiting now.
+     */
+    public SseEmitter subscribe(Long doctorId) {
+        String key = String.valueOf(doctorId);
+        SseEmitter emitter = broadcaster.subscribe(key);
+        broadcaster.send(key, emitter, SNAPSHOT_EVENT, null, getWaitingRoom(doctorId));
+        return emitter;
+    }
+
+    /**
+     * A session that starts, or ends before starting, takes its patient out of the waiting room.
+     */
+    @EventListener
+    public void onSessionTransitioned(SessionTransitionedEvent event) {
+        Session session = event.getSession();
+        if (session.getStatus() != Session.SessionStatus.SCHEDULED) {
+            remove(session.getDoctorId(), session.getId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.waiting-room.sweep-interval:5000}")
+    public void expireStale() {
+        Instant cutoff = Instant.now().minus(heartbeatTtl);
+        rooms.forEach((doctorId, room) -> room.values().forEach(presence -> {
+            if (presence.lastSeen.isBefore(cutoff) && room.remove(presence.sessionId, presence)) {
+                log.debug("Expired waiting room presence for session {}", presence.sessionId);
+                broadcaster.send(String.valueOf(doctorId), LEFT_EVENT, null, presence.toDto());
+            }
+        }));
+    }
+
+    private void remove(Long doctorId, String sessionId) {
+        Map<String, Presence> room = doctorId != null ? rooms.get(doctorId) : null;
+        Presence removed = room != null ? room.remove(sessionId) : null;
+        if (removed != null) {
+            broadcaster.send(String.valueOf(doctorId), LEFT_EVENT, null, removed.toDto());
+        }
+    }
+
+    private static final class Presence {
+        private final String sessionId;
+        private final Long patientId;
+        private final LocalDateTime scheduledTime;
+        private final Instant joinedAt;
+        private volatile Instant lastSeen;
+
+        private Presence(String sessionId, Long patientId, LocalDateTime scheduledTime, Instant joinedAt) {
+            this.sessionId = sessionId;
+            this.patientId = patientId;
+            this.scheduledTime = scheduledTime;
+            this.joinedAt = joinedAt;
+            this.lastSeen = joinedAt;
+        }
+
+        private WaitingRoomEntryDto toDto() {
+            return new WaitingRoomEntryDto(sessionId, patientId, scheduledTime, joinedAt, lastSeen);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.session.sse;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans server-sent events out to every emitter subscribed to a key (a session, a doctor, ...) on this replica.
+ * Emitters are dropped when they complete, time out or fail a send.
+ */
+@Slf4j
+public class SseBroadcaster {
+
+    private final String channel;
+    private final long timeoutMillis;
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+
+    public SseBroadcaster(String channel, Duration timeout, MeterRegistry meterRegistry) {
+        this.channel = channel;
+        this.timeoutMillis = timeout.toMillis();
+        Gauge.builder("sse.connections", connections, AtomicInteger::get)
+                .description("Open server-sent event streams")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe(String key) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(emitter);
+        connections.incrementAndGet();
+        Runnable remove = () -> unsubscribe(key, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        return emitter;
+    }
+
+    public boolean hasSubscribers(String key) {
+        Set<SseEmitter> emitters = subscribers.get(key);
+        return emitters != null && !emitters.isEmpty();
+    }
+
+    public void send(String key, String eventName, String eventId, Object data) {
+        Set<SseEmitter> emitters = subscribers.get(key);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(key, emitter, eventName, eventId, data);
+        }
+    }
+
+    /**
+     * Sends to one emitter, e.g. to replay history to a subscriber that just connected.
+     */
+    public void send(String key, SseEmitter emitter, String eventName, String eventId, Object data) {
+        try {
+            SseEmitter.SseEventBuilder event = SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON);
+            if (eventId != null) {
+                event.id(eventId);
+            }
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping {} subscriber for {}: {}", channel, key, e.getMessage());
+            unsubscribe(key, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void unsubscribe(String key, SseEmitter emitter) {
+        subscribers.computeIfPresent(key, (k, emitters) -> {
+            if (emitters.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
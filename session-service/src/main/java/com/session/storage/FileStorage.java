@@ -0,0 +1,35 @@
+package com.session.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Storage SPI for session file content.
+ * Metadata stays in the session_files collection; implementations only move bytes.
+ */
+public interface FileStorage {
+
+    /**
+     * Name persisted on {@code SessionFile.storageBackend} so operators can tell where content lives.
+     */
+    String backendName();
+
+    /**
+     * Streams content into the backend under the given key. Large content is split into
+     * parts that are written in parallel; memory use is bounded by part size times parallelism.
+     *
+     * @param contentLength length in bytes, or -1 when unknown
+     */
+    StoredObject put(String key, InputStream content, long contentLength, String contentType) throws IOException;
+
+    InputStream get(String key) throws IOException;
+
+    /**
+     * Opens a ranged read starting at {@code offset} returning at most {@code length} bytes.
+     */
+    InputStream get(String key, long offset, long length) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    boolean exists(String key) throws IOException;
+}
@@ -0,0 +1,39 @@
+package com.session.storage;
+
+import com.session.entity.SessionFile;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks the backend for a stored file. New uploads go to the active backend; existing files are read and deleted
+ * through the backend recorded on them, so changing {@code app.storage.backend} leaves earlier uploads reachable.
+ * Files written before the backend was recorded live on local disk.
+ */
+public class FileStorageResolver {
+
+    private final FileStorage active;
+    private final Map<String, FileStorage> backends = new HashMap<>();
+
+    public FileStorageResolver(FileStorage active, List<FileStorage> readable) {
+        this.active = active;
+        readable.forEach(storage -> backends.put(storage.backendName(), storage));
+        backends.put(active.backendName(), active);
+    }
+
+    public FileStorage active() {
+        return active;
+    }
+
+    public FileStorage forFile(SessionFile file) throws IOException {
+        String backend = file.getStorageBackend() != null ? file.getStorageBackend() : LocalFileStorage.BACKEND_NAME;
+        FileStorage storage = backends.get(backend);
+        if (storage == null) {
+            throw new IOException("File " + file.getId() + " is stored on backend '" + backend
+                    + "', which is not configured");
+        }
+        return storage;
+    }
+}
@@ -0,0 +1,149 @@
+package com.session.storage;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Sorts;
+import com.session.exception.StorageObjectNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores session files in MongoDB GridFS so every pod sees the same content without a shared volume.
+ * Small files go through the driver's upload stream. Large files are split into parts aligned to the
+ * GridFS chunk size; each part's chunk documents are inserted in parallel and the files document is
+ * written last, so a file only becomes visible once all of its chunks exist.
+ */
+@Slf4j
+public class GridFsFileStorage implements FileStorage {
+
+    public static final String BACKEND_NAME = "gridfs";
+
+    private final GridFSBucket bucket;
+    private final MongoCollection<Document> filesCollection;
+    private final MongoCollection<Document> chunksCollection;
+    private final MultipartUploader uploader;
+    private final int chunkSize;
+
+    public GridFsFileStorage(MongoDatabase database, String bucketName, int chunkSize, MultipartUploader uploader) {
+        this.bucket = GridFSBuckets.create(database, bucketName).withChunkSizeBytes(chunkSize);
+        this.filesCollection = database.getCollection(bucketName + ".files");
+        this.chunksCollection = database.getCollection(bucketName + ".chunks");
+        this.chunkSize = chunkSize;
+        this.uploader = uploader;
+        if (uploader.getPartSize() % chunkSize != 0) {
+            throw new IllegalArgumentException("GridFS part size must be a multiple of the chunk size");
+        }
+
+        // The driver only creates these lazily on its own upload path; the parallel path needs them up front
+        chunksCollection.createIndex(Indexes.ascending("files_id", "n"), new IndexOptions().unique(true));
+        filesCollection.createIndex(Indexes.ascending("filename", "uploadDate"));
+    }
+
+    @Override
+    public String backendName() {
+        return BACKEND_NAME;
+    }
+
+    @Override
+    public StoredObject put(String key, InputStream content, long contentLength, String contentType)
+            throws IOException {
+        Document metadata = new Document("contentType", contentType);
+
+        if (contentLength >= 0 && contentLength <= uploader.getPartSize()) {
+            ObjectId id = bucket.uploadFromStream(key, content, new GridFSUploadOptions().metadata(metadata));
+            log.debug("Stored {} in GridFS with id {}", key, id);
+            return StoredObject.builder().key(key).size(contentLength).partCount(1).build();
+        }
+
+        ObjectId fileId = new ObjectId();
+        AtomicLong length = new AtomicLong();
+        int partCount;
+        try {
+            partCount = uploader.upload(content, (partNumber, offset, data, partLength) -> {
+                insertChunks(fileId, (int) (offset / chunkSize), data, partLength);
+                length.addAndGet(partLength);
+            });
+            filesCollection.insertOne(new Document("_id", fileId)
+                    .append("length", length.get())
+                    .append("chunkSize", chunkSize)
+                    .append("uploadDate", new Date())
+                    .append("filename", key)
+                    .append("metadata", metadata));
+        } catch (IOException | RuntimeException e) {
+            // Without a files document the chunks are unreachable, so drop them
+            chunksCollection.deleteMany(Filters.eq("files_id", fileId));
+            throw e;
+        }
+
+        log.debug("Stored {} in GridFS with id {} using {} parallel parts", key, fileId, partCount);
+        return StoredObject.builder().key(key).size(length.get()).partCount(partCount).build();
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return bucket.openDownloadStream(latest(key).getObjectId());
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        InputStream in = bucket.openDownloadStream(latest(key).getObjectId());
+        try {
+            // GridFSDownloadStream.skip jumps straight to the chunk holding the offset
+            in.skipNBytes(offset);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+        return new BoundedInputStream(in, length);
+    }
+
+    @Override
+    public void delete(String key) {
+        List<ObjectId> ids = new ArrayList<>();
+        bucket.find(Filters.eq("filename", key)).forEach(file -> ids.add(file.getObjectId()));
+        ids.forEach(bucket::delete);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return bucket.find(Filters.eq("filename", key)).first() != null;
+    }
+
+    private void insertChunks(ObjectId fileId, int firstChunk, byte[] data, int length) {
+        List<Document> chunks = new ArrayList<>((length + chunkSize - 1) / chunkSize);
+        for (int start = 0, n = firstChunk; start < length; start += chunkSize, n++) {
+            int end = Math.min(start + chunkSize, length);
+            chunks.add(new Document("files_id", fileId)
+                    .append("n", n)
+                    .append("data", new Binary(Arrays.copyOfRange(data, start, end))));
+        }
+        chunksCollection.insertMany(chunks);
+    }
+
+    private GridFSFile latest(String key) throws StorageObjectNotFoundException {
+        GridFSFile file = bucket.find(Filters.eq("filename", key))
+                .sort(Sorts.descending("uploadDate"))
+                .first();
+        if (file == null) {
+            throw new StorageObjectNotFoundException("GridFS file not found: " + key);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,119 @@
+package com.session.storage;
+
+import com.session.exception.StorageObjectNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/**
+ * Stores session files on a local (or mounted) filesystem.
+ * Keys are resolved against the upload root; absolute keys from records written before the
+ * storage SPI existed resolve to themselves, so legacy {@code filePath} values keep working.
+ */
+@Slf4j
+public class LocalFileStorage implements FileStorage {
+
+    public static final String BACKEND_NAME = "local";
+
+    private final Path root;
+    private final MultipartUploader uploader;
+
+    public LocalFileStorage(String rootDir, MultipartUploader uploader) {
+        this.root = Paths.get(rootDir).toAbsolutePath().normalize();
+        this.uploader = uploader;
+    }
+
+    @Override
+    public String backendName() {
+        return BACKEND_NAME;
+    }
+
+    @Override
+    public StoredObject put(String key, InputStream content, long contentLength, String contentType)
+            throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+
+        // Write to a temp file first so readers never observe a partially written object
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        int partCount;
+        try {
+            if (contentLength >= 0 && contentLength <= uploader.getPartSize()) {
+                Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+                partCount = 1;
+            } else {
+                try (FileChannel channel = FileChannel.open(temp,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    partCount = uploader.upload(content, (partNumber, offset, data, length) -> {
+                        ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+                        long position = offset;
+                        while (buffer.hasRemaining()) {
+                            position += channel.write(buffer, position);
+                        }
+                    });
+                }
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        long size = Files.size(target);
+        log.debug("Stored {} bytes at {} in {} parts", size, target, partCount);
+        return StoredObject.builder().key(key).size(size).partCount(partCount).build();
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(existing(key));
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        FileChannel channel = FileChannel.open(existing(key), StandardOpenOption.READ);
+        try {
+            channel.position(offset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new BoundedInputStream(Channels.newInputStream(channel), length);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    private Path existing(String key) throws IOException {
+        Path path = resolve(key);
+        if (!Files.exists(path)) {
+            throw new StorageObjectNotFoundException("Physical file not found: " + key);
+        }
+        return path;
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!Paths.get(key).isAbsolute() && !path.startsWith(root)) {
+            throw new IllegalArgumentException("Storage key escapes upload root: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,150 @@
+package com.session.storage;
+
+import com.session.exception.StorageObjectNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * In-process stand-in for an S3-compatible store, backed by a local directory.
+ * Follows the same multipart contract as S3 (staged parts, ETag check on completion, abort cleans up)
+ * so {@link ObjectStoreFileStorage} can be exercised in tests and local runs without MinIO.
+ */
+@Slf4j
+public class LocalObjectStoreClient implements ObjectStoreClient {
+
+    private final Path objects;
+    private final Path uploads;
+
+    public LocalObjectStoreClient(String rootDir) throws IOException {
+        Path root = Paths.get(rootDir).toAbsolutePath().normalize();
+        this.objects = Files.createDirectories(root.resolve("objects"));
+        this.uploads = Files.createDirectories(root.resolve("uploads"));
+    }
+
+    @Override
+    public void putObject(String key, InputStream content, long contentLength, String contentType) throws IOException {
+        Path target = objectPath(key);
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(uploads, "put-", ".tmp");
+        try {
+            Files.copy(content, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public String createMultipartUpload(String key, String contentType) throws IOException {
+        String uploadId = UUID.randomUUID().toString();
+        Files.createDirectories(uploads.resolve(uploadId));
+        return uploadId;
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, byte[] data, int length) throws IOException {
+        Path uploadDir = uploads.resolve(uploadId);
+        if (!Files.isDirectory(uploadDir)) {
+            throw new IOException("No such upload: " + uploadId);
+        }
+        try (OutputStream out = Files.newOutputStream(uploadDir.resolve(String.valueOf(partNumber)))) {
+            out.write(data, 0, length);
+        }
+        return etag(data, length);
+    }
+
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, SortedMap<Integer, String> etags)
+            throws IOException {
+        Path uploadDir = uploads.resolve(uploadId);
+        Path target = objectPath(key);
+        Files.createDirectories(target.getParent());
+        Path temp = uploadDir.resolve("assembled");
+
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            for (Map.Entry<Integer, String> part : etags.entrySet()) {
+                byte[] data = Files.readAllBytes(uploadDir.resolve(String.valueOf(part.getKey())));
+                if (!etag(data, data.length).equals(part.getValue())) {
+                    throw new IOException("ETag mismatch for part " + part.getKey() + " of " + key);
+                }
+                out.write(data);
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        deleteUpload(uploadDir);
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) throws IOException {
+        deleteUpload(uploads.resolve(uploadId));
+    }
+
+    @Override
+    public InputStream getObject(String key, long offset, long length) throws IOException {
+        Path path = objectPath(key);
+        if (!Files.exists(path)) {
+            throw new StorageObjectNotFoundException("Object not found: " + key);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        channel.position(offset);
+        InputStream in = Channels.newInputStream(channel);
+        return length >= 0 ? new BoundedInputStream(in, length) : in;
+    }
+
+    @Override
+    public void deleteObject(String key) throws IOException {
+        Files.deleteIfExists(objectPath(key));
+    }
+
+    @Override
+    public boolean objectExists(String key) {
+        return Files.exists(objectPath(key));
+    }
+
+    private Path objectPath(String key) {
+        Path path = objects.resolve(key).normalize();
+        if (!path.startsWith(objects)) {
+            throw new IllegalArgumentException("Object key escapes store root: " + key);
+        }
+        return path;
+    }
+
+    private void deleteUpload(Path uploadDir) throws IOException {
+        if (!Files.exists(uploadDir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(uploadDir);
+    }
+
+    private static String etag(byte[] data, int length) {
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            md5.update(data, 0, length);
+            return HexFormat.of().formatHex(md5.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
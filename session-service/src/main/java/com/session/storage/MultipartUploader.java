@@ -0,0 +1,129 @@
+package com.session.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Splits a stream into fixed-size parts and hands them to a {@link PartWriter} on a shared executor.
+ * At most {@code parallelism} part buffers are alive per upload, so heap use does not grow with file size.
+ */
+@Slf4j
+public class MultipartUploader {
+
+    private final Executor executor;
+    private final int partSize;
+    private final int parallelism;
+
+    public MultipartUploader(Executor executor, int partSize, int parallelism) {
+        if (partSize <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Part size and parallelism must be positive");
+        }
+        this.executor = executor;
+        this.partSize = partSize;
+        this.parallelism = parallelism;
+    }
+
+    public int getPartSize() {
+        return partSize;
+    }
+
+    /**
+     * Uploads the stream and returns the number of parts written. Blocks until every part completes.
+     */
+    public int upload(InputStream in, PartWriter writer) throws IOException {
+        Semaphore permits = new Semaphore(parallelism);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<CompletableFuture<Void>> parts = new ArrayList<>();
+
+        long offset = 0;
+        int partNumber = 1;
+        try {
+            while (failure.get() == null) {
+                permits.acquire();
+                byte[] buffer = new byte[partSize];
+                int read;
+                try {
+                    read = in.readNBytes(buffer, 0, partSize);
+                } catch (IOException e) {
+                    permits.release();
+                    throw e;
+                }
+                if (read == 0) {
+                    permits.release();
+                    break;
+                }
+
+                int currentPart = partNumber++;
+                long currentOffset = offset;
+                offset += read;
+
+                parts.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        writer.writePart(currentPart, currentOffset, buffer, read);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    } finally {
+                        permits.release();
+                    }
+                }, executor).whenComplete((ignored, ex) -> {
+                    if (ex != null) {
+                        failure.compareAndSet(null, ex);
+                    }
+                }));
+
+                if (read < partSize) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            awaitQuietly(parts);
+            throw new InterruptedIOException("Interrupted while uploading parts");
+        } catch (IOException | RuntimeException e) {
+            // Let in-flight parts settle so the caller can safely abort and clean up
+            awaitQuietly(parts);
+            throw e;
+        }
+
+        try {
+            CompletableFuture.allOf(parts.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException e) {
+            throw unwrap(e.getCause());
+        }
+
+        if (failure.get() != null) {
+            throw unwrap(failure.get());
+        }
+        log.debug("Multipart upload finished with {} parts, {} bytes", parts.size(), offset);
+        return parts.size();
+    }
+
+    private void awaitQuietly(List<CompletableFuture<Void>> parts) {
+        for (CompletableFuture<Void> part : parts) {
+            try {
+                part.join();
+            } catch (CompletionException | CancellationException ignored) {
+                // The first failure is reported by the caller
+            }
+        }
+    }
+
+    private IOException unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof UncheckedIOException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t instanceof IOException io ? io : new IOException("Part upload failed", t);
+    }
+}
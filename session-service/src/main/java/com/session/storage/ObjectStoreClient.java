@@ -0,0 +1,37 @@
+package com.session.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.SortedMap;
+
+/**
+ * The subset of the S3 API that {@link ObjectStoreFileStorage} relies on.
+ * Kept narrow so the same storage code runs against AWS S3, MinIO and the in-process stand-in.
+ */
+public interface ObjectStoreClient {
+
+    void putObject(String key, InputStream content, long contentLength, String contentType) throws IOException;
+
+    String createMultipartUpload(String key, String contentType) throws IOException;
+
+    /**
+     * @return the ETag the store assigned to the part
+     */
+    String uploadPart(String key, String uploadId, int partNumber, byte[] data, int length) throws IOException;
+
+    /**
+     * @param etags part ETags keyed by part number
+     */
+    void completeMultipartUpload(String key, String uploadId, SortedMap<Integer, String> etags) throws IOException;
+
+    void abortMultipartUpload(String key, String uploadId) throws IOException;
+
+    /**
+     * @param length number of bytes to read, or -1 to read to the end of the object
+     */
+    InputStream getObject(String key, long offset, long length) throws IOException;
+
+    void deleteObject(String key) throws IOException;
+
+    boolean objectExists(String key) throws IOException;
+}
@@ -0,0 +1,95 @@
+package com.session.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stores session files in an S3-compatible object store. Content up to one part is sent with a
+ * single PUT; anything larger (or of unknown length) uses a multipart upload whose parts are sent
+ * in parallel. Reads use ranged GETs so partial downloads never pull the whole object.
+ */
+@Slf4j
+public class ObjectStoreFileStorage implements FileStorage {
+
+    public static final String BACKEND_NAME = "s3";
+
+    /**
+     * S3 rejects non-final parts smaller than this.
+     */
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final ObjectStoreClient client;
+    private final MultipartUploader uploader;
+
+    public ObjectStoreFileStorage(ObjectStoreClient client, MultipartUploader uploader) {
+        if (uploader.getPartSize() < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("Object store part size must be at least " + MIN_PART_SIZE + " bytes");
+        }
+        this.client = client;
+        this.uploader = uploader;
+    }
+
+    @Override
+    public String backendName() {
+        return BACKEND_NAME;
+    }
+
+    @Override
+    public StoredObject put(String key, InputStream content, long contentLength, String contentType)
+            throws IOException {
+        if (contentLength >= 0 && contentLength <= uploader.getPartSize()) {
+            client.putObject(key, content, contentLength, contentType);
+            return StoredObject.builder().key(key).size(contentLength).partCount(1).build();
+        }
+
+        String uploadId = client.createMultipartUpload(key, contentType);
+        SortedMap<Integer, String> etags = new ConcurrentSkipListMap<>();
+        AtomicLong size = new AtomicLong();
+        int partCount;
+        try {
+            partCount = uploader.upload(content, (partNumber, offset, data, length) -> {
+                etags.put(partNumber, client.uploadPart(key, uploadId, partNumber, data, length));
+                size.addAndGet(length);
+            });
+            if (partCount == 0) {
+                // S3 refuses to complete a multipart upload without parts
+                client.abortMultipartUpload(key, uploadId);
+                client.putObject(key, InputStream.nullInputStream(), 0, contentType);
+                return StoredObject.builder().key(key).size(0).partCount(1).build();
+            }
+            client.completeMultipartUpload(key, uploadId, etags);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Aborting multipart upload {} for {}: {}", uploadId, key, e.getMessage());
+            client.abortMultipartUpload(key, uploadId);
+            throw e;
+        }
+
+        log.debug("Stored {} ({} bytes) in object store using {} parts", key, size.get(), partCount);
+        return StoredObject.builder().key(key).size(size.get()).partCount(partCount).build();
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return client.getObject(key, 0, -1);
+    }
+
+    @Override
+    public InputStream get(String key, long offset, long length) throws IOException {
+        return client.getObject(key, offset, length);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        client.deleteObject(key);
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return client.objectExists(key);
+    }
+}
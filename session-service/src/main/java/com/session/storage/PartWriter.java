@@ -0,0 +1,12 @@
+package com.session.storage;
+
+import java.io.IOException;
+
+/**
+ * Receives one part of a multipart upload. Parts may arrive concurrently and out of order.
+ */
+@FunctionalInterface
+public interface PartWriter {
+
+    void writePart(int partNumber, long offset, byte[] data, int length) throws IOException;
+}
@@ -0,0 +1,151 @@
+package com.session.storage;
+
+import com.session.exception.StorageObjectNotFoundException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * {@link ObjectStoreClient} backed by the AWS SDK. Works with AWS S3 and S3-compatible stores such as MinIO.
+ */
+public class S3ObjectStoreClient implements ObjectStoreClient {
+
+    private final S3Client s3;
+    private final String bucket;
+
+    public S3ObjectStoreClient(S3Client s3, String bucket) {
+        this.s3 = s3;
+        this.bucket = bucket;
+    }
+
+    @Override
+    public void putObject(String key, InputStream content, long contentLength, String contentType) throws IOException {
+        try {
+            s3.putObject(PutObjectRequest.builder()
+                            .bucket(bucket)
+                            .key(key)
+                            .contentType(contentType)
+                            .contentLength(contentLength)
+                            .build(),
+                    RequestBody.fromInputStream(content, contentLength));
+        } catch (SdkException e) {
+            throw new IOException("Failed to put object " + key, e);
+        }
+    }
+
+    @Override
+    public String createMultipartUpload(String key, String contentType) throws IOException {
+        try {
+            return s3.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .contentType(contentType)
+                    .build()).uploadId();
+        } catch (SdkException e) {
+            throw new IOException("Failed to start multipart upload for " + key, e);
+        }
+    }
+
+    @Override
+    public String uploadPart(String key, String uploadId, int partNumber, byte[] data, int length) throws IOException {
+        try {
+            return s3.uploadPart(UploadPartRequest.builder()
+                            .bucket(bucket)
+                            .key(key)
+                            .uploadId(uploadId)
+                            .partNumber(partNumber)
+                            .contentLength((long) length)
+                            .build(),
+                    RequestBody.fromInputStream(new ByteArrayInputStream(data, 0, length), length)).eTag();
+        } catch (SdkException e) {
+            throw new IOException("Failed to upload part " + partNumber + " of " + key, e);
+        }
+    }
+
+    @Override
+    public void completeMultipartUpload(String key, String uploadId, SortedMap<Integer, String> etags)
+            throws IOException {
+        List<CompletedPart> parts = etags.entrySet().stream()
+                .map(e -> CompletedPart.builder().partNumber(e.getKey()).eTag(e.getValue()).build())
+                .toList();
+        try {
+            s3.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build());
+        } catch (SdkException e) {
+            throw new IOException("Failed to complete multipart upload for " + key, e);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String key, String uploadId) throws IOException {
+        try {
+            s3.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (SdkException e) {
+            throw new IOException("Failed to abort multipart upload for " + key, e);
+        }
+    }
+
+    @Override
+    public InputStream getObject(String key, long offset, long length) throws IOException {
+        if (length == 0) {
+            return InputStream.nullInputStream();
+        }
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(key);
+        if (offset > 0 || length >= 0) {
+            request.range("bytes=" + offset + "-" + (length >= 0 ? String.valueOf(offset + length - 1) : ""));
+        }
+        try {
+            return s3.getObject(request.build());
+        } catch (NoSuchKeyException e) {
+            throw new StorageObjectNotFoundException("Object not found: " + key);
+        } catch (SdkException e) {
+            throw new IOException("Failed to get object " + key, e);
+        }
+    }
+
+    @Override
+    public void deleteObject(String key) throws IOException {
+        try {
+            s3.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (SdkException e) {
+            throw new IOException("Failed to delete object " + key, e);
+        }
+    }
+
+    @Override
+    public boolean objectExists(String key) throws IOException {
+        try {
+            s3.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+            return true;
+        } catch (NoSuchKeyException e) {
+            return false;
+        } catch (SdkException e) {
+            throw new IOException("Failed to check object " + key, e);
+        }
+    }
+}
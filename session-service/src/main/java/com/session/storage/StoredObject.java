@@ -0,0 +1,17 @@
+package com.session.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredObject {
+
+    private String key;
+    private long size;
+    private int partCount;
+}
@@ -0,0 +1,114 @@
+package com.session.config;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.session.entity.Session;
+import com.session.repository.SessionRepository;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against an embedded single-member replica set and inspects the commands the driver sends: reads through
+ * the secondary template must carry a secondaryPreferred read preference with the configured max staleness, while
+ * the repositories keep reading from the primary.
+ */
+@DataMongoTest(properties = {
+        "de.flapdoodle.mongodb.embedded.version=6.0.5",
+        "de.flapdoodle.mongodb.embedded.storage.repl-set-name=rs0",
+        "spring.data.mongodb.replica-set-name=rs0",
+        "app.mongo.secondary-reads.max-staleness=100s"
+})
+@Import({ MongoConfig.class, SecondaryReadRoutingTest.CommandCapture.class })
+class SecondaryReadRoutingTest {
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    @Qualifier(MongoConfig.SECONDARY_TEMPLATE)
+    private MongoTemplate secondaryMongoTemplate;
+
+    @Autowired
+    private CommandCapture commands;
+
+    private Session session;
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository.deleteAll();
+        session = new Session();
+        session.setAppointmentId(1L);
+        session.setPatientId(10L);
+        session.setDoctorId(20L);
+        session.setStatus(Session.SessionStatus.SCHEDULED);
+        session.setScheduledTime(LocalDateTime.now().plusHours(1));
+        session = sessionRepository.save(session);
+        commands.clear();
+    }
+
+    @Test
+    void secondaryTemplateReadsFromSecondaryPreferred() {
+        List<Session> found = secondaryMongoTemplate.find(Query.query(Criteria.where("doctorId").is(20L)), Session.class);
+
+        // With a single member the secondaryPreferred read falls back to the primary and still sees the write
+        assertThat(found).extracting(Session::getId).containsExactly(session.getId());
+        BsonDocument readPreference = commands.lastFind().getDocument("$readPreference");
+        assertThat(readPreference.getString("mode").getValue()).isEqualTo("secondaryPreferred");
+        assertThat(readPreference.getNumber("maxStalenessSeconds").longValue()).isEqualTo(100);
+    }
+
+    @Test
+    void primaryRepositoryStaysOnPrimary() {
+        assertThat(sessionRepository.findById(session.getId())).isPresent();
+
+        BsonDocument find = commands.lastFind();
+        assertThat(!find.containsKey("$readPreference")
+                || "primary".equals(find.getDocument("$readPreference").getString("mode").getValue())).isTrue();
+    }
+
+    @TestConfiguration
+    static class CommandCapture implements CommandListener {
+
+        private final List<BsonDocument> sessionFinds = new CopyOnWriteArrayList<>();
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCaptureCustomizer() {
+            return builder -> builder.addCommandListener(this);
+        }
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            // The command document is only valid during the callback
+            if ("find".equals(event.getCommandName())
+                    && "sessions".equals(event.getCommand().getString("find").getValue())) {
+                sessionFinds.add(event.getCommand().clone());
+            }
+        }
+
+        void clear() {
+            sessionFinds.clear();
+        }
+
+        BsonDocument lastFind() {
+            assertThat(sessionFinds).as("finds sent to sessions").isNotEmpty();
+            return sessionFinds.get(sessionFinds.size() - 1);
+        }
+    }
+}
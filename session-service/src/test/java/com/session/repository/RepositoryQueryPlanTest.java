@@ -0,0 +1,236 @@
+package com.session.repository;
+
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.session.entity.AppointmentMapping;
+import com.session.entity.Session;
+import com.session.entity.SessionFile;
+import com.session.migration.IndexMigrationRunner;
+import com.session.service.KeysetPagination;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.and;
+import static com.mongodb.client.model.Filters.eq;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs every repository finder against embedded MongoDB with the indexes created by {@link IndexMigrationRunner},
+ * then explains the equivalent filter and asserts the winning plan is an index scan that examines no more
+ * documents than it returns. Keyset page queries are explained as built, including their {@code _id} sort.
+ */
+@DataMongoTest(properties = {
+        "de.flapdoodle.mongodb.embedded.version=6.0.5",
+        "spring.data.mongodb.auto-index-creation=false"
+})
+@Import(IndexMigrationRunner.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RepositoryQueryPlanTest {
+
+    private static final int SESSIONS = 300;
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private SessionRepository sessionRepository;
+
+    @Autowired
+    private SessionFileRepository sessionFileRepository;
+
+    @Autowired
+    private AppointmentMappingRepository appointmentMappingRepository;
+
+    private String sampleSessionId;
+
+    @BeforeAll
+    void seed() {
+        Session.SessionStatus[] sessionStatuses = Session.SessionStatus.values();
+        AppointmentMapping.AppointmentStatus[] mappingStatuses = AppointmentMapping.AppointmentStatus.values();
+        SessionFile.FileCategory[] categories = SessionFile.FileCategory.values();
+
+        List<Session> sessions = new ArrayList<>();
+        List<AppointmentMapping> mappings = new ArrayList<>();
+        for (long i = 0; i < SESSIONS; i++) {
+            Session session = new Session();
+            session.setAppointmentId(i);
+            session.setPatientId(i % 30);
+            session.setDoctorId(i % 10);
+            session.setStatus(sessionStatuses[(int) (i % sessionStatuses.length)]);
+            session.setScheduledTime(LocalDateTime.now().plusMinutes(i));
+            sessions.add(session);
+
+            mappings.add(AppointmentMapping.builder()
+                    .appointmentId(i)
+                    .patientId(i % 30)
+                    .doctorId(i % 10)
+                    .status(mappingStatuses[(int) (i % mappingStatuses.length)])
+                    .build());
+        }
+        List<Session> saved = new ArrayList<>(mongoTemplate.insertAll(sessions));
+        mongoTemplate.insertAll(mappings);
+
+        List<SessionFile> files = new ArrayList<>();
+        for (int i = 0; i < SESSIONS * 2; i++) {
+            Session session = saved.get(i % SESSIONS);
+            files.add(SessionFile.builder()
+                    .sessionId(session.getId())
+                    .fileName("file-" + i)
+                    .fileType("pdf")
+                    .category(categories[i % categories.length])
+                    .uploadedBy(i % 2 == 0 ? "PATIENT" : "DOCTOR")
+                    .uploadedById((long) (i % 40))
+                    .build());
+        }
+        mongoTemplate.insertAll(files);
+        sampleSessionId = saved.get(7).getId();
+    }
+
+    @Test
+    void sessionFinders() {
+        Session.SessionStatus status = Session.SessionStatus.SCHEDULED;
+
+        assertThat(sessionRepository.findByAppointmentId(42L)).isPresent();
+        assertIndexScan("sessions", eq("appointmentId", 42L));
+
+        assertThat(sessionRepository.findByPatientId(3L)).isNotEmpty();
+        assertIndexScan("sessions", eq("patientId", 3L));
+
+        assertThat(sessionRepository.findByDoctorId(4L)).isNotEmpty();
+        assertIndexScan("sessions", eq("doctorId", 4L));
+
+        assertThat(sessionRepository.findByStatus(status)).isNotEmpty();
+        assertIndexScan("sessions", eq("status", status.name()));
+
+        sessionRepository.findByPatientIdAndStatus(6L, status);
+        assertIndexScan("sessions", and(eq("patientId", 6L), eq("status", status.name())));
+
+        sessionRepository.findByDoctorIdAndStatus(6L, status);
+        assertIndexScan("sessions", and(eq("doctorId", 6L), eq("status", status.name())));
+    }
+
+    @Test
+    void sessionFileFinders() {
+        SessionFile.FileCategory category = SessionFile.FileCategory.values()[0];
+
+        assertThat(sessionFileRepository.findBySessionId(sampleSessionId)).isNotEmpty();
+        assertIndexScan("session_files", eq("sessionId", sampleSessionId));
+
+        sessionFileRepository.findBySessionIdAndCategory(sampleSessionId, category);
+        assertIndexScan("session_files", and(eq("sessionId", sampleSessionId), eq("category", category.name())));
+
+        sessionFileRepository.findBySessionIdAndUploadedBy(sampleSessionId, "PATIENT");
+        assertIndexScan("session_files", and(eq("sessionId", sampleSessionId), eq("uploadedBy", "PATIENT")));
+
+        assertThat(sessionFileRepository.findByUploadedById(5L)).isNotEmpty();
+        assertIndexScan("session_files", eq("uploadedById", 5L));
+    }
+
+    @Test
+    void appointmentMappingFinders() {
+        AppointmentMapping.AppointmentStatus status = AppointmentMapping.AppointmentStatus.SESSION_READY;
+
+        assertThat(appointmentMappingRepository.findByAppointmentId(42L)).isPresent();
+        assertIndexScan("appointment_mappings", eq("appointmentId", 42L));
+
+        assertThat(appointmentMappingRepository.findByPatientId(3L)).isNotEmpty();
+        assertIndexScan("appointment_mappings", eq("patientId", 3L));
+
+        assertThat(appointmentMappingRepository.findByDoctorId(4L)).isNotEmpty();
+        assertIndexScan("appointment_mappings", eq("doctorId", 4L));
+
+        assertThat(appointmentMappingRepository.findByStatus(status)).isNotEmpty();
+        assertIndexScan("appointment_mappings", eq("status", status.name()));
+
+        appointmentMappingRepository.findByPatientIdAndStatus(6L, status);
+        assertIndexScan("appointment_mappings", and(eq("patientId", 6L), eq("status", status.name())));
+
+        appointmentMappingRepository.findByDoctorIdAndStatus(6L, status);
+        assertIndexScan("appointment_mappings", and(eq("doctorId", 6L), eq("status", status.name())));
+    }
+
+    @Test
+    void sessionKeysetPages() {
+        assertKeysetPages("sessions", new Criteria());
+        assertKeysetPages("sessions", Criteria.where("patientId").is(3L));
+        assertKeysetPages("sessions", Criteria.where("doctorId").is(4L));
+    }
+
+    @Test
+    void appointmentMappingKeysetPages() {
+        String status = AppointmentMapping.AppointmentStatus.SESSION_READY.name();
+
+        assertKeysetPages("appointment_mappings", new Criteria());
+        assertKeysetPages("appointment_mappings", Criteria.where("patientId").is(3L));
+        assertKeysetPages("appointment_mappings", Criteria.where("doctorId").is(4L));
+        assertKeysetPages("appointment_mappings", Criteria.where("status").is(status));
+        assertKeysetPages("appointment_mappings", Criteria.where("patientId").is(2L).and("status").is(status));
+        assertKeysetPages("appointment_mappings", Criteria.where("doctorId").is(2L).and("status").is(status));
+    }
+
+    @Test
+    void uniqueAppointmentIndexesExist() {
+        assertThat(uniqueIndexKeys("sessions")).contains("appointmentId");
+        assertThat(uniqueIndexKeys("appointment_mappings")).contains("appointmentId");
+    }
+
+    private void assertIndexScan(String collection, Bson filter) {
+        assertIndexScan(collection, filter, mongoTemplate.getCollection(collection).find(filter));
+    }
+
+    /**
+     * Explains the first page and the page after it, as built by {@link KeysetPagination#pageQuery}. Both must be
+     * served in {@code _id} order straight from an index, without an in-memory sort.
+     */
+    private void assertKeysetPages(String collection, Criteria filter) {
+        Query first = KeysetPagination.pageQuery(filter, null, PAGE_SIZE);
+        List<Document> page = mongoTemplate.find(first, Document.class, collection);
+        assertThat(page).as("first page of %s on %s", filter.getCriteriaObject(), collection).hasSize(PAGE_SIZE);
+        Query next = KeysetPagination.pageQuery(filter,
+                page.get(page.size() - 1).getObjectId("_id").toHexString(), PAGE_SIZE);
+
+        for (Query query : List.of(first, next)) {
+            Document plan = assertIndexScan(collection, query.getQueryObject(), mongoTemplate.getCollection(collection)
+                    .find(query.getQueryObject()).sort(query.getSortObject()).limit(query.getLimit()));
+            assertThat(plan.toJson()).as("plan for %s on %s", query, collection).doesNotContain("\"SORT\"");
+        }
+    }
+
+    private Document assertIndexScan(String collection, Bson filter, FindIterable<Document> find) {
+        Document explain = find.explain(ExplainVerbosity.EXECUTION_STATS);
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        Document stats = explain.get("executionStats", Document.class);
+
+        assertThat(winningPlan.toJson()).as("plan for %s on %s", filter, collection)
+                .contains("IXSCAN")
+                .doesNotContain("COLLSCAN");
+        assertThat(stats.getInteger("totalDocsExamined"))
+                .as("documents examined for %s on %s", filter, collection)
+                .isLessThanOrEqualTo(stats.getInteger("nReturned"));
+        return winningPlan;
+    }
+
+    private List<String> uniqueIndexKeys(String collection) {
+        List<String> keys = new ArrayList<>();
+        for (Document index : mongoTemplate.getCollection(collection).listIndexes()) {
+            if (Boolean.TRUE.equals(index.getBoolean("unique"))) {
+                keys.addAll(index.get("key", Document.class).keySet());
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,107 @@
+package com.session.service;
+
+import com.session.config.MongoConfig;
+import com.session.entity.AppointmentMapping;
+import com.session.entity.Session;
+import com.session.kafka.SessionEventProducer;
+import com.session.mapper.SessionMapper;
+import com.telemedicine.events.AppointmentBookedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Events/second of the old multi-step booking chain versus {@link AppointmentBookingProcessor}.
+ * Every event is delivered twice to include redelivery cost. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+@DataMongoTest(properties = "de.flapdoodle.mongodb.embedded.version=6.0.5")
+@Import({ MongoConfig.class, AppointmentBookingProcessor.class, AppointmentMappingService.class, SessionService.class,
+        SessionStateMachine.class, SessionCache.class, StatusCounterService.class, SessionMapper.class,
+        SimpleMeterRegistry.class })
+class AppointmentBookingThroughputBenchmark {
+
+    private static final int EVENTS = 2_000;
+    private static final int WARMUP = 200;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private AppointmentMappingService appointmentMappingService;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private AppointmentBookingProcessor appointmentBookingProcessor;
+
+    @MockBean
+    private SessionEventProducer sessionEventProducer;
+
+    @BeforeEach
+    void clean() {
+        mongoTemplate.remove(new Query(), Session.class);
+        mongoTemplate.remove(new Query(), AppointmentMapping.class);
+    }
+
+    @Test
+    void compareLegacyChainWithPipeline() {
+        double legacy = eventsPerSecond(1_000_000L, id -> legacyChain(event(id)));
+        double pipeline = eventsPerSecond(2_000_000L, id -> appointmentBookingProcessor.process(event(id)));
+
+        System.out.printf("appointment.booked legacy chain: %.0f events/s, pipeline: %.0f events/s (%.2fx)%n",
+                legacy, pipeline, pipeline / legacy);
+
+        // Redelivery must not create duplicates
+        assertThat(mongoTemplate.count(new Query(), Session.class))
+                .isEqualTo(2L * (EVENTS + WARMUP));
+        assertThat(mongoTemplate.count(new Query(), AppointmentMapping.class)).isEqualTo(2L * (EVENTS + WARMUP));
+    }
+
+    private double eventsPerSecond(long firstId, LongConsumer handler) {
+        for (long id = firstId; id < firstId + WARMUP; id++) {
+            handler.accept(id);
+            handler.accept(id);
+        }
+        long start = System.nanoTime();
+        for (long id = firstId + WARMUP; id < firstId + WARMUP + EVENTS; id++) {
+            handler.accept(id);
+            handler.accept(id);
+        }
+        long elapsed = System.nanoTime() - start;
+        return (2.0 * EVENTS) / (elapsed / 1_000_000_000.0);
+    }
+
+    // Listener flow before the processor was introduced
+    private void legacyChain(AppointmentBookedEvent event) {
+        appointmentMappingService.saveAppointmentMapping(event.getAppointmentId(), event.getPatientId(),
+                event.getDoctorId(), event.getAppointmentType(), event.getAppointmentDate());
+        appointmentMappingService.updateMappingStatus(event.getAppointmentId(),
+                AppointmentMapping.AppointmentStatus.CONFIRMED);
+        sessionService.createSessionFromAppointment(event.getAppointmentId(), event.getPatientId(),
+                event.getDoctorId(), event.getAppointmentDate());
+    }
+
+    private static AppointmentBookedEvent event(long appointmentId) {
+        AppointmentBookedEvent event = new AppointmentBookedEvent();
+        event.setAppointmentId(appointmentId);
+        event.setPatientId(appointmentId % 500);
+        event.setDoctorId(appointmentId % 50);
+        event.setAppointmentType("VIDEO");
+        event.setAppointmentDate(LocalDateTime.now().plusDays(1));
+        return event;
+    }
+}
@@ -0,0 +1,181 @@
+package com.session.service;
+
+import com.session.entity.Session;
+import com.session.event.SessionTransitionedEvent;
+import com.session.exception.InvalidSessionTransitionException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataMongoTest(properties = "de.flapdoodle.mongodb.embedded.version=6.0.5")
+@Import(SessionStateMachine.class)
+@RecordApplicationEvents
+class SessionStateMachineConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private SessionStateMachine sessionStateMachine;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Test
+    void concurrentStartsHaveExactlyOneWinner() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                String sessionId = scheduledSession(round).getId();
+                AtomicInteger rejected = new AtomicInteger();
+                CountDownLatch go = new CountDownLatch(1);
+
+                List<Future<Session>> results = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    results.add(pool.submit(() -> {
+                        go.await();
+                        try {
+                            return sessionStateMachine.transition(sessionId, SessionStateMachine.Transition.START);
+                        } catch (InvalidSessionTransitionException e) {
+                            rejected.incrementAndGet();
+                            return null;
+                        }
+                    }));
+                }
+                go.countDown();
+
+                List<Session> winners = new ArrayList<>();
+                for (Future<Session> result : results) {
+                    Session session = result.get(30, TimeUnit.SECONDS);
+                    if (session != null) {
+                        winners.add(session);
+                    }
+                }
+
+                assertThat(winners).hasSize(1);
+                assertThat(winners.get(0).getStatus()).isEqualTo(Session.SessionStatus.STARTED);
+                assertThat(winners.get(0).getStartTime()).isNotNull();
+                assertThat(rejected).hasValue(THREADS - 1);
+                assertThat(applicationEvents.stream(SessionTransitionedEvent.class)
+                        .filter(e -> e.getSession().getId().equals(sessionId)))
+                        .hasSize(1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void racingCompleteAndCancelLeaveOneTerminalStatus() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            Session session = scheduledSession(ROUNDS);
+            sessionStateMachine.transition(session.getId(), SessionStateMachine.Transition.START);
+
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                SessionStateMachine.Transition transition = i % 2 == 0
+                        ? SessionStateMachine.Transition.COMPLETE
+                        : SessionStateMachine.Transition.CANCEL;
+                results.add(pool.submit(() -> {
+                    go.await();
+                    try {
+                        sessionStateMachine.transition(session.getId(), transition);
+                        return true;
+                    } catch (InvalidSessionTransitionException e) {
+                        return false;
+                    }
+                }));
+            }
+            go.countDown();
+
+            int wins = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    wins++;
+                }
+            }
+
+            assertThat(wins).isEqualTo(1);
+            assertThat(mongoTemplate.findById(session.getId(), Session.class).getStatus())
+                    .isIn(Session.SessionStatus.COMPLETED, Session.SessionStatus.CANCELLED);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentBatchTransitionsClaimEachSessionOnce() throws Exception {
+        List<String> sessionIds = new ArrayList<>();
+        for (int i = 0; i < ROUNDS; i++) {
+            sessionIds.add(scheduledSession(100L + i).getId());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<List<Session>>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(pool.submit(() -> {
+                    go.await();
+                    return sessionStateMachine.transitionAll(sessionIds, SessionStateMachine.Transition.NO_SHOW);
+                }));
+            }
+            go.countDown();
+
+            List<String> claimed = new ArrayList<>();
+            for (Future<List<Session>> result : results) {
+                result.get(30, TimeUnit.SECONDS).forEach(session -> claimed.add(session.getId()));
+            }
+
+            assertThat(claimed).containsExactlyInAnyOrderElementsOf(sessionIds);
+            assertThat(applicationEvents.stream(SessionTransitionedEvent.class)
+                    .filter(e -> sessionIds.contains(e.getSession().getId())))
+                    .hasSize(sessionIds.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void transitionFromWrongStatusIsRejected() {
+        Session session = scheduledSession(ROUNDS + 1);
+
+        assertThatThrownBy(() -> sessionStateMachine.transition(session.getId(),
+                SessionStateMachine.Transition.COMPLETE))
+                .isInstanceOf(InvalidSessionTransitionException.class);
+        assertThat(mongoTemplate.findById(session.getId(), Session.class).getStatus())
+                .isEqualTo(Session.SessionStatus.SCHEDULED);
+    }
+
+    private Session scheduledSession(long appointmentId) {
+        Session session = new Session();
+        session.setAppointmentId(appointmentId);
+        session.setPatientId(1L);
+        session.setDoctorId(2L);
+        session.setStatus(Session.SessionStatus.SCHEDULED);
+        session.setScheduledTime(LocalDateTime.now().plusHours(1));
+        return mongoTemplate.insert(session);
+    }
+}
@@ -0,0 +1,89 @@
+package com.session.storage;
+
+import com.session.entity.SessionFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileStorageResolverTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @TempDir
+    Path storeDir;
+
+    private ExecutorService executor;
+    private LocalFileStorage local;
+    private ObjectStoreFileStorage objectStore;
+    private FileStorageResolver resolver;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(2);
+        MultipartUploader uploader = new MultipartUploader(executor, ObjectStoreFileStorage.MIN_PART_SIZE, 2);
+        local = new LocalFileStorage(uploadDir.toString(), uploader);
+        objectStore = new ObjectStoreFileStorage(new LocalObjectStoreClient(storeDir.toString()), uploader);
+        resolver = new FileStorageResolver(objectStore, List.of(local));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void newUploadsGoToActiveBackend() {
+        assertThat(resolver.active()).isSameAs(objectStore);
+    }
+
+    @Test
+    void filesStayOnTheBackendTheyWereWrittenTo() throws IOException {
+        byte[] content = "local bytes".getBytes(StandardCharsets.UTF_8);
+        local.put("session-1/a.txt", new ByteArrayInputStream(content), content.length, "text/plain");
+        SessionFile file = SessionFile.builder()
+                .storageBackend(LocalFileStorage.BACKEND_NAME)
+                .storageKey("session-1/a.txt")
+                .build();
+
+        try (InputStream in = resolver.forFile(file).get(file.getStorageKey())) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void legacyRowsWithoutBackendResolveToLocalDisk() throws IOException {
+        Path legacy = Files.writeString(uploadDir.resolve("legacy.txt"), "legacy");
+        SessionFile file = SessionFile.builder().filePath(legacy.toString()).build();
+
+        FileStorage storage = resolver.forFile(file);
+
+        assertThat(storage).isSameAs(local);
+        try (InputStream in = storage.get(file.getFilePath())) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("legacy");
+        }
+    }
+
+    @Test
+    void unconfiguredBackendIsReported() {
+        SessionFile file = SessionFile.builder().id("f-1").storageBackend("gridfs").build();
+
+        assertThatThrownBy(() -> resolver.forFile(file))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("gridfs");
+    }
+}
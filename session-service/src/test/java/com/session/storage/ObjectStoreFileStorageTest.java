@@ -0,0 +1,97 @@
+package com.session.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ObjectStoreFileStorageTest {
+
+    private static final int PART_SIZE = ObjectStoreFileStorage.MIN_PART_SIZE;
+
+    @TempDir
+    Path storeDir;
+
+    private ExecutorService executor;
+    private ObjectStoreFileStorage storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        storage = new ObjectStoreFileStorage(new LocalObjectStoreClient(storeDir.toString()),
+                new MultipartUploader(executor, PART_SIZE, 3));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void multipartUploadRoundTripsContent() throws IOException {
+        byte[] content = randomBytes(PART_SIZE * 2 + 12345);
+
+        StoredObject stored = storage.put("session-1/large.bin", new ByteArrayInputStream(content), -1,
+                "application/octet-stream");
+
+        assertThat(stored.getPartCount()).isEqualTo(3);
+        assertThat(stored.getSize()).isEqualTo(content.length);
+        try (InputStream in = storage.get("session-1/large.bin")) {
+            assertThat(in.readAllBytes()).isEqualTo(content);
+        }
+    }
+
+    @Test
+    void rangedReadReturnsOnlyRequestedSlice() throws IOException {
+        byte[] content = randomBytes(PART_SIZE + 100);
+        storage.put("session-1/ranged.bin", new ByteArrayInputStream(content), content.length, "application/pdf");
+
+        long offset = PART_SIZE - 10;
+        try (InputStream in = storage.get("session-1/ranged.bin", offset, 50)) {
+            assertThat(in.readAllBytes()).isEqualTo(Arrays.copyOfRange(content, (int) offset, (int) offset + 50));
+        }
+    }
+
+    @Test
+    void failedUploadIsAbortedWithoutLeavingParts() throws IOException {
+        InputStream failing = new InputStream() {
+            private int served;
+
+            @Override
+            public int read() throws IOException {
+                if (served++ > PART_SIZE + 10) {
+                    throw new IOException("client went away");
+                }
+                return 1;
+            }
+        };
+
+        assertThatThrownBy(() -> storage.put("session-1/broken.bin", failing, -1, "application/pdf"))
+                .isInstanceOf(IOException.class);
+
+        assertThat(storage.exists("session-1/broken.bin")).isFalse();
+        try (Stream<Path> uploads = Files.list(storeDir.resolve("uploads"))) {
+            assertThat(uploads).isEmpty();
+        }
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+}